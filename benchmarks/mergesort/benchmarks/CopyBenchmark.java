@@ -0,0 +1,81 @@
+package mergesort.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class that measures the copy of the input that every sort benchmark makes before sorting,
+ * to be subtracted from their scores when comparing short arrays
+ * @author NubilaPardus
+ * @name CopyBenchmark
+ * @class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CopyBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int length;
+
+	private int[] ints;
+	private int[] intCopy;
+	private long[] longs;
+	private long[] longCopy;
+	private double[] doubles;
+	private double[] doubleCopy;
+	private Integer[] integers;
+	private Integer[] integerCopy;
+
+	@Setup
+	public void setUp(){
+		ints = Inputs.ints(length, "random");
+		intCopy = new int[length];
+		longs = Inputs.longs(length, "random");
+		longCopy = new long[length];
+		doubles = Inputs.doubles(length, "random");
+		doubleCopy = new double[length];
+		integers = Arrays.stream(ints).boxed().toArray(Integer[]::new);
+		integerCopy = new Integer[length];
+	}
+
+	@Benchmark
+	public void copyInts(final Blackhole blackhole){
+		System.arraycopy(ints, 0, intCopy, 0, length);
+		blackhole.consume(intCopy);
+	}
+
+	@Benchmark
+	public void copyLongs(final Blackhole blackhole){
+		System.arraycopy(longs, 0, longCopy, 0, length);
+		blackhole.consume(longCopy);
+	}
+
+	@Benchmark
+	public void copyDoubles(final Blackhole blackhole){
+		System.arraycopy(doubles, 0, doubleCopy, 0, length);
+		blackhole.consume(doubleCopy);
+	}
+
+	@Benchmark
+	public void copyIntegers(final Blackhole blackhole){
+		System.arraycopy(integers, 0, integerCopy, 0, length);
+		blackhole.consume(integerCopy);
+	}
+}
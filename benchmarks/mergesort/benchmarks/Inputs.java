@@ -0,0 +1,85 @@
+package mergesort.benchmarks;
+
+import java.util.Random;
+
+/**
+ * This class that generates the inputs of the benchmarks, always the same for a length and distribution.
+ * The distributions are those of Main: random, sorted, reversed, fewunique (16 distinct values)
+ * and organpipe (ascending then descending).
+ * @author NubilaPardus
+ * @name Inputs
+ * @class
+ */
+final class Inputs {
+
+	private Inputs(){
+	}
+
+	/**
+	 * Generates an input of int values
+	 * @param {int} length The length of the input
+	 * @param {String} distribution How the values are distributed
+	 * @return {int[]}
+	 */
+	static int[] ints(final int length, final String distribution){
+		Random random = new Random(42L);
+		int[] input = new int[length];
+		for (int i = 0; i < length; i++){
+			input[i] = "random".equals(distribution) ? random.nextInt() : (int) ordered(i, length, distribution, random);
+		}
+		return input;
+	}
+
+	/**
+	 * Generates an input of long values
+	 * @param {int} length The length of the input
+	 * @param {String} distribution How the values are distributed
+	 * @return {long[]}
+	 */
+	static long[] longs(final int length, final String distribution){
+		Random random = new Random(42L);
+		long[] input = new long[length];
+		for (int i = 0; i < length; i++){
+			input[i] = "random".equals(distribution) ? random.nextLong() : ordered(i, length, distribution, random);
+		}
+		return input;
+	}
+
+	/**
+	 * Generates an input of double values, the random ones being negative and positive
+	 * @param {int} length The length of the input
+	 * @param {String} distribution How the values are distributed
+	 * @return {double[]}
+	 */
+	static double[] doubles(final int length, final String distribution){
+		Random random = new Random(42L);
+		double[] input = new double[length];
+		for (int i = 0; i < length; i++){
+			input[i] = "random".equals(distribution) ? random.nextGaussian() : ordered(i, length, distribution, random);
+		}
+		return input;
+	}
+
+	/**
+	 * Provides a value of the distributions that are not random
+	 * @param {int} index The index of the value
+	 * @param {int} length The length of the input
+	 * @param {String} distribution How the values are distributed
+	 * @param {Random} random The source of the few unique values
+	 * @return {long}
+	 */
+	private static long ordered(final int index, final int length, final String distribution, final Random random){
+		switch (distribution){
+			case "sorted":
+				return index;
+			case "reversed":
+				return length - index;
+			case "fewunique":
+				return random.nextInt(16);
+			case "organpipe":
+				return Math.min(index, length - index);
+			default:
+				throw new IllegalArgumentException("Unknown distribution " + distribution);
+		}
+	}
+}
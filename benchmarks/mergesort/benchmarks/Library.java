@@ -0,0 +1,107 @@
+package mergesort.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class that looks up the sorters of the library, whose classes are in the unnamed package and therefore
+ * cannot be imported by the benchmarks, which JMH requires to be in a named package.
+ * The handles are looked up once per trial, so the benchmarks only pay for an invocation through a method handle.
+ * @author NubilaPardus
+ * @name Library
+ * @class
+ */
+final class Library {
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	private Library(){
+	}
+
+	/**
+	 * Provides a class of the library
+	 * @param {String} className The name of the class
+	 * @return {Class<>}
+	 */
+	static Class<?> type(final String className){
+		try {
+			return Class.forName(className);
+		} catch (ClassNotFoundException e){
+			throw new IllegalStateException("The library class " + className + " is not on the class path", e);
+		}
+	}
+
+	/**
+	 * Creates an instance of a class of the library
+	 * @param {String} className The name of the class
+	 * @param {Class<>[]} parameterTypes The parameter types of the constructor
+	 * @param {Object[]} arguments The arguments of the constructor
+	 * @return {Object}
+	 */
+	static Object create(final String className, final Class<?>[] parameterTypes, final Object... arguments){
+		try {
+			return type(className).getConstructor(parameterTypes).newInstance(arguments);
+		} catch (ReflectiveOperationException e){
+			throw new IllegalStateException("Cannot create a " + className, e);
+		}
+	}
+
+	/**
+	 * Creates a ForkJoinMergeSort
+	 * @param {ForkJoinPool} pool The pool the sorter runs on
+	 * @param {int} granularity The leaf size of the sorter, 0 for its default
+	 * @return {Object}
+	 */
+	static Object forkJoinMergeSort(final ForkJoinPool pool, final int granularity){
+		return granularity == 0
+				? create("ForkJoinMergeSort", new Class<?>[]{ForkJoinPool.class}, pool)
+				: create("ForkJoinMergeSort", new Class<?>[]{ForkJoinPool.class, int.class}, pool, granularity);
+	}
+
+	/**
+	 * Creates a ParallelMergeSort
+	 * @param {ExecutorService} executor The executor the sorter submits its tasks to
+	 * @param {int} granularity The leaf size of the sorter, 0 for its default
+	 * @return {Object}
+	 */
+	static Object parallelMergeSort(final ExecutorService executor, final int granularity){
+		return granularity == 0
+				? create("ParallelMergeSort", new Class<?>[]{ExecutorService.class}, executor)
+				: create("ParallelMergeSort", new Class<?>[]{ExecutorService.class, int.class}, executor, granularity);
+	}
+
+	/**
+	 * Looks up a static method of the library
+	 * @param {Class<>} owner The class that declares the method, from the library or the JDK
+	 * @param {String} name The name of the method
+	 * @param {Class<>} returnType The return type of the method
+	 * @param {Class<>[]} parameterTypes The parameter types of the method
+	 * @return {MethodHandle}
+	 */
+	static MethodHandle findStatic(final Class<?> owner, final String name, final Class<?> returnType, final Class<?>... parameterTypes){
+		try {
+			return LOOKUP.findStatic(owner, name, MethodType.methodType(returnType, parameterTypes));
+		} catch (ReflectiveOperationException e){
+			throw new IllegalStateException("Cannot find " + owner.getName() + "." + name, e);
+		}
+	}
+
+	/**
+	 * Looks up an instance method of the library, bound to the instance
+	 * @param {Object} receiver The instance the method is called on
+	 * @param {String} name The name of the method
+	 * @param {Class<>} returnType The return type of the method
+	 * @param {Class<>[]} parameterTypes The parameter types of the method
+	 * @return {MethodHandle}
+	 */
+	static MethodHandle findBound(final Object receiver, final String name, final Class<?> returnType, final Class<?>... parameterTypes){
+		try {
+			return LOOKUP.findVirtual(receiver.getClass(), name, MethodType.methodType(returnType, parameterTypes)).bindTo(receiver);
+		} catch (ReflectiveOperationException e){
+			throw new IllegalStateException("Cannot find " + receiver.getClass().getName() + "." + name, e);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package mergesort.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class that benchmarks the long array sorts of the library against the JDK sorts.
+ * Every invocation sorts a fresh copy of the same input, the copy being part of the measured time for every sorter alike;
+ * CopyBenchmark measures it alone. threads sizes the pools of the parallel sorters, and granularity sets the leaf size
+ * of the fork/join and executor sorters, 0 keeping their defaults.
+ * Run with the GC profiler to see the allocation rate of each sorter: java -jar target/benchmarks.jar LongSortBenchmark -prof gc
+ * @author NubilaPardus
+ * @name LongSortBenchmark
+ * @class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LongSortBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int length;
+
+	@Param({"random", "sorted", "reversed", "fewunique", "organpipe"})
+	private String distribution;
+
+	@Param({"1", "4"})
+	private int threads;
+
+	@Param({"0"})
+	private int granularity;
+
+	@Param({"sequential", "adaptive", "bottomup", "radix", "forkjoin", "forkjoinradix", "executor", "samplesort", "arrays", "parallelarrays"})
+	private String sorter;
+
+	private long[] input;
+	private long[] array;
+	private MethodHandle sort;
+	private ForkJoinPool pool;
+	private ExecutorService executor;
+
+	@Setup
+	public void setUp(){
+		input = Inputs.longs(length, distribution);
+		array = new long[length];
+		pool = new ForkJoinPool(threads);
+		executor = Executors.newFixedThreadPool(threads);
+		sort = sort(sorter);
+	}
+
+	@TearDown
+	public void tearDown(){
+		pool.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public void sort(final Blackhole blackhole) throws Throwable {
+		System.arraycopy(input, 0, array, 0, length);
+		blackhole.consume(sort.invoke(array));
+	}
+
+	/**
+	 * Provides the sort of a sorter, as a handle that takes a long array
+	 * @param {String} name The name of the sorter
+	 * @return {MethodHandle}
+	 */
+	private MethodHandle sort(final String name){
+		switch (name){
+			case "sequential":
+				return Library.findStatic(Library.type("MergeSort"), "sort", long[].class, long[].class);
+			case "adaptive":
+				return Library.findStatic(Library.type("MergeSort"), "sortAdaptive", int.class, long[].class);
+			case "bottomup":
+				return Library.findStatic(Library.type("BottomUpMergeSort"), "sort", long[].class, long[].class);
+			case "radix":
+				return Library.findStatic(Library.type("RadixSort"), "sort", long[].class, long[].class);
+			case "forkjoin":
+				return Library.findBound(Library.forkJoinMergeSort(pool, granularity), "sort", long[].class, long[].class);
+			case "forkjoinradix":
+				return Library.findBound(Library.create("ForkJoinRadixSort", new Class<?>[]{ForkJoinPool.class}, pool), "sort", long[].class, long[].class);
+			case "executor":
+				return Library.findBound(Library.parallelMergeSort(executor, granularity), "sort", long[].class, long[].class);
+			case "samplesort":
+				int buckets = Math.max(2, 4 * threads);
+				return Library.findBound(Library.create("SampleSort", new Class<?>[]{ExecutorService.class, int.class}, executor, buckets), "sort", long[].class, long[].class);
+			case "arrays":
+				return Library.findStatic(Arrays.class, "sort", void.class, long[].class);
+			case "parallelarrays":
+				return Library.findStatic(Arrays.class, "parallelSort", void.class, long[].class);
+			default:
+				throw new IllegalArgumentException("Unknown sorter " + name);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package mergesort.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class that benchmarks the stable sorts of Integer arrays with a comparator against the JDK sorts.
+ * Every invocation sorts a fresh copy of the same input; CopyBenchmark measures the copy alone.
+ * threads sizes the pools of the parallel sorters, and granularity sets the leaf size of the fork/join and executor sorters,
+ * 0 keeping their defaults.
+ * @author NubilaPardus
+ * @name ObjectSortBenchmark
+ * @class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ObjectSortBenchmark {
+
+	private static final Comparator<Integer> NATURAL_ORDER = Comparator.naturalOrder();
+
+	@Param({"1000", "100000", "1000000"})
+	private int length;
+
+	@Param({"random", "sorted", "reversed", "fewunique", "organpipe"})
+	private String distribution;
+
+	@Param({"1", "4"})
+	private int threads;
+
+	@Param({"0"})
+	private int granularity;
+
+	@Param({"sequential", "adaptive", "forkjoin", "executor", "arrays", "parallelarrays"})
+	private String sorter;
+
+	private Integer[] input;
+	private Integer[] array;
+	private MethodHandle sort;
+	private ForkJoinPool pool;
+	private ExecutorService executor;
+
+	@Setup
+	public void setUp(){
+		input = Arrays.stream(Inputs.ints(length, distribution)).boxed().toArray(Integer[]::new);
+		array = new Integer[length];
+		pool = new ForkJoinPool(threads);
+		executor = Executors.newFixedThreadPool(threads);
+		sort = sort(sorter);
+	}
+
+	@TearDown
+	public void tearDown(){
+		pool.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public void sort(final Blackhole blackhole) throws Throwable {
+		System.arraycopy(input, 0, array, 0, length);
+		blackhole.consume(sort.invoke(array, NATURAL_ORDER));
+	}
+
+	/**
+	 * Provides the sort of a sorter, as a handle that takes an Object array and a comparator
+	 * @param {String} name The name of the sorter
+	 * @return {MethodHandle}
+	 */
+	private MethodHandle sort(final String name){
+		switch (name){
+			case "sequential":
+				return Library.findStatic(Library.type("MergeSort"), "sort", Object[].class, Object[].class, Comparator.class);
+			case "adaptive":
+				return Library.findStatic(Library.type("MergeSort"), "sortAdaptive", int.class, Object[].class, Comparator.class);
+			case "forkjoin":
+				return Library.findBound(Library.forkJoinMergeSort(pool, granularity), "sort", Object[].class, Object[].class, Comparator.class);
+			case "executor":
+				return Library.findBound(Library.parallelMergeSort(executor, granularity), "sort", Object[].class, Object[].class, Comparator.class);
+			case "arrays":
+				return Library.findStatic(Arrays.class, "sort", void.class, Object[].class, Comparator.class);
+			case "parallelarrays":
+				return Library.findStatic(Arrays.class, "parallelSort", void.class, Object[].class, Comparator.class);
+			default:
+				throw new IllegalArgumentException("Unknown sorter " + name);
+		}
+	}
+}
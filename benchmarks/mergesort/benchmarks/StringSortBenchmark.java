@@ -0,0 +1,106 @@
+package mergesort.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class that benchmarks the LCP-aware string sorts against the comparison sorts, on keys that share long prefixes.
+ * Every invocation sorts a fresh copy of the same input. threads sizes the pool of the fork/join sorter,
+ * and granularity sets its leaf size, 0 keeping its default.
+ * @author NubilaPardus
+ * @name StringSortBenchmark
+ * @class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StringSortBenchmark {
+
+	@Param({"10000", "1000000"})
+	private int length;
+
+	@Param({"8", "64"})
+	private int prefixLength;
+
+	@Param({"lcp", "forkjoinlcp", "comparator", "arrays"})
+	private String sorter;
+
+	@Param({"1", "4"})
+	private int threads;
+
+	@Param({"0"})
+	private int granularity;
+
+	private String[] input;
+	private String[] array;
+	private MethodHandle sort;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp(){
+		Random random = new Random(42L);
+		char[] prefix = new char[prefixLength];
+		Arrays.fill(prefix, '/');
+		input = new String[length];
+		for (int i = 0; i < length; i++){
+			input[i] = new String(prefix) + Integer.toString(random.nextInt(length), 36) + "/" + random.nextInt(100);
+		}
+		array = new String[length];
+		pool = new ForkJoinPool(threads);
+		sort = sort(sorter);
+	}
+
+	@TearDown
+	public void tearDown(){
+		pool.shutdownNow();
+	}
+
+	@Benchmark
+	public void sort(final Blackhole blackhole) throws Throwable {
+		System.arraycopy(input, 0, array, 0, length);
+		blackhole.consume(sort.invoke(array));
+	}
+
+	/**
+	 * Provides the sort of a sorter, as a handle that takes a String array
+	 * @param {String} name The name of the sorter
+	 * @return {MethodHandle}
+	 */
+	private MethodHandle sort(final String name){
+		switch (name){
+			case "lcp":
+				return Library.findStatic(Library.type("StringMergeSort"), "sort", String[].class, String[].class);
+			case "forkjoinlcp":
+				return Library.findBound(Library.forkJoinMergeSort(pool, granularity), "sort", String[].class, String[].class);
+			case "comparator":
+				MethodHandle comparatorSort = Library.findStatic(Library.type("MergeSort"), "sort", Object[].class, Object[].class, Comparator.class);
+				return MethodHandles.insertArguments(comparatorSort, 1, Comparator.naturalOrder());
+			case "arrays":
+				return Library.findStatic(Arrays.class, "sort", void.class, Object[].class);
+			default:
+				throw new IllegalArgumentException("Unknown sorter " + name);
+		}
+	}
+}
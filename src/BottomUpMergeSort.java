@@ -0,0 +1,362 @@
+/**
+ * This class that contains an iterative (bottom-up) version of Merge Sort for int and long arrays.
+ * Blocks of 8 values are sorted by a sorting network of branchless compare-exchanges, then the runs are merged
+ * level by level, alternating between the array and the scratch space (ping-pong) so no merge copies its input back.
+ * The first levels are merged tile by tile, a tile fitting in the L2 cache with its scratch space, and only the
+ * levels above the tiles stream through the whole array. The merges pick the smaller head without a branch, which
+ * avoids the branch mispredictions of random input. The block sort writes to the scratch space when the number of
+ * levels is odd, so the last level always ends in the array.
+ * @author NubilaPardus
+ * @name BottomUpMergeSort
+ * @class
+ */
+public class BottomUpMergeSort {
+
+	/**
+	 * The length of the blocks sorted by the sorting network
+	 */
+	static final int BLOCK_LENGTH = 8;
+
+	/**
+	 * The size in bytes of a tile and its scratch space, about half of a typical L2 cache
+	 */
+	static final int TILE_BYTES = 1 << 18;
+
+	/**
+	 * Perform a merge and sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform a merge and sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr, SortBuffer buffer) {
+		RadixSort.checkArguments(inputArr, buffer);
+		int length = inputArr.length;
+		if (length < 2){
+			return inputArr;
+		}
+		int[] scratch = buffer.ints(length);
+		int levels = levels(length);
+		int[] source = levels % 2 == 0 ? inputArr : scratch;
+		int[] destination = levels % 2 == 0 ? scratch : inputArr;
+		for (int blockStart = 0; blockStart < length; blockStart += BLOCK_LENGTH){
+			sortBlock(inputArr, source, blockStart, Math.min(blockStart + BLOCK_LENGTH, length));
+		}
+		int tileLevels = Math.min(levels, tileLevels(Integer.BYTES));
+		int tileLength = BLOCK_LENGTH << tileLevels;
+		for (int tileStart = 0; tileStart < length; tileStart += tileLength){
+			int tileEnd = (int) Math.min((long) tileStart + tileLength, length);
+			int[] tileSource = source;
+			int[] tileDestination = destination;
+			for (int level = 0; level < tileLevels; level++){
+				mergePass(tileSource, tileDestination, tileStart, tileEnd, BLOCK_LENGTH << level);
+				int[] swap = tileSource;
+				tileSource = tileDestination;
+				tileDestination = swap;
+			}
+		}
+		if (tileLevels % 2 == 1){
+			int[] swap = source;
+			source = destination;
+			destination = swap;
+		}
+		for (int level = tileLevels; level < levels; level++){
+			mergePass(source, destination, 0, length, BLOCK_LENGTH << level);
+			int[] swap = source;
+			source = destination;
+			destination = swap;
+		}
+		return inputArr;
+	}
+
+	/**
+	 * Perform a merge and sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform a merge and sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr, SortBuffer buffer) {
+		RadixSort.checkArguments(inputArr, buffer);
+		int length = inputArr.length;
+		if (length < 2){
+			return inputArr;
+		}
+		long[] scratch = buffer.longs(length);
+		int levels = levels(length);
+		long[] source = levels % 2 == 0 ? inputArr : scratch;
+		long[] destination = levels % 2 == 0 ? scratch : inputArr;
+		for (int blockStart = 0; blockStart < length; blockStart += BLOCK_LENGTH){
+			sortBlock(inputArr, source, blockStart, Math.min(blockStart + BLOCK_LENGTH, length));
+		}
+		int tileLevels = Math.min(levels, tileLevels(Long.BYTES));
+		int tileLength = BLOCK_LENGTH << tileLevels;
+		for (int tileStart = 0; tileStart < length; tileStart += tileLength){
+			int tileEnd = (int) Math.min((long) tileStart + tileLength, length);
+			long[] tileSource = source;
+			long[] tileDestination = destination;
+			for (int level = 0; level < tileLevels; level++){
+				mergePass(tileSource, tileDestination, tileStart, tileEnd, BLOCK_LENGTH << level);
+				long[] swap = tileSource;
+				tileSource = tileDestination;
+				tileDestination = swap;
+			}
+		}
+		if (tileLevels % 2 == 1){
+			long[] swap = source;
+			source = destination;
+			destination = swap;
+		}
+		for (int level = tileLevels; level < levels; level++){
+			mergePass(source, destination, 0, length, BLOCK_LENGTH << level);
+			long[] swap = source;
+			source = destination;
+			destination = swap;
+		}
+		return inputArr;
+	}
+
+	/**
+	 * Computes the number of merge levels above the blocks
+	 * @param {int} length The length of the array
+	 * @return {int}
+	 */
+	private static int levels(int length) {
+		int levels = 0;
+		for (long runLength = BLOCK_LENGTH; runLength < length; runLength <<= 1){
+			levels++;
+		}
+		return levels;
+	}
+
+	/**
+	 * Computes the number of merge levels that fit in a tile
+	 * @param {int} valueBytes The size of a value in bytes
+	 * @return {int}
+	 */
+	private static int tileLevels(int valueBytes) {
+		return Integer.numberOfTrailingZeros(TILE_BYTES / (2 * valueBytes * BLOCK_LENGTH));
+	}
+
+	/**
+	 * Copies a block of int values and sorts the copy, with the sorting network for full blocks
+	 * and with insertion sort for the last, shorter block
+	 * @param {int[]} source
+	 * @param {int[]} destination The array that receives the sorted block, which can be the source
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	private static void sortBlock(int[] source, int[] destination, int startIndex, int endIndex) {
+		if (source != destination){
+			System.arraycopy(source, startIndex, destination, startIndex, endIndex - startIndex);
+		}
+		if (endIndex - startIndex < BLOCK_LENGTH){
+			for (int i = startIndex + 1; i < endIndex; i++){
+				int value = destination[i];
+				int j = i - 1;
+				while (j >= startIndex && destination[j] > value){
+					destination[j + 1] = destination[j];
+					j--;
+				}
+				destination[j + 1] = value;
+			}
+			return;
+		}
+		int s = startIndex;
+		compareExchange(destination, s, s + 2);
+		compareExchange(destination, s + 1, s + 3);
+		compareExchange(destination, s + 4, s + 6);
+		compareExchange(destination, s + 5, s + 7);
+		compareExchange(destination, s, s + 4);
+		compareExchange(destination, s + 1, s + 5);
+		compareExchange(destination, s + 2, s + 6);
+		compareExchange(destination, s + 3, s + 7);
+		compareExchange(destination, s, s + 1);
+		compareExchange(destination, s + 2, s + 3);
+		compareExchange(destination, s + 4, s + 5);
+		compareExchange(destination, s + 6, s + 7);
+		compareExchange(destination, s + 2, s + 4);
+		compareExchange(destination, s + 3, s + 5);
+		compareExchange(destination, s + 1, s + 4);
+		compareExchange(destination, s + 3, s + 6);
+		compareExchange(destination, s + 1, s + 2);
+		compareExchange(destination, s + 3, s + 4);
+		compareExchange(destination, s + 5, s + 6);
+	}
+
+	/**
+	 * Copies a block of long values and sorts the copy, with the sorting network for full blocks
+	 * and with insertion sort for the last, shorter block
+	 * @param {long[]} source
+	 * @param {long[]} destination The array that receives the sorted block, which can be the source
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	private static void sortBlock(long[] source, long[] destination, int startIndex, int endIndex) {
+		if (source != destination){
+			System.arraycopy(source, startIndex, destination, startIndex, endIndex - startIndex);
+		}
+		if (endIndex - startIndex < BLOCK_LENGTH){
+			for (int i = startIndex + 1; i < endIndex; i++){
+				long value = destination[i];
+				int j = i - 1;
+				while (j >= startIndex && destination[j] > value){
+					destination[j + 1] = destination[j];
+					j--;
+				}
+				destination[j + 1] = value;
+			}
+			return;
+		}
+		int s = startIndex;
+		compareExchange(destination, s, s + 2);
+		compareExchange(destination, s + 1, s + 3);
+		compareExchange(destination, s + 4, s + 6);
+		compareExchange(destination, s + 5, s + 7);
+		compareExchange(destination, s, s + 4);
+		compareExchange(destination, s + 1, s + 5);
+		compareExchange(destination, s + 2, s + 6);
+		compareExchange(destination, s + 3, s + 7);
+		compareExchange(destination, s, s + 1);
+		compareExchange(destination, s + 2, s + 3);
+		compareExchange(destination, s + 4, s + 5);
+		compareExchange(destination, s + 6, s + 7);
+		compareExchange(destination, s + 2, s + 4);
+		compareExchange(destination, s + 3, s + 5);
+		compareExchange(destination, s + 1, s + 4);
+		compareExchange(destination, s + 3, s + 6);
+		compareExchange(destination, s + 1, s + 2);
+		compareExchange(destination, s + 3, s + 4);
+		compareExchange(destination, s + 5, s + 6);
+	}
+
+	/**
+	 * Orders two values of an array with min and max, which compile to conditional moves rather than branches
+	 * @param {int[]} inputArr
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static void compareExchange(int[] inputArr, int firstIndex, int secondIndex) {
+		int first = inputArr[firstIndex];
+		int second = inputArr[secondIndex];
+		inputArr[firstIndex] = Math.min(first, second);
+		inputArr[secondIndex] = Math.max(first, second);
+	}
+
+	/**
+	 * Orders two values of an array with min and max, which compile to conditional moves rather than branches
+	 * @param {long[]} inputArr
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static void compareExchange(long[] inputArr, int firstIndex, int secondIndex) {
+		long first = inputArr[firstIndex];
+		long second = inputArr[secondIndex];
+		inputArr[firstIndex] = Math.min(first, second);
+		inputArr[secondIndex] = Math.max(first, second);
+	}
+
+	/**
+	 * Merges every pair of adjacent runs of a portion of the source into the destination.
+	 * A run without a partner, or a pair already in order, is copied as it is.
+	 * @param {int[]} source
+	 * @param {int[]} destination
+	 * @param {int} startIndex The start index of the portion, inclusively.
+	 * @param {int} endIndex The end index of the portion, exclusively.
+	 * @param {int} runLength The length of the runs
+	 */
+	private static void mergePass(int[] source, int[] destination, int startIndex, int endIndex, int runLength) {
+		for (int leftIndex = startIndex; leftIndex < endIndex; leftIndex += 2 * runLength){
+			int rightIndex = (int) Math.min((long) leftIndex + runLength, endIndex);
+			int rightEnd = (int) Math.min((long) rightIndex + runLength, endIndex);
+			if (rightIndex == rightEnd || source[rightIndex - 1] <= source[rightIndex]){
+				System.arraycopy(source, leftIndex, destination, leftIndex, rightEnd - leftIndex);
+			} else {
+				merge(source, destination, leftIndex, rightIndex, rightEnd);
+			}
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of the source into the same indexes of the destination, without branching on the comparisons
+	 * @param {int[]} source
+	 * @param {int[]} destination
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} rightIndex The start index of the right run, which ends the left run.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 */
+	private static void merge(int[] source, int[] destination, int leftIndex, int rightIndex, int rightEnd) {
+		int leftEnd = rightIndex;
+		int index = leftIndex;
+		while (leftIndex < leftEnd && rightIndex < rightEnd){
+			int left = source[leftIndex];
+			int right = source[rightIndex];
+			int takeRight = right < left ? 1 : 0;
+			destination[index++] = takeRight == 1 ? right : left;
+			rightIndex += takeRight;
+			leftIndex += 1 - takeRight;
+		}
+		System.arraycopy(source, leftIndex, destination, index, leftEnd - leftIndex);
+		System.arraycopy(source, rightIndex, destination, index + leftEnd - leftIndex, rightEnd - rightIndex);
+	}
+
+	/**
+	 * Merges every pair of adjacent runs of a portion of the source into the destination.
+	 * A run without a partner, or a pair already in order, is copied as it is.
+	 * @param {long[]} source
+	 * @param {long[]} destination
+	 * @param {int} startIndex The start index of the portion, inclusively.
+	 * @param {int} endIndex The end index of the portion, exclusively.
+	 * @param {int} runLength The length of the runs
+	 */
+	private static void mergePass(long[] source, long[] destination, int startIndex, int endIndex, int runLength) {
+		for (int leftIndex = startIndex; leftIndex < endIndex; leftIndex += 2 * runLength){
+			int rightIndex = (int) Math.min((long) leftIndex + runLength, endIndex);
+			int rightEnd = (int) Math.min((long) rightIndex + runLength, endIndex);
+			if (rightIndex == rightEnd || source[rightIndex - 1] <= source[rightIndex]){
+				System.arraycopy(source, leftIndex, destination, leftIndex, rightEnd - leftIndex);
+			} else {
+				merge(source, destination, leftIndex, rightIndex, rightEnd);
+			}
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of the source into the same indexes of the destination, without branching on the comparisons
+	 * @param {long[]} source
+	 * @param {long[]} destination
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} rightIndex The start index of the right run, which ends the left run.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 */
+	private static void merge(long[] source, long[] destination, int leftIndex, int rightIndex, int rightEnd) {
+		int leftEnd = rightIndex;
+		int index = leftIndex;
+		while (leftIndex < leftEnd && rightIndex < rightEnd){
+			long left = source[leftIndex];
+			long right = source[rightIndex];
+			int takeRight = right < left ? 1 : 0;
+			destination[index++] = takeRight == 1 ? right : left;
+			rightIndex += takeRight;
+			leftIndex += 1 - takeRight;
+		}
+		System.arraycopy(source, leftIndex, destination, index, leftEnd - leftIndex);
+		System.arraycopy(source, rightIndex, destination, index + leftEnd - leftIndex, rightEnd - rightIndex);
+	}
+}
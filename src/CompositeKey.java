@@ -0,0 +1,365 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class that orders elements by a sequence of int, long, double and String keys, compared in turn
+ * like a database ORDER BY clause. Besides being a comparator, it lets the key sorts encode the leading keys
+ * of every element into a single long prefix (an abbreviated key), so most comparisons are made between two longs
+ * and the key extractors are only called again for the elements whose prefixes are equal.
+ * Before a sort the range of every int, long and double key is measured, and each key only takes the bits its range needs,
+ * so more keys fit in the prefix. Strings take the remaining bits, 16 per character.
+ * @author NubilaPardus
+ * @name CompositeKey
+ * @class
+ */
+public final class CompositeKey<T> implements Comparator<T> {
+
+	private final Part<T>[] parts;
+
+	private CompositeKey(final Part<T>[] parts){
+		this.parts = parts;
+	}
+
+	/**
+	 * Provides a composite key that starts with an int key
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the key, <T> The generic type of the element
+	 * @return {CompositeKey<>}
+	 */
+	public static <T> CompositeKey<T> byInt(final ToIntFunction<? super T> keyExtractor){
+		return new CompositeKey<T>(newParts(0)).thenInt(keyExtractor);
+	}
+
+	/**
+	 * Provides a composite key that starts with a long key
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the key, <T> The generic type of the element
+	 * @return {CompositeKey<>}
+	 */
+	public static <T> CompositeKey<T> byLong(final ToLongFunction<? super T> keyExtractor){
+		return new CompositeKey<T>(newParts(0)).thenLong(keyExtractor);
+	}
+
+	/**
+	 * Provides a composite key that starts with a double key, ordered like {@link Double#compare(double, double)}
+	 * @param {ToDoubleFunction<>} keyExtractor The function that extracts the key, <T> The generic type of the element
+	 * @return {CompositeKey<>}
+	 */
+	public static <T> CompositeKey<T> byDouble(final ToDoubleFunction<? super T> keyExtractor){
+		return new CompositeKey<T>(newParts(0)).thenDouble(keyExtractor);
+	}
+
+	/**
+	 * Provides a composite key that starts with a String key, ordered like {@link String#compareTo(String)}
+	 * @param {Function<>} keyExtractor The function that extracts the key, which cannot return null, <T> The generic type of the element
+	 * @return {CompositeKey<>}
+	 */
+	public static <T> CompositeKey<T> byString(final Function<? super T, String> keyExtractor){
+		return new CompositeKey<T>(newParts(0)).thenString(keyExtractor);
+	}
+
+	/**
+	 * Provides a composite key that compares an int key when this one finds two elements equal
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the key
+	 * @return {CompositeKey<>}
+	 */
+	public CompositeKey<T> thenInt(final ToIntFunction<? super T> keyExtractor){
+		checkExtractor(keyExtractor);
+		return then(new IntPart<>(keyExtractor));
+	}
+
+	/**
+	 * Provides a composite key that compares a long key when this one finds two elements equal
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the key
+	 * @return {CompositeKey<>}
+	 */
+	public CompositeKey<T> thenLong(final ToLongFunction<? super T> keyExtractor){
+		checkExtractor(keyExtractor);
+		return then(new LongPart<>(keyExtractor));
+	}
+
+	/**
+	 * Provides a composite key that compares a double key when this one finds two elements equal
+	 * @param {ToDoubleFunction<>} keyExtractor The function that extracts the key
+	 * @return {CompositeKey<>}
+	 */
+	public CompositeKey<T> thenDouble(final ToDoubleFunction<? super T> keyExtractor){
+		checkExtractor(keyExtractor);
+		return then(new DoublePart<>(keyExtractor));
+	}
+
+	/**
+	 * Provides a composite key that compares a String key when this one finds two elements equal
+	 * @param {Function<>} keyExtractor The function that extracts the key, which cannot return null
+	 * @return {CompositeKey<>}
+	 */
+	public CompositeKey<T> thenString(final Function<? super T, String> keyExtractor){
+		checkExtractor(keyExtractor);
+		return then(new StringPart<>(keyExtractor));
+	}
+
+	@Override
+	public int compare(T first, T second){
+		for (Part<T> part : parts){
+			int comparison = part.compare(first, second);
+			if (comparison != 0){
+				return comparison;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Measures the range of the normalized values of the leading fixed-width keys over a portion of an array
+	 * @param {Array} elementArray The array of element
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @return {long[]} The unsigned minimum and maximum of every key, the keys after the first String key being left out
+	 */
+	long[] ranges(T[] elementArray, int startIndex, int endIndex){
+		int fixedParts = 0;
+		while (fixedParts < parts.length && parts[fixedParts] instanceof FixedWidthPart){
+			fixedParts++;
+		}
+		long[] ranges = new long[2 * fixedParts];
+		for (int part = 0; part < fixedParts; part++){
+			ranges[2 * part] = -1L;
+		}
+		for (int i = startIndex; i < endIndex; i++){
+			for (int part = 0; part < fixedParts; part++){
+				long value = ((FixedWidthPart<T>) parts[part]).normalized(elementArray[i]);
+				if (Long.compareUnsigned(value, ranges[2 * part]) < 0){
+					ranges[2 * part] = value;
+				}
+				if (Long.compareUnsigned(value, ranges[2 * part + 1]) > 0){
+					ranges[2 * part + 1] = value;
+				}
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Provides the prefix encoding of this key for the given ranges
+	 * @param {long[][]} ranges The ranges measured over every portion of the sorted array
+	 * @return {Abbreviation<>}
+	 */
+	Abbreviation<T> abbreviation(long[]... ranges){
+		long[] range = ranges[0].clone();
+		for (int portion = 1; portion < ranges.length; portion++){
+			for (int part = 0; 2 * part < range.length; part++){
+				if (Long.compareUnsigned(ranges[portion][2 * part], range[2 * part]) < 0){
+					range[2 * part] = ranges[portion][2 * part];
+				}
+				if (Long.compareUnsigned(ranges[portion][2 * part + 1], range[2 * part + 1]) > 0){
+					range[2 * part + 1] = ranges[portion][2 * part + 1];
+				}
+			}
+		}
+		return new Abbreviation<>(parts, range);
+	}
+
+	private CompositeKey<T> then(final Part<T> part){
+		Part<T>[] extended = Arrays.copyOf(parts, parts.length + 1);
+		extended[parts.length] = part;
+		return new CompositeKey<>(extended);
+	}
+
+	private static void checkExtractor(final Object keyExtractor){
+		if (null == keyExtractor){
+			throw new IllegalArgumentException("key extractor cannot be null");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Part<T>[] newParts(final int length){
+		return (Part<T>[]) new Part<?>[length];
+	}
+
+	/**
+	 * The encoding of the leading keys of the elements into a long prefix, whose signed order never contradicts the order of the keys.
+	 * Every fixed-width key is stored as its offset from the minimum of its range, in as many bits as the range needs,
+	 * the first key that does not fit keeping only its high bits, and a String key fills the remaining bits with its first characters.
+	 * The keys after a truncated or String key are left out.
+	 * @name Abbreviation
+	 * @class
+	 */
+	static final class Abbreviation<T> implements ToLongFunction<T> {
+		private final Part<T>[] parts;
+		private final long[] offsets;
+		private final int[] bits;
+		private final int[] shifts;
+		private final int freeBits;
+		private final boolean exact;
+
+		private Abbreviation(Part<T>[] parts, long[] ranges){
+			int fixedParts = ranges.length / 2;
+			long[] offsets = new long[parts.length];
+			int[] bits = new int[parts.length];
+			int[] shifts = new int[parts.length];
+			int freeBits = Long.SIZE;
+			int encodedParts = 0;
+			boolean exact = true;
+			while (encodedParts < parts.length && freeBits > 0){
+				int part = encodedParts++;
+				if (part == fixedParts){
+					bits[part] = freeBits;
+					freeBits = 0;
+					exact = false;
+					break;
+				}
+				offsets[part] = ranges[2 * part];
+				int width = Long.SIZE - Long.numberOfLeadingZeros(ranges[2 * part + 1] - offsets[part]);
+				bits[part] = Math.min(width, freeBits);
+				shifts[part] = width - bits[part];
+				freeBits -= bits[part];
+				if (shifts[part] > 0){
+					exact = false;
+					break;
+				}
+			}
+			this.parts = Arrays.copyOf(parts, encodedParts);
+			this.offsets = offsets;
+			this.bits = bits;
+			this.shifts = shifts;
+			this.freeBits = freeBits;
+			this.exact = exact && encodedParts == parts.length;
+		}
+
+		/**
+		 * Encodes the prefix of an element
+		 * @param {T} element
+		 * @return {long}
+		 */
+		@Override
+		public long applyAsLong(T element){
+			long prefix = 0L;
+			for (int part = 0; part < parts.length; part++){
+				long value = parts[part] instanceof FixedWidthPart
+						? (((FixedWidthPart<T>) parts[part]).normalized(element) - offsets[part]) >>> shifts[part]
+						: ((StringPart<T>) parts[part]).leadingBits(element, bits[part]);
+				prefix = bits[part] == Long.SIZE ? value : prefix << bits[part] | value;
+			}
+			return freeBits == Long.SIZE ? Long.MIN_VALUE : (prefix << freeBits) ^ Long.MIN_VALUE;
+		}
+
+		/**
+		 * @return {boolean} Whether equal prefixes mean equal keys, so ties need no further comparison
+		 */
+		boolean isExact(){
+			return exact;
+		}
+	}
+
+	/**
+	 * A key of the sequence
+	 * @name Part
+	 * @class
+	 */
+	private abstract static class Part<T> {
+
+		abstract int compare(T first, T second);
+	}
+
+	/**
+	 * A key whose values fit in a long, so it can be encoded into the prefix by its range
+	 * @name FixedWidthPart
+	 * @class
+	 * @extends Part
+	 */
+	private abstract static class FixedWidthPart<T> extends Part<T> {
+
+		/**
+		 * Provides the key of an element as a long whose unsigned order is the order of the key
+		 * @param {T} element
+		 * @return {long}
+		 */
+		abstract long normalized(T element);
+	}
+
+	private static final class IntPart<T> extends FixedWidthPart<T> {
+		private final ToIntFunction<? super T> keyExtractor;
+
+		private IntPart(ToIntFunction<? super T> keyExtractor){
+			this.keyExtractor = keyExtractor;
+		}
+
+		@Override
+		int compare(T first, T second){
+			return Integer.compare(keyExtractor.applyAsInt(first), keyExtractor.applyAsInt(second));
+		}
+
+		@Override
+		long normalized(T element){
+			return (long) keyExtractor.applyAsInt(element) - Integer.MIN_VALUE;
+		}
+	}
+
+	private static final class LongPart<T> extends FixedWidthPart<T> {
+		private final ToLongFunction<? super T> keyExtractor;
+
+		private LongPart(ToLongFunction<? super T> keyExtractor){
+			this.keyExtractor = keyExtractor;
+		}
+
+		@Override
+		int compare(T first, T second){
+			return Long.compare(keyExtractor.applyAsLong(first), keyExtractor.applyAsLong(second));
+		}
+
+		@Override
+		long normalized(T element){
+			return keyExtractor.applyAsLong(element) ^ Long.MIN_VALUE;
+		}
+	}
+
+	private static final class DoublePart<T> extends FixedWidthPart<T> {
+		private final ToDoubleFunction<? super T> keyExtractor;
+
+		private DoublePart(ToDoubleFunction<? super T> keyExtractor){
+			this.keyExtractor = keyExtractor;
+		}
+
+		@Override
+		int compare(T first, T second){
+			return Double.compare(keyExtractor.applyAsDouble(first), keyExtractor.applyAsDouble(second));
+		}
+
+		@Override
+		long normalized(T element){
+			return RadixSort.sortableBits(Double.doubleToLongBits(keyExtractor.applyAsDouble(element))) ^ Long.MIN_VALUE;
+		}
+	}
+
+	private static final class StringPart<T> extends Part<T> {
+		private final Function<? super T, String> keyExtractor;
+
+		private StringPart(Function<? super T, String> keyExtractor){
+			this.keyExtractor = keyExtractor;
+		}
+
+		@Override
+		int compare(T first, T second){
+			return keyExtractor.apply(first).compareTo(keyExtractor.apply(second));
+		}
+
+		/**
+		 * Packs the first characters of the key of an element, shorter keys being padded with zeros
+		 * @param {T} element
+		 * @param {int} bits The number of bits to fill, the last character keeping only its high bits
+		 * @return {long}
+		 */
+		long leadingBits(T element, int bits){
+			String key = keyExtractor.apply(element);
+			long value = 0L;
+			for (int index = 0; bits > 0; index++, bits -= Character.SIZE){
+				int taken = Math.min(bits, Character.SIZE);
+				long character = index < key.length() ? key.charAt(index) : 0;
+				value = value << taken | character >>> (Character.SIZE - taken);
+			}
+			return value;
+		}
+	}
+}
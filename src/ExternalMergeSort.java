@@ -0,0 +1,304 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class that contains the external (out-of-core) version of Merge Sort, for files of fixed-width records
+ * that do not fit in the heap. The file is sorted in runs: each run is memory-mapped (so the records are read
+ * without copying them to the heap), its keys are sorted by a {@link ForkJoinMergeSort} within the memory budget,
+ * and its records are written in sorted order to a temporary file. The runs are then merged with a tournament tree
+ * using large sequential reads and writes, in several passes if there are more runs than the budget can buffer.
+ * @author NubilaPardus
+ * @name ExternalMergeSort
+ * @class
+ */
+public class ExternalMergeSort {
+
+	private static final int HEAP_BYTES_PER_RECORD = 2 * (Long.BYTES + Integer.BYTES);
+	private static final int MIN_BLOCK_SIZE = 1 << 16;
+	private static final int MAX_BLOCK_SIZE = 1 << 22;
+	private final ForkJoinMergeSort sorter;
+	private final RecordLayout layout;
+	private final long memoryBudget;
+	private final Path tempDirectory;
+
+	/**
+	 * Constructor, the runs are spilled to the default temporary directory
+	 * @param {ForkJoinMergeSort} sorter The sorter that sorts the keys of each run
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {long} memoryBudget The heap (for the keys of a run) and direct memory (for the merge buffers) a sort may use, in bytes
+	 */
+	public ExternalMergeSort(final ForkJoinMergeSort sorter, final RecordLayout layout, final long memoryBudget){
+		this(sorter, layout, memoryBudget, null);
+	}
+
+	/**
+	 * Constructor
+	 * @param {ForkJoinMergeSort} sorter The sorter that sorts the keys of each run
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {long} memoryBudget The heap (for the keys of a run) and direct memory (for the merge buffers) a sort may use, in bytes
+	 * @param {Path} tempDirectory The directory the runs are spilled to, or null for the default temporary directory
+	 */
+	public ExternalMergeSort(final ForkJoinMergeSort sorter, final RecordLayout layout, final long memoryBudget, final Path tempDirectory){
+		if (null == sorter || null == layout){
+			throw new IllegalArgumentException("Sorter and record layout cannot be null!");
+		}
+		if (memoryBudget < 2L * MIN_BLOCK_SIZE + HEAP_BYTES_PER_RECORD){
+			throw new IllegalArgumentException("Minimum memory budget is " + (2L * MIN_BLOCK_SIZE + HEAP_BYTES_PER_RECORD) + " bytes, got " + memoryBudget);
+		}
+		this.sorter = sorter;
+		this.layout = layout;
+		this.memoryBudget = memoryBudget;
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Sorts the records of a file into another file. Records with equal keys keep their original order.
+	 * @param {Path} input The file of records to be sorted, its size must be a multiple of the record width
+	 * @param {Path} output The file that receives the sorted records, it is created or replaced
+	 */
+	public void sort(final Path input, final Path output) throws IOException {
+		if (null == input || null == output){
+			throw new IllegalArgumentException("Input and output files cannot be null!");
+		}
+		List<Path> runs = new ArrayList<>();
+		try {
+			try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)){
+				int recordWidth = layout.getRecordWidth();
+				long size = in.size();
+				if (size % recordWidth != 0){
+					throw new IllegalArgumentException("File size " + size + " is not a multiple of the record width " + recordWidth);
+				}
+				long recordCount = size / recordWidth;
+				int runLength = recordsPerRun();
+				long[] keys = new long[(int) Math.min(runLength, recordCount)];
+				int[] indexes = new int[keys.length];
+				SortBuffer buffer = new SortBuffer();
+				if (recordCount <= runLength){
+					sortRun(in, 0, keys.length, keys, indexes, buffer, output);
+					return;
+				}
+				for (long firstRecord = 0; firstRecord < recordCount; firstRecord += runLength){
+					Path run = createRun();
+					runs.add(run);
+					sortRun(in, firstRecord, (int) Math.min(runLength, recordCount - firstRecord), keys, indexes, buffer, run);
+				}
+			}
+			mergeRuns(runs, output);
+		} finally {
+			for (Path run : runs){
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * Computes how many records a run holds, so that its keys, indexes and their scratch space fit in the budget
+	 * and the run can be mapped at once
+	 * @return {int}
+	 */
+	private int recordsPerRun(){
+		long byBudget = memoryBudget / HEAP_BYTES_PER_RECORD;
+		long byMapping = Integer.MAX_VALUE / layout.getRecordWidth();
+		return (int) Math.max(1, Math.min(Math.min(byBudget, byMapping), Integer.MAX_VALUE - 8));
+	}
+
+	/**
+	 * Computes the size of a read or write buffer when a given number of them share the budget,
+	 * rounded down to whole records
+	 * @param {int} buffers The number of buffers
+	 * @return {int}
+	 */
+	private int blockSize(int buffers){
+		int recordWidth = layout.getRecordWidth();
+		long size = Math.min(MAX_BLOCK_SIZE, Math.max(MIN_BLOCK_SIZE, memoryBudget / buffers));
+		return (int) Math.max(recordWidth, size / recordWidth * recordWidth);
+	}
+
+	private Path createRun() throws IOException {
+		return null == tempDirectory
+				? Files.createTempFile("mergesort-run", ".bin")
+				: Files.createTempFile(tempDirectory, "mergesort-run", ".bin");
+	}
+
+	/**
+	 * Maps a portion of the input, sorts its keys and writes its records in sorted order
+	 * @param {FileChannel} in The input file
+	 * @param {long} firstRecord The index of the first record of the run
+	 * @param {int} recordCount The number of records of the run
+	 * @param {long[]} keys The array that receives the keys of the run
+	 * @param {int[]} indexes The array that receives the record indexes of the run
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space of the key sort
+	 * @param {Path} target The file that receives the sorted records
+	 */
+	private void sortRun(FileChannel in, long firstRecord, int recordCount, long[] keys, int[] indexes, SortBuffer buffer, Path target) throws IOException {
+		int recordWidth = layout.getRecordWidth();
+		MappedByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, firstRecord * recordWidth, (long) recordCount * recordWidth);
+		records.order(layout.getByteOrder());
+		for (int i = 0; i < recordCount; i++){
+			keys[i] = layout.key(records, i * recordWidth);
+			indexes[i] = i;
+		}
+		sorter.sort(keys, indexes, recordCount, buffer);
+
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			ByteBuffer block = ByteBuffer.allocateDirect(blockSize(2));
+			for (int i = 0; i < recordCount; i++){
+				if (block.remaining() < recordWidth){
+					write(out, block);
+				}
+				block.put(block.position(), records, indexes[i] * recordWidth, recordWidth);
+				block.position(block.position() + recordWidth);
+			}
+			write(out, block);
+		}
+	}
+
+	/**
+	 * Merges the sorted runs into the output, first merging groups of runs into longer runs
+	 * while there are more runs than the budget can buffer at once
+	 * @param {List<Path>} runs The sorted runs, intermediate runs are added to it so they are deleted afterwards
+	 * @param {Path} output The file that receives the sorted records
+	 */
+	private void mergeRuns(List<Path> runs, Path output) throws IOException {
+		int fanIn = (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / MIN_BLOCK_SIZE - 1));
+		List<Path> pending = new ArrayList<>(runs);
+		while (pending.size() > fanIn){
+			List<Path> merged = new ArrayList<>();
+			for (int i = 0; i < pending.size(); i += fanIn){
+				List<Path> group = pending.subList(i, Math.min(i + fanIn, pending.size()));
+				if (group.size() == 1){
+					merged.add(group.get(0));
+					continue;
+				}
+				Path run = createRun();
+				runs.add(run);
+				merge(group, run);
+				for (Path done : group){
+					Files.deleteIfExists(done);
+				}
+				merged.add(run);
+			}
+			pending = merged;
+		}
+		merge(pending, output);
+	}
+
+	/**
+	 * Merges sorted runs into a file with a tournament tree, the runs that come first win ties
+	 * @param {List<Path>} group The sorted runs
+	 * @param {Path} target The file that receives the merged records
+	 */
+	private void merge(List<Path> group, Path target) throws IOException {
+		int recordWidth = layout.getRecordWidth();
+		int blockSize = blockSize(group.size() + 1);
+		RunReader[] readers = new RunReader[group.size()];
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			for (int i = 0; i < readers.length; i++){
+				readers[i] = new RunReader(group.get(i), blockSize);
+			}
+			LoserTree tree = new LoserTree(readers.length){
+				@Override
+				protected boolean isExhausted(int source){
+					return readers[source].exhausted;
+				}
+
+				@Override
+				protected int compareHeads(int firstSource, int secondSource){
+					return Long.compare(readers[firstSource].key, readers[secondSource].key);
+				}
+			};
+			tree.build();
+			ByteBuffer block = ByteBuffer.allocateDirect(blockSize);
+			for (RunReader reader = readers[tree.winner()]; !reader.exhausted; reader = readers[tree.winner()]){
+				if (block.remaining() < recordWidth){
+					write(out, block);
+				}
+				reader.moveTo(block);
+				tree.replay();
+			}
+			write(out, block);
+		} finally {
+			for (RunReader reader : readers){
+				if (null != reader){
+					reader.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the content of a buffer to a file and clears the buffer
+	 * @param {FileChannel} out
+	 * @param {ByteBuffer} block
+	 */
+	private static void write(FileChannel out, ByteBuffer block) throws IOException {
+		block.flip();
+		while (block.hasRemaining()){
+			out.write(block);
+		}
+		block.clear();
+	}
+
+	/**
+	 * Reads the records of a sorted run sequentially, through a buffer of whole records
+	 * @name RunReader
+	 * @class
+	 */
+	private class RunReader implements Closeable {
+		private final FileChannel channel;
+		private final ByteBuffer block;
+		private boolean exhausted;
+		private long key;
+
+		private RunReader(Path run, int blockSize) throws IOException {
+			this.channel = FileChannel.open(run, StandardOpenOption.READ);
+			this.block = ByteBuffer.allocateDirect(blockSize).order(layout.getByteOrder());
+			this.block.flip();
+			advance();
+		}
+
+		/**
+		 * Moves the current record to an output buffer and positions on the next record
+		 * @param {ByteBuffer} out The buffer that receives the record
+		 */
+		private void moveTo(ByteBuffer out) throws IOException {
+			int recordWidth = layout.getRecordWidth();
+			out.put(out.position(), block, block.position(), recordWidth);
+			out.position(out.position() + recordWidth);
+			block.position(block.position() + recordWidth);
+			advance();
+		}
+
+		/**
+		 * Reads the key of the current record, refilling the buffer when it has no whole record left
+		 */
+		private void advance() throws IOException {
+			int recordWidth = layout.getRecordWidth();
+			if (block.remaining() < recordWidth){
+				block.compact();
+				while (block.hasRemaining() && channel.read(block) >= 0){
+					// keep reading until the buffer is full or the run ends
+				}
+				block.flip();
+				if (block.remaining() < recordWidth){
+					exhausted = true;
+					return;
+				}
+			}
+			key = layout.key(block, block.position());
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
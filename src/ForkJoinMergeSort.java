@@ -1,6 +1,14 @@
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * This class that contains parallel version (using a fork/join pool) of Merge Sort
@@ -11,27 +19,52 @@ import java.util.concurrent.RecursiveAction;
 public class ForkJoinMergeSort {
 	
 	private static final int MIN_GRANULARITY = 256;
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+	private static final int LEAVES_PER_WORKER = 4;
+	private static final int MAX_SURPLUS_QUEUED_TASKS = 3;
+	private static final String SORTER_NAME = "forkjoin";
 	private final int granularity;
+	private final boolean adaptive;
 	private final ForkJoinPool pool;
 
 	/**
-	 * Constructor
+	 * Constructor, the leaf size is picked for every sort from the array size and the pool parallelism
 	 * @param {ForkJoinPool} pool The ForkJoinPool is a special thread pool which is designed to manage threads
 	 * 								and provides us to get information about the thread pool state and performance.
 	 */
 	public ForkJoinMergeSort(final ForkJoinPool pool){
-		this(pool, MIN_GRANULARITY);
+		this(pool, MIN_GRANULARITY, true);
 	}
 
 	/**
-	 * Constructor
+	 * Constructor, with a fixed leaf size
 	 * @param {ForkJoinPool} pool The ForkJoinPool is a special thread pool which is designed to manage threads
 	 * 								and provides us to get information about the thread pool state and performance.
 	 * @param {int} granularity the smallest array size for the internal sorting algorithm to sort
 	 */
 	public ForkJoinMergeSort(final ForkJoinPool pool, final int granularity){
+		this(pool, granularity, false);
+	}
+
+	/**
+	 * Constructor
+	 * @param {ForkJoinPool} pool The ForkJoinPool is a special thread pool which is designed to manage threads
+	 * 								and provides us to get information about the thread pool state and performance.
+	 * @param {int} granularity the smallest array size for the internal sorting algorithm to sort
+	 * @param {boolean} adaptive Whether the leaf size grows with the array size so every worker gets a few leaves,
+	 * 								arrays below a threshold are sorted on the calling thread, and tasks sort their
+	 * 								portion on the spot when the pool already has surplus queued tasks
+	 */
+	public ForkJoinMergeSort(final ForkJoinPool pool, final int granularity, final boolean adaptive){
+		if (null == pool){
+			throw new IllegalArgumentException("ForkJoinPool cannot be null!");
+		}
+		if (granularity < 2){
+			throw new IllegalArgumentException("Granularity must be at least 2, got " + granularity);
+		}
 		this.pool = pool;
 		this.granularity = granularity;
+		this.adaptive = adaptive;
 	}
 
 	
@@ -41,10 +74,1014 @@ public class ForkJoinMergeSort {
 	 * @param {Class<>} elementClass The class of the element
 	 * @return {Array} The sorted array
 	 */
-	public <T extends Comparable> T[] sort(final T[] comparableElementArray, final Class<T> elementClass){
-		pool.invoke(new MergeSortTask<>(comparableElementArray, 0, comparableElementArray.length, granularity, elementClass));
+	public <T extends Comparable> T[] sort(final T[] comparableElementArray, final Class<T> elementClass) {
+		return sort(comparableElementArray, elementClass, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, using the scratch space of a reusable buffer.
+	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
+	 * @param {Class<>} elementClass The class of the element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T extends Comparable> T[] sort(final T[] comparableElementArray, final Class<T> elementClass, final SortBuffer buffer) {
+		return sort(comparableElementArray, MergeSort.NATURAL_ORDER, buffer);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sort(final T[] elementArray, final Comparator<? super T> comparator) {
+		return sort(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sort(final T[] elementArray, final Comparator<? super T> comparator, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		try {
+			SortMetrics.CountingComparator<T> counter = SortMetrics.counting(comparator);
+			invoke(MergeKernel.of(elementArray, null == counter ? comparator : counter, buffer.objects(elementArray.length)), elementArray.length, counter);
+		} finally {
+			buffer.release(elementArray.length);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key.
+	 * The keys are extracted once and sorted together with the element indexes as packed long values.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor) {
+		return sortByInt(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		try {
+			long[] packedKeys = MergeSort.packKeys(elementArray, keyExtractor, buffer.keys(length));
+			run(MergeKernel.of(packedKeys, buffer.longs(length)), length);
+			MergeSort.reorder(elementArray, packedKeys, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key.
+	 * The keys are extracted once into a primitive array and sorted together with the element indexes.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor) {
+		return sortByLong(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		try {
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			MergeSort.extractKeys(elementArray, keyExtractor, keys, indexes);
+			run(MergeKernel.of(keys, indexes, buffer.longs(length), buffer.ints(length)), length);
+			MergeSort.reorder(elementArray, indexes, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a composite key.
+	 * The leading keys of every element are encoded once into a long prefix, the elements are sorted by prefix
+	 * and only the runs of equal prefixes are sorted again with the full comparison of the keys.
+	 * The ranges of the keys, the prefixes and the runs of equal prefixes are computed by chunks in parallel.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {CompositeKey<>} key The sequence of keys that determines the order of the elements
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByKeys(final T[] elementArray, final CompositeKey<T> key) {
+		return sortByKeys(elementArray, key, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a composite key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {CompositeKey<>} key The sequence of keys that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByKeys(final T[] elementArray, final CompositeKey<T> key, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, key, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		int chunks = Math.max(1, Math.min(pool.getParallelism() * LEAVES_PER_WORKER, length / SEQUENTIAL_THRESHOLD));
+		RadixSort.ChunkRunner runner = chunks == 1 ? RadixSort.SEQUENTIAL : (count, action) -> pool.invoke(new ForkJoinRadixSort.ChunkTask(action, 0, count));
+		try {
+			long[][] ranges = new long[chunks][];
+			runner.run(chunks, chunk -> ranges[chunk] = key.ranges(elementArray, RadixSort.chunkStart(chunk, chunks, length), RadixSort.chunkStart(chunk + 1, chunks, length)));
+			CompositeKey.Abbreviation<T> abbreviation = key.abbreviation(ranges);
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			runner.run(chunks, chunk -> {
+				for (int i = RadixSort.chunkStart(chunk, chunks, length), end = RadixSort.chunkStart(chunk + 1, chunks, length); i < end; i++){
+					keys[i] = abbreviation.applyAsLong(elementArray[i]);
+					indexes[i] = i;
+				}
+			});
+			sort(keys, indexes, length, buffer);
+			if (!abbreviation.isExact()){
+				MergeKernel kernel = MergeKernel.of(elementArray, key, indexes, buffer.ints(length));
+				runner.run(chunks, chunk -> MergeSort.sortTies(kernel, keys, RadixSort.chunkStart(chunk, chunks, length), RadixSort.chunkStart(chunk + 1, chunks, length), length));
+			}
+			Object[] scratch = buffer.objects(length);
+			System.arraycopy(elementArray, 0, scratch, 0, length);
+			SortMetrics.moved(length);
+			permute(indexes, scratch, elementArray, length);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that keeps a single element of every group of
+	 * equal elements, the first one in the array. Equal elements are collapsed by the leaf sorts and by every merge,
+	 * so the merges only move the distinct elements found so far (see {@link MergeSort#sortDistinct(Object[], Comparator)}).
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @return {int} The number of distinct elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public <T> int sortDistinct(final T[] elementArray, final Comparator<? super T> comparator) {
+		return sortDistinct(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that keeps a single element of every group of
+	 * equal elements, the first one in the array, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of distinct elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public <T> int sortDistinct(final T[] elementArray, final Comparator<? super T> comparator, final SortBuffer buffer) {
+		return sortReduce(elementArray, comparator, MergeSort.keepFirst(), buffer);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that replaces every group of equal elements by
+	 * their combination, the combiner being called from the leaf sorts and from every merge
+	 * (see {@link MergeSort#sortReduce(Object[], Comparator, BinaryOperator)}).
+	 * Large merges are split by binary search like the other sorts, and the merged pieces are moved together afterwards.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The associative function that combines two equal elements into one, equal to them
+	 * @return {int} The number of combined elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public <T> int sortReduce(final T[] elementArray, final Comparator<? super T> comparator, final BinaryOperator<T> combiner) {
+		return sortReduce(elementArray, comparator, combiner, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that replaces every group of equal elements by
+	 * their combination, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The associative function that combines two equal elements into one, equal to them
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of combined elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public <T> int sortReduce(final T[] elementArray, final Comparator<? super T> comparator, final BinaryOperator<T> combiner, final SortBuffer buffer) {
+		MergeSort.checkReduceArguments(elementArray, comparator, combiner, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		int reducedLength;
+		try {
+			Object[] scratch = buffer.objects(length);
+			int leafLength = leafLength(length);
+			if (length < leafLength || adaptive && length < SEQUENTIAL_THRESHOLD){
+				reducedLength = MergeSort.sortReduce(elementArray, comparator, combiner, scratch, 0, length);
+			} else {
+				ReduceTask<T> task = new ReduceTask<>(elementArray, comparator, combiner, scratch, 0, length, leafLength, adaptive);
+				pool.invoke(task);
+				reducedLength = task.reducedEnd;
+			}
+		} finally {
+			buffer.release(length);
+		}
+		Arrays.fill(elementArray, reducedLength, length, null);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return reducedLength;
+	}
+
+	/**
+	 * Perform an in-place partial sort on a given array of element: the k smallest elements are moved in order
+	 * to the beginning of the array, and the other elements are left after them in no particular order.
+	 * Every chunk of the array selects its k smallest elements with a bounded heap in parallel,
+	 * and the sorted chunk selections are merged. Equal elements keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} k The number of smallest elements to be sorted, the whole array is sorted when it is not shorter
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The partially sorted array
+	 */
+	public <T> T[] sortPrefix(final T[] elementArray, final int k, final Comparator<? super T> comparator) {
+		MergeSort.checkPrefixArguments(elementArray, k, comparator);
+		int length = elementArray.length;
+		if (k >= length / MergeSort.PREFIX_SORT_RATIO){
+			return sort(elementArray, comparator);
+		}
+		int chunks = prefixChunks(length, k);
+		if (chunks < 2){
+			return MergeSort.sortPrefix(elementArray, k, comparator);
+		}
+		Object[] smallest = new Object[k];
+		int[] positions = new int[k];
+		selectSmallest(elementArray, k, comparator, chunks, smallest, positions);
+		MergeSort.placePrefix(elementArray, smallest, positions, k);
+		return elementArray;
+	}
+
+	/**
+	 * Provides the k smallest elements of a given array of element in order, without modifying the array.
+	 * Every chunk of the array selects its k smallest elements with a bounded heap in parallel,
+	 * and the sorted chunk selections are merged. Equal elements keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} k The number of smallest elements, all of them are provided when the array is not longer
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} A new array of the min(k, n) smallest elements
+	 */
+	public <T> T[] topK(final T[] elementArray, final int k, final Comparator<? super T> comparator) {
+		MergeSort.checkPrefixArguments(elementArray, k, comparator);
+		int length = elementArray.length;
+		if (k >= length / MergeSort.PREFIX_SORT_RATIO){
+			return Arrays.copyOf(sort(elementArray.clone(), comparator), Math.min(k, length));
+		}
+		int chunks = prefixChunks(length, k);
+		if (chunks < 2){
+			return MergeSort.topK(elementArray, k, comparator);
+		}
+		T[] smallest = Arrays.copyOf(elementArray, k);
+		selectSmallest(elementArray, k, comparator, chunks, smallest, new int[k]);
+		return smallest;
+	}
+
+	/**
+	 * Merges sorted arrays into a new sorted array. The output is split in pieces, a few per worker of the pool,
+	 * and each piece finds where the sources split at its first and last output rank (multi-sequence selection),
+	 * then merges its portions of the sources with a tournament tree, so there is no serial pass.
+	 * Elements that compare equal come in the order of their sources, and in their order within a source.
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The merged array
+	 */
+	public <T> T[] merge(final T[][] sources, final Comparator<? super T> comparator) {
+		KWayMerge.checkArguments(sources, comparator);
+		T[] destination = KWayMerge.newArray(sources);
+		int pieces = Math.min(pool.getParallelism() * LEAVES_PER_WORKER, destination.length / SEQUENTIAL_THRESHOLD);
+		if (pieces < 2){
+			int[] ends = new int[sources.length];
+			for (int i = 0; i < sources.length; i++){
+				ends[i] = sources[i].length;
+			}
+			KWayMerge.merge(sources, new int[sources.length], ends, comparator, destination, 0);
+		} else {
+			pool.invoke(new KWayMergeTask<>(sources, comparator, destination, pieces, 0, pieces));
+		}
+		return destination;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of int keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * @param {int[]} keys The array of int keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final int[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of int keys, using the scratch space of a reusable buffer.
+	 * @param {int[]} keys The array of int keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final int[] keys, final SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		long[] sortKeys = buffer.keys(length);
+		int[] permutation = new int[length];
+		try {
+			MergeSort.extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, length, buffer);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of long keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * @param {long[]} keys The array of long keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final long[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of long keys, using the scratch space of a reusable buffer.
+	 * @param {long[]} keys The array of long keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final long[] keys, final SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		long[] sortKeys = buffer.keys(length);
+		int[] permutation = new int[length];
+		try {
+			MergeSort.extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, length, buffer);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of double keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * The keys are ordered as by {@link Double#compare(double, double)}.
+	 * @param {double[]} keys The array of double keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final double[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of double keys, using the scratch space of a reusable buffer.
+	 * @param {double[]} keys The array of double keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public int[] argsort(final double[] keys, final SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		long[] sortKeys = buffer.keys(length);
+		int[] permutation = new int[length];
+		try {
+			MergeSort.extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, length, buffer);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of element by a comparator, without moving the elements:
+	 * only the indexes are merged, so heavy elements stay where they are.
+	 * The i-th value of the permutation is the index of the i-th smallest element, equal elements keeping their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {int[]} The sorting permutation
+	 */
+	public <T> int[] argsort(final T[] elementArray, final Comparator<? super T> comparator) {
+		return argsort(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of element by a comparator, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public <T> int[] argsort(final T[] elementArray, final Comparator<? super T> comparator, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		int length = elementArray.length;
+		int[] permutation = MergeSort.identity(length);
+		SortMetrics.CountingComparator<T> counter = SortMetrics.counting(comparator);
+		try {
+			invoke(MergeKernel.of(elementArray, null == counter ? comparator : counter, permutation, buffer.ints(length)), length, counter);
+		} finally {
+			buffer.release(length);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * The column is copied once, then chunks of the column are gathered from the copy in parallel.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {int[]} column The column array
+	 * @return {int[]} The reordered column
+	 */
+	public int[] applyPermutation(final int[] permutation, final int[] column) {
+		MergeSort.checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {long[]} column The column array
+	 * @return {long[]} The reordered column
+	 */
+	public long[] applyPermutation(final int[] permutation, final long[] column) {
+		MergeSort.checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {float[]} column The column array
+	 * @return {float[]} The reordered column
+	 */
+	public float[] applyPermutation(final int[] permutation, final float[] column) {
+		MergeSort.checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {double[]} column The column array
+	 * @return {double[]} The reordered column
+	 */
+	public double[] applyPermutation(final int[] permutation, final double[] column) {
+		MergeSort.checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th element becomes the element at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {Array} column The column array, <T> The generic type of the element
+	 * @return {Array} The reordered column
+	 */
+	public <T> T[] applyPermutation(final int[] permutation, final T[] column) {
+		MergeSort.checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, column.length);
+		return column;
+	}
+
+	/**
+	 * Gathers a column through a permutation in chunks, a few per worker of the pool,
+	 * or on the calling thread when the column is short
+	 * @param {int[]} permutation The permutation
+	 * @param {Object} source The copy of the column the values are read from
+	 * @param {Object} destination The column the values are written to
+	 * @param {int} length The length of the column
+	 */
+	private void permute(final int[] permutation, final Object source, final Object destination, final int length){
+		int chunks = Math.min(pool.getParallelism() * LEAVES_PER_WORKER, length / SEQUENTIAL_THRESHOLD);
+		if (chunks < 2){
+			MergeSort.permute(permutation, source, destination, 0, length);
+		} else {
+			pool.invoke(new PermuteTask(permutation, source, destination, length, chunks, 0, chunks));
+		}
+	}
+
+	/**
+	 * Picks the number of chunks of a partial sort, a few per worker of the pool,
+	 * each one long enough for its bounded heap to reject most of its elements
+	 * @param {int} length The length of the array
+	 * @param {int} k The number of smallest elements
+	 * @return {int}
+	 */
+	private int prefixChunks(final int length, final int k){
+		long minChunkLength = Math.max(SEQUENTIAL_THRESHOLD, (long) k * MergeSort.PREFIX_SORT_RATIO);
+		return (int) Math.min(pool.getParallelism() * LEAVES_PER_WORKER, length / minChunkLength);
+	}
+
+	/**
+	 * Selects the k smallest elements of every chunk in the pool, then merges the sorted chunk selections
+	 * with a tournament tree, the chunks that come first winning ties
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} k The number of smallest elements
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} chunks The number of chunks
+	 * @param {Object[]} smallest The array that receives the smallest elements in order
+	 * @param {int[]} positions The array that receives the index of each smallest element
+	 */
+	private <T> void selectSmallest(final T[] elementArray, final int k, final Comparator<? super T> comparator, final int chunks, final Object[] smallest, final int[] positions){
+		Object[][] heaps = new Object[chunks][k];
+		int[][] heapPositions = new int[chunks][k];
+		int[] sizes = new int[chunks];
+		pool.invoke(new SelectTask<>(elementArray, k, comparator, chunks, 0, chunks, heaps, heapPositions, sizes));
+
+		int[] cursors = new int[chunks];
+		LoserTree tree = new LoserTree(chunks){
+			@Override
+			protected boolean isExhausted(int source){
+				return cursors[source] == sizes[source];
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			protected int compareHeads(int firstSource, int secondSource){
+				return comparator.compare((T) heaps[firstSource][cursors[firstSource]], (T) heaps[secondSource][cursors[secondSource]]);
+			}
+		};
+		tree.build();
+		for (int i = 0; i < k; i++){
+			int chunk = tree.winner();
+			smallest[i] = heaps[chunk][cursors[chunk]];
+			positions[i] = heapPositions[chunk][cursors[chunk]++];
+			tree.replay();
+		}
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr, final SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr, final SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of float values.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {float[]} The sorted array
+	 */
+	public float[] sort(final float[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of float values, using the scratch space of a reusable buffer.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {float[]} The sorted array
+	 */
+	public float[] sort(final float[] inputArr, final SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of double values.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of double values, using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr, final SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of element, ordered by a comparator, and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress, the tasks not yet forked and the pending merges being abandoned on cancellation.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public <T> SortFuture<T[]> sortAsync(final T[] elementArray, final Comparator<? super T> comparator) {
+		SortBuffer buffer = new SortBuffer();
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		return invokeAsync(MergeKernel.of(elementArray, comparator, buffer.objects(elementArray.length)), elementArray.length, elementArray, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of element, ordered by a comparator, and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed
+	 * before the timeout, the deadline being checked before every task.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public <T> SortFuture<T[]> sortAsync(final T[] elementArray, final Comparator<? super T> comparator, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(elementArray, comparator, buffer.objects(elementArray.length)), elementArray.length, elementArray, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of int values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<int[]> sortAsync(final int[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of int values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<int[]> sortAsync(final int[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of long values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<long[]> sortAsync(final long[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of long values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<long[]> sortAsync(final long[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of float values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<float[]> sortAsync(final float[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of float values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<float[]> sortAsync(final float[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of double values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<double[]> sortAsync(final double[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of double values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<double[]> sortAsync(final double[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of strings, carrying the longest common prefixes through the merges
+	 * (see {@link StringMergeSort}).
+	 * @param {String[]} keys The array of strings
+	 * @return {String[]} The sorted array
+	 */
+	public String[] sort(final String[] keys) {
+		return sort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of strings, carrying the longest common prefixes through the merges
+	 * and using the scratch space of a reusable buffer.
+	 * @param {String[]} keys The array of strings
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {String[]} The sorted array
+	 */
+	public String[] sort(final String[] keys, final SortBuffer buffer) {
+		sort(keys, StringMergeSort.STRINGS, buffer);
+		return keys;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of byte strings, compared by their unsigned bytes,
+	 * carrying the longest common prefixes through the merges (see {@link StringMergeSort}).
+	 * @param {byte[][]} keys The array of byte strings
+	 * @return {byte[][]} The sorted array
+	 */
+	public byte[][] sort(final byte[][] keys) {
+		return sort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of byte strings, compared by their unsigned bytes,
+	 * carrying the longest common prefixes through the merges and using the scratch space of a reusable buffer.
+	 * @param {byte[][]} keys The array of byte strings
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {byte[][]} The sorted array
+	 */
+	public byte[][] sort(final byte[][] keys, final SortBuffer buffer) {
+		sort(keys, StringMergeSort.BYTES, buffer);
+		return keys;
+	}
+
+	private void sort(final Object[] keys, final StringMergeSort.KeyAccess access, final SortBuffer buffer) {
+		StringMergeSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		try {
+			invoke(MergeKernel.of(keys, access, buffer.indexes(length), buffer.objects(length), buffer.ints(length)), length);
+		} finally {
+			buffer.release(length);
+		}
+	}
+
+	/**
+	 * Perform an in-place merge and sort on the fixed-width records of a buffer, reading the keys straight from the buffer,
+	 * with a direct scratch buffer allocated for the sort. Records with equal keys keep their original order.
+	 * @param {ByteBuffer} records The buffer of records, from its position to its limit
+	 * @param {RecordLayout} layout The layout of the records
+	 * @return {ByteBuffer} The sorted buffer
+	 */
+	public ByteBuffer sort(final ByteBuffer records, final RecordLayout layout) {
+		if (null == records){
+			throw new IllegalArgumentException("buffer of records cannot be null");
+		}
+		return sort(records, layout, ByteBuffer.allocateDirect(records.remaining()));
+	}
+
+	/**
+	 * Perform an in-place merge and sort on the fixed-width records of a buffer, reading the keys straight from the buffer
+	 * and using a reusable scratch buffer. Records with equal keys keep their original order.
+	 * @param {ByteBuffer} records The buffer of records, from its position to its limit
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {ByteBuffer} scratch The scratch space, from its position, at least as long as the records
+	 * @return {ByteBuffer} The sorted buffer
+	 */
+	public ByteBuffer sort(final ByteBuffer records, final RecordLayout layout, final ByteBuffer scratch) {
+		int recordCount = OffHeapSort.checkArguments(records, layout, scratch);
+		invoke(MergeKernel.of(OffHeapSort.view(records, layout), OffHeapSort.view(scratch, layout), layout), recordCount);
+		return records;
+	}
+
+	/**
+	 * Sorts the first values of an array of long keys together with an array of indexes,
+	 * equal keys keeping the order they had.
+	 * @param {long[]} keys The keys to be sorted
+	 * @param {int[]} indexes The indexes moved along with the keys
+	 * @param {int} length The number of keys to be sorted
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space
+	 */
+	void sort(final long[] keys, final int[] indexes, final int length, final SortBuffer buffer) {
+		run(MergeKernel.of(keys, indexes, buffer.longs(length), buffer.ints(length)), length);
+	}
+
+	/**
+	 * Runs the root merge & sort task for a kernel in the pool, or sorts on the calling thread
+	 * when the array fits in a single leaf
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 */
+	private void invoke(final MergeKernel kernel, final int length){
+		invoke(kernel, length, null);
+	}
 
-		return comparableElementArray;
+	/**
+	 * Runs the root merge & sort task for a kernel in the pool, or sorts on the calling thread
+	 * when the array fits in a single leaf, and reports the sort when the metrics are enabled
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 * @param {CountingComparator<>} counter The comparator that counts the comparisons, or null
+	 */
+	private void invoke(final MergeKernel kernel, final int length, final SortMetrics.CountingComparator<?> counter){
+		SortMetrics.Sample sample = SortMetrics.sample(pool);
+		run(kernel, length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, counter);
+		}
+	}
+
+	/**
+	 * Runs the root merge & sort task for a kernel in the pool, or sorts on the calling thread
+	 * when the array fits in a single leaf, without reporting the sort, for the sorts that report their other steps with it
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 */
+	private void run(final MergeKernel kernel, final int length){
+		int leafLength = leafLength(length);
+		if (length < leafLength || adaptive && length < SEQUENTIAL_THRESHOLD){
+			kernel.sort(0, length);
+		} else {
+			pool.invoke(new MergeSortTask(kernel, 0, length, leafLength, adaptive, 0));
+		}
+	}
+
+	/**
+	 * Submits the root merge & sort task of an asynchronous sort to the pool, arrays below the sequential threshold
+	 * being sorted by a single leaf task in adaptive mode
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 * @param {R} result The sorted array the future completes with
+	 * @param {long} timeoutNanos The time the sort may take in nanoseconds, or no deadline
+	 * @return {SortFuture<>}
+	 */
+	private <R> SortFuture<R> invokeAsync(final MergeKernel kernel, final int length, final R result, final long timeoutNanos){
+		int leafLength = adaptive && length < SEQUENTIAL_THRESHOLD ? length + 1 : leafLength(length);
+		SortFuture<R> future = new SortFuture<>(result, SortFuture.work(length, leafLength), timeoutNanos);
+		MergeSortTask root = new MergeSortTask(kernel, 0, length, leafLength, adaptive, 0, future);
+		future.enter();
+		try {
+			pool.execute(ForkJoinTask.adapt(() -> {
+				SortMetrics.Sample sample = SortMetrics.sample(pool);
+				try {
+					root.invoke();
+					future.finish();
+					if (SortMetrics.ENABLED && !future.isCompletedExceptionally()){
+						SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+					}
+				} catch (Throwable t){
+					future.completeExceptionally(t);
+				} finally {
+					future.exit();
+				}
+			}));
+		} catch (RejectedExecutionException e){
+			future.completeExceptionally(e);
+			future.exit();
+		}
+		return future;
+	}
+
+	/**
+	 * Picks the leaf size for an array, so that in adaptive mode each worker of the pool gets a few leaves
+	 * @param {int} length The length of the array to be sorted
+	 * @return {int}
+	 */
+	private int leafLength(final int length){
+		if (!adaptive){
+			return granularity;
+		}
+		return Math.max(granularity, length / (pool.getParallelism() * LEAVES_PER_WORKER));
 	}
 
 	/**
@@ -53,34 +1090,382 @@ public class ForkJoinMergeSort {
 	 * @extends RecursiveAction
 	 * @class
 	 */
-	private static class MergeSortTask<T extends Comparable> extends RecursiveAction {
-		private final T[] comparableElementArray;
+	private static class MergeSortTask extends RecursiveAction {
+		private final MergeKernel kernel;
 		private final int startIndex;
 		private final int endIndex;
 		private final int granularity;
-		private final Class<T> elementClass;
+		private final boolean adaptive;
+		private final int level;
+		private final SortFuture<?> future;
 
-		public MergeSortTask(final T[] comparableElementArray, final int startIndex, final int endIndex, final int granularity, final Class<T> elementClass){
-			this.comparableElementArray = comparableElementArray;
+		public MergeSortTask(final MergeKernel kernel, final int startIndex, final int endIndex, final int granularity, final boolean adaptive, final int level){
+			this(kernel, startIndex, endIndex, granularity, adaptive, level, null);
+		}
+
+		/**
+		 * Constructor of the tasks of an asynchronous sort, which check the future before sorting, forking or merging
+		 * and report their work to it
+		 * @param {SortFuture<>} future The future of the sort, or null
+		 */
+		public MergeSortTask(final MergeKernel kernel, final int startIndex, final int endIndex, final int granularity, final boolean adaptive, final int level, final SortFuture<?> future){
+			this.kernel = kernel;
 			this.startIndex = startIndex;
 			this.endIndex = endIndex;
 			this.granularity = granularity;
-			this.elementClass = elementClass;
+			this.adaptive = adaptive;
+			this.level = level;
+			this.future = future;
+			SortMetrics.taskCreated();
 		}
 
 		@Override
 		protected void compute() {
+			if (null != future && !future.proceed()) {
+				return;
+			}
 			int length = endIndex - startIndex;
+			long start = SortMetrics.start();
+			if (length < granularity || adaptive && getSurplusQueuedTaskCount() > MAX_SURPLUS_QUEUED_TASKS) {
+				kernel.sort(startIndex, endIndex);
+				if (SortMetrics.ENABLED) {
+					SortMetrics.listener().onLeafSorted(SORTER_NAME, level, length, System.nanoTime() - start);
+				}
+				if (null != future) {
+					future.advance(SortFuture.work(length, granularity));
+				}
+				return;
+			}
 			int middleIndex = startIndex + length / 2;
-			if (length < granularity) {
-				Arrays.sort(comparableElementArray, startIndex, endIndex);
+			invokeAll(
+					new MergeSortTask(kernel, startIndex, middleIndex, granularity, adaptive, level + 1, future),
+					new MergeSortTask(kernel, middleIndex, endIndex, granularity, adaptive, level + 1, future)
+					);
+			if (null != future && !future.proceed()) {
+				return;
+			}
+			start = SortMetrics.start();
+			if (length < MergeKernel.PARALLEL_MERGE_THRESHOLD) {
+				kernel.merge(startIndex, middleIndex - startIndex, middleIndex, endIndex - middleIndex);
+			} else if (kernel.compare(middleIndex - 1, middleIndex) > 0) {
+				kernel.copyToScratch(startIndex, endIndex);
+				new ParallelMergeTask(kernel, startIndex, middleIndex, middleIndex, endIndex, startIndex).compute();
+			}
+			if (SortMetrics.ENABLED) {
+				SortMetrics.listener().onMerged(SORTER_NAME, level, length, System.nanoTime() - start);
+			}
+			if (null != future) {
+				future.advance(length);
+			}
+		}
+	}
+
+	/**
+	 * The parallel merge tasks merge two sorted runs of the scratch space into the array.
+	 * The longer run is split at its middle element and the shorter one at the co-ranked position found
+	 * by binary search, so the two halves of the output can be merged independently.
+	 * @name ParallelMergeTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class ParallelMergeTask extends RecursiveAction {
+		private final MergeKernel kernel;
+		private final int leftIndex;
+		private final int leftEnd;
+		private final int rightIndex;
+		private final int rightEnd;
+		private final int destinationIndex;
+
+		public ParallelMergeTask(final MergeKernel kernel, final int leftIndex, final int leftEnd, final int rightIndex, final int rightEnd, final int destinationIndex){
+			this.kernel = kernel;
+			this.leftIndex = leftIndex;
+			this.leftEnd = leftEnd;
+			this.rightIndex = rightIndex;
+			this.rightEnd = rightEnd;
+			this.destinationIndex = destinationIndex;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute() {
+			int leftLength = leftEnd - leftIndex;
+			int rightLength = rightEnd - rightIndex;
+			if (leftLength + rightLength < MergeKernel.PARALLEL_MERGE_THRESHOLD) {
+				kernel.mergeFromScratch(leftIndex, leftEnd, rightIndex, rightEnd, destinationIndex);
+				return;
+			}
+			int leftMiddle;
+			int rightMiddle;
+			if (leftLength >= rightLength) {
+				leftMiddle = (leftIndex + leftEnd) >>> 1;
+				rightMiddle = kernel.search(leftMiddle, rightIndex, rightEnd, false);
 			} else {
-				invokeAll(
-						new MergeSortTask<>(comparableElementArray, startIndex, middleIndex, granularity, elementClass),
-						new MergeSortTask<>(comparableElementArray, middleIndex, endIndex, granularity, elementClass)
-						);
+				rightMiddle = (rightIndex + rightEnd) >>> 1;
+				leftMiddle = kernel.search(rightMiddle, leftIndex, leftEnd, true);
+			}
+			int destinationMiddle = destinationIndex + (leftMiddle - leftIndex) + (rightMiddle - rightIndex);
+			invokeAll(
+					new ParallelMergeTask(kernel, leftIndex, leftMiddle, rightIndex, rightMiddle, destinationIndex),
+					new ParallelMergeTask(kernel, leftMiddle, leftEnd, rightMiddle, rightEnd, destinationMiddle)
+					);
+		}
+	}
+
+	/**
+	 * The reduce tasks sort a portion of the array and combine its equal elements, like the merge & sort tasks,
+	 * and leave the end index of the combined elements for the task that merges them
+	 * @name ReduceTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class ReduceTask<T> extends RecursiveAction {
+		private final T[] elementArray;
+		private final Comparator<? super T> comparator;
+		private final BinaryOperator<T> combiner;
+		private final Object[] scratch;
+		private final int startIndex;
+		private final int endIndex;
+		private final int granularity;
+		private final boolean adaptive;
+		private int reducedEnd;
+
+		public ReduceTask(final T[] elementArray, final Comparator<? super T> comparator, final BinaryOperator<T> combiner, final Object[] scratch,
+				final int startIndex, final int endIndex, final int granularity, final boolean adaptive){
+			this.elementArray = elementArray;
+			this.comparator = comparator;
+			this.combiner = combiner;
+			this.scratch = scratch;
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+			this.granularity = granularity;
+			this.adaptive = adaptive;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute() {
+			int length = endIndex - startIndex;
+			if (length < granularity || adaptive && getSurplusQueuedTaskCount() > MAX_SURPLUS_QUEUED_TASKS) {
+				reducedEnd = MergeSort.sortReduce(elementArray, comparator, combiner, scratch, startIndex, endIndex);
+				return;
+			}
+			int middleIndex = startIndex + length / 2;
+			ReduceTask<T> left = new ReduceTask<>(elementArray, comparator, combiner, scratch, startIndex, middleIndex, granularity, adaptive);
+			ReduceTask<T> right = new ReduceTask<>(elementArray, comparator, combiner, scratch, middleIndex, endIndex, granularity, adaptive);
+			invokeAll(left, right);
+			int leftEnd = left.reducedEnd;
+			int rightEnd = right.reducedEnd;
+			if (leftEnd - startIndex + rightEnd - middleIndex < MergeKernel.PARALLEL_MERGE_THRESHOLD
+					|| comparator.compare(elementArray[leftEnd - 1], elementArray[middleIndex]) < 0) {
+				reducedEnd = MergeSort.mergeReduce(elementArray, comparator, combiner, startIndex, leftEnd, middleIndex, rightEnd, scratch);
+				return;
+			}
+			System.arraycopy(elementArray, startIndex, scratch, startIndex, leftEnd - startIndex);
+			System.arraycopy(elementArray, middleIndex, scratch, middleIndex, rightEnd - middleIndex);
+			SortMetrics.moved(leftEnd - startIndex + rightEnd - middleIndex);
+			ReduceMergeTask<T> merge = new ReduceMergeTask<>(elementArray, comparator, combiner, scratch, startIndex, leftEnd, middleIndex, rightEnd, startIndex);
+			merge.compute();
+			reducedEnd = merge.mergedEnd;
+		}
+	}
+
+	/**
+	 * The reduce merge tasks merge two sorted runs of combined elements of the scratch space into the array.
+	 * The runs are split like the parallel merge tasks do, except that the elements equal to the splitting element
+	 * all go to the second half so they are combined there. Each half is merged at the index it would have without
+	 * combinations, and the second half is then moved down to the end of the first one.
+	 * @name ReduceMergeTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class ReduceMergeTask<T> extends RecursiveAction {
+		private final T[] elementArray;
+		private final Comparator<? super T> comparator;
+		private final BinaryOperator<T> combiner;
+		private final Object[] scratch;
+		private final int leftIndex;
+		private final int leftEnd;
+		private final int rightIndex;
+		private final int rightEnd;
+		private final int destinationIndex;
+		private int mergedEnd;
+
+		public ReduceMergeTask(final T[] elementArray, final Comparator<? super T> comparator, final BinaryOperator<T> combiner, final Object[] scratch,
+				final int leftIndex, final int leftEnd, final int rightIndex, final int rightEnd, final int destinationIndex){
+			this.elementArray = elementArray;
+			this.comparator = comparator;
+			this.combiner = combiner;
+			this.scratch = scratch;
+			this.leftIndex = leftIndex;
+			this.leftEnd = leftEnd;
+			this.rightIndex = rightIndex;
+			this.rightEnd = rightEnd;
+			this.destinationIndex = destinationIndex;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected void compute() {
+			int leftLength = leftEnd - leftIndex;
+			int rightLength = rightEnd - rightIndex;
+			if (leftLength + rightLength < MergeKernel.PARALLEL_MERGE_THRESHOLD) {
+				mergedEnd = MergeSort.mergeReduce(comparator, combiner, scratch, leftIndex, leftEnd, scratch, rightIndex, rightEnd, elementArray, destinationIndex);
+				return;
+			}
+			int leftMiddle;
+			int rightMiddle;
+			if (leftLength >= rightLength) {
+				leftMiddle = (leftIndex + leftEnd) >>> 1;
+				rightMiddle = MergeSort.gallop((T) scratch[leftMiddle], scratch, rightIndex, rightEnd, false, comparator);
+			} else {
+				rightMiddle = (rightIndex + rightEnd) >>> 1;
+				leftMiddle = MergeSort.gallop((T) scratch[rightMiddle], scratch, leftIndex, leftEnd, false, comparator);
+			}
+			int destinationMiddle = destinationIndex + (leftMiddle - leftIndex) + (rightMiddle - rightIndex);
+			ReduceMergeTask<T> first = new ReduceMergeTask<>(elementArray, comparator, combiner, scratch, leftIndex, leftMiddle, rightIndex, rightMiddle, destinationIndex);
+			ReduceMergeTask<T> second = new ReduceMergeTask<>(elementArray, comparator, combiner, scratch, leftMiddle, leftEnd, rightMiddle, rightEnd, destinationMiddle);
+			invokeAll(first, second);
+			int secondLength = second.mergedEnd - destinationMiddle;
+			System.arraycopy(elementArray, destinationMiddle, elementArray, first.mergedEnd, secondLength);
+			SortMetrics.moved(destinationMiddle == first.mergedEnd ? 0 : secondLength);
+			mergedEnd = first.mergedEnd + secondLength;
+		}
+	}
+
+	/**
+	 * The select tasks split a range of chunks in halves until a single chunk is left,
+	 * which selects its k smallest elements with a bounded heap
+	 * @name SelectTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class SelectTask<T> extends RecursiveAction {
+		private final T[] elementArray;
+		private final int k;
+		private final Comparator<? super T> comparator;
+		private final int chunks;
+		private final int firstChunk;
+		private final int endChunk;
+		private final Object[][] heaps;
+		private final int[][] heapPositions;
+		private final int[] sizes;
+
+		public SelectTask(final T[] elementArray, final int k, final Comparator<? super T> comparator, final int chunks,
+				final int firstChunk, final int endChunk, final Object[][] heaps, final int[][] heapPositions, final int[] sizes){
+			this.elementArray = elementArray;
+			this.k = k;
+			this.comparator = comparator;
+			this.chunks = chunks;
+			this.firstChunk = firstChunk;
+			this.endChunk = endChunk;
+			this.heaps = heaps;
+			this.heapPositions = heapPositions;
+			this.sizes = sizes;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute() {
+			if (endChunk - firstChunk == 1) {
+				int startIndex = (int) ((long) elementArray.length * firstChunk / chunks);
+				int endIndex = (int) ((long) elementArray.length * endChunk / chunks);
+				sizes[firstChunk] = MergeSort.selectSmallest(elementArray, startIndex, endIndex, k, comparator, heaps[firstChunk], heapPositions[firstChunk]);
+				return;
+			}
+			int middleChunk = (firstChunk + endChunk) >>> 1;
+			invokeAll(
+					new SelectTask<>(elementArray, k, comparator, chunks, firstChunk, middleChunk, heaps, heapPositions, sizes),
+					new SelectTask<>(elementArray, k, comparator, chunks, middleChunk, endChunk, heaps, heapPositions, sizes)
+					);
+		}
+	}
+
+	/**
+	 * The k-way merge tasks split a range of output pieces in halves until a single piece is left,
+	 * which selects its portion of every source and merges them
+	 * @name KWayMergeTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class KWayMergeTask<T> extends RecursiveAction {
+		private final T[][] sources;
+		private final Comparator<? super T> comparator;
+		private final T[] destination;
+		private final int pieces;
+		private final int firstPiece;
+		private final int endPiece;
+
+		public KWayMergeTask(final T[][] sources, final Comparator<? super T> comparator, final T[] destination,
+				final int pieces, final int firstPiece, final int endPiece){
+			this.sources = sources;
+			this.comparator = comparator;
+			this.destination = destination;
+			this.pieces = pieces;
+			this.firstPiece = firstPiece;
+			this.endPiece = endPiece;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute() {
+			if (endPiece - firstPiece == 1) {
+				int startRank = (int) ((long) destination.length * firstPiece / pieces);
+				int endRank = (int) ((long) destination.length * endPiece / pieces);
+				int[] starts = KWayMerge.split(sources, startRank, comparator);
+				int[] ends = KWayMerge.split(sources, endRank, comparator);
+				KWayMerge.merge(sources, starts, ends, comparator, destination, startRank);
+				return;
+			}
+			int middlePiece = (firstPiece + endPiece) >>> 1;
+			invokeAll(
+					new KWayMergeTask<>(sources, comparator, destination, pieces, firstPiece, middlePiece),
+					new KWayMergeTask<>(sources, comparator, destination, pieces, middlePiece, endPiece)
+					);
+		}
+	}
+
+	/**
+	 * The permute tasks split a range of chunks in halves until a single chunk is left,
+	 * which gathers its portion of the column
+	 * @name PermuteTask
+	 * @extends RecursiveAction
+	 * @class
+	 */
+	private static class PermuteTask extends RecursiveAction {
+		private final int[] permutation;
+		private final Object source;
+		private final Object destination;
+		private final int length;
+		private final int chunks;
+		private final int firstChunk;
+		private final int endChunk;
+
+		public PermuteTask(final int[] permutation, final Object source, final Object destination, final int length,
+				final int chunks, final int firstChunk, final int endChunk){
+			this.permutation = permutation;
+			this.source = source;
+			this.destination = destination;
+			this.length = length;
+			this.chunks = chunks;
+			this.firstChunk = firstChunk;
+			this.endChunk = endChunk;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute() {
+			if (endChunk - firstChunk == 1) {
+				int startIndex = (int) ((long) length * firstChunk / chunks);
+				int endIndex = (int) ((long) length * endChunk / chunks);
+				MergeSort.permute(permutation, source, destination, startIndex, endIndex);
+				return;
 			}
-			MergeSort.merge(comparableElementArray, startIndex, middleIndex - startIndex, middleIndex, endIndex - middleIndex, elementClass);
+			int middleChunk = (firstChunk + endChunk) >>> 1;
+			invokeAll(
+					new PermuteTask(permutation, source, destination, length, chunks, firstChunk, middleChunk),
+					new PermuteTask(permutation, source, destination, length, chunks, middleChunk, endChunk)
+					);
 		}
 	}
 }
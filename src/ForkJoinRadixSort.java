@@ -0,0 +1,200 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class that contains parallel version (using a fork/join pool) of LSD Radix Sort.
+ * Every pass splits the array in chunks: each chunk counts its digits in parallel, the counts are turned into
+ * the position where each chunk writes each digit (a prefix sum over digits and chunks), and the chunks
+ * distribute their keys in parallel to disjoint positions, which keeps the sort stable.
+ * @author NubilaPardus
+ * @name ForkJoinRadixSort
+ * @class
+ */
+public class ForkJoinRadixSort {
+
+	private static final int MIN_CHUNK_LENGTH = 1 << 14;
+	private static final int CHUNKS_PER_WORKER = 4;
+	private final ForkJoinPool pool;
+	private final RadixSort.ChunkRunner runner;
+
+	/**
+	 * Constructor
+	 * @param {ForkJoinPool} pool The ForkJoinPool the passes run in
+	 */
+	public ForkJoinRadixSort(final ForkJoinPool pool){
+		if (null == pool){
+			throw new IllegalArgumentException("ForkJoinPool cannot be null!");
+		}
+		this.pool = pool;
+		this.runner = (chunks, action) -> pool.invoke(new ChunkTask(action, 0, chunks));
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr, final SortBuffer buffer) {
+		RadixSort.checkArguments(inputArr, buffer);
+		int chunks = chunks(inputArr.length);
+		RadixSort.sort(inputArr, buffer.ints(inputArr.length), inputArr.length, chunks, runner(chunks));
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr, final SortBuffer buffer) {
+		RadixSort.checkArguments(inputArr, buffer);
+		int chunks = chunks(inputArr.length);
+		RadixSort.sort(inputArr, buffer.longs(inputArr.length), inputArr.length, Long.SIZE, chunks, runner(chunks));
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of double values, ordered like {@link Double#compare}.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of double values, ordered like {@link Double#compare}
+	 * and using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr, final SortBuffer buffer) {
+		RadixSort.checkArguments(inputArr, buffer);
+		int chunks = chunks(inputArr.length);
+		RadixSort.sort(inputArr, buffer, chunks, runner(chunks));
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by an int key.
+	 * Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor) {
+		return sortByInt(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by an int key
+	 * and using the scratch space of a reusable buffer. Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int chunks = chunks(elementArray.length);
+		RadixSort.sortByKey(elementArray, element -> keyExtractor.applyAsInt(element), Integer.SIZE, buffer, chunks, runner(chunks));
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by a long key.
+	 * Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor) {
+		return sortByLong(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by a long key
+	 * and using the scratch space of a reusable buffer. Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor, final SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int chunks = chunks(elementArray.length);
+		RadixSort.sortByKey(elementArray, keyExtractor, Long.SIZE, buffer, chunks, runner(chunks));
+		return elementArray;
+	}
+
+	/**
+	 * Picks the number of chunks of an array, a few per worker of the pool, none shorter than a minimum
+	 * @param {int} length The length of the array to be sorted
+	 * @return {int}
+	 */
+	private int chunks(final int length){
+		return Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_WORKER, length / MIN_CHUNK_LENGTH));
+	}
+
+	/**
+	 * Provides the runner of the chunks, short arrays being sorted on the calling thread
+	 * @param {int} chunks The number of chunks
+	 * @return {ChunkRunner}
+	 */
+	private RadixSort.ChunkRunner runner(final int chunks){
+		return chunks == 1 ? RadixSort.SEQUENTIAL : runner;
+	}
+
+	/**
+	 * Runs an action for a range of chunks, splitting the range in halves until a single chunk is left
+	 * @name ChunkTask
+	 * @class
+	 * @extends RecursiveAction
+	 */
+	static class ChunkTask extends RecursiveAction {
+		private final IntConsumer action;
+		private final int from;
+		private final int to;
+
+		ChunkTask(IntConsumer action, int from, int to){
+			this.action = action;
+			this.from = from;
+			this.to = to;
+			SortMetrics.taskCreated();
+		}
+
+		@Override
+		protected void compute(){
+			if (to - from == 1){
+				action.accept(from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ChunkTask(action, from, middle), new ChunkTask(action, middle, to));
+		}
+	}
+}
@@ -0,0 +1,322 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class that sorts elements that arrive in batches, serving sorted output at any time without a full re-sort.
+ * Every batch is sorted in the background on an executor and becomes a sorted run. Groups of runs that hold
+ * consecutive batches and have similar sizes are merged in the background too (size-tiered merging), so the number
+ * of runs stays logarithmic in the number of elements. Iterating merges the current runs lazily with a tournament tree.
+ * Elements that compare equal come in the order they were added, across batches as well.
+ * @author NubilaPardus
+ * @name IncrementalSorter
+ * @class
+ */
+public class IncrementalSorter<T> implements Iterable<T> {
+
+	private static final int MERGE_FAN_IN = 4;
+	private final ExecutorService executor;
+	private final Comparator<? super T> comparator;
+	private final TreeMap<Long, Run> runs = new TreeMap<>();
+	private long batchCount;
+	private long elementCount;
+	private int pendingSorts;
+	private Throwable failure;
+
+	/**
+	 * Constructor
+	 * @param {ExecutorService} executor an ExecutorService where the sort and merge tasks will be submitted to
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 */
+	public IncrementalSorter(final ExecutorService executor, final Comparator<? super T> comparator){
+		if (null == executor){
+			throw new IllegalArgumentException("ExecutorService cannot be null!");
+		}
+		if (null == comparator){
+			throw new IllegalArgumentException("comparator cannot be null");
+		}
+		this.executor = executor;
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Adds a batch of elements, which is copied and sorted in the background
+	 * @param {Array} batch The batch of element, <T> The generic type of the element
+	 */
+	public void add(final T[] batch){
+		if (null == batch){
+			throw new IllegalArgumentException("batch cannot be null");
+		}
+		T[] elements = batch.clone();
+		long batchIndex;
+		synchronized (this){
+			batchIndex = batchCount++;
+			elementCount += elements.length;
+			pendingSorts++;
+		}
+		try {
+			executor.execute(() -> sortBatch(elements, batchIndex));
+		} catch (RejectedExecutionException e){
+			synchronized (this){
+				elementCount -= elements.length;
+				pendingSorts--;
+				failure = e;
+				notifyAll();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return {long} The number of elements added so far
+	 */
+	public synchronized long size(){
+		return elementCount;
+	}
+
+	/**
+	 * @return {int[]} The length of every run, in the order of their batches
+	 */
+	synchronized int[] runLengths(){
+		int[] lengths = new int[runs.size()];
+		int i = 0;
+		for (Run run : runs.values()){
+			lengths[i++] = run.elements.length;
+		}
+		return lengths;
+	}
+
+	/**
+	 * Provides the elements added so far in order. Waits until the batches added so far are sorted,
+	 * then merges their runs lazily while it is consumed, later batches are not included.
+	 * Throws a CompletionException when a batch could not be sorted or runs could not be merged.
+	 * @return {Iterator<>}
+	 */
+	@Override
+	public Iterator<T> iterator(){
+		List<Object[]> snapshot = new ArrayList<>();
+		synchronized (this){
+			try {
+				while (pendingSorts > 0 && null == failure){
+					wait();
+				}
+			} catch (InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the batches to be sorted", e);
+			}
+			if (null != failure){
+				throw new CompletionException(failure);
+			}
+			for (Run run : runs.values()){
+				snapshot.add(run.elements);
+			}
+		}
+		return new RunIterator<>(snapshot.toArray(new Object[0][]), comparator);
+	}
+
+	/**
+	 * Provides the elements added so far in order, see {@link #iterator()}
+	 * @return {Stream<>}
+	 */
+	public Stream<T> stream(){
+		Iterator<T> iterator = iterator();
+		long size = ((RunIterator<T>) iterator).remaining;
+		return StreamSupport.stream(Spliterators.spliterator(iterator, size, Spliterator.ORDERED), false);
+	}
+
+	/**
+	 * Sorts a batch on the executor and adds it to the runs. A failure is recorded for the readers
+	 * instead of being thrown on the executor.
+	 * @param {Array} elements The copy of the batch
+	 * @param {long} batchIndex The index of the batch in the order of addition
+	 */
+	private void sortBatch(T[] elements, long batchIndex){
+		try {
+			MergeSort.sort(elements, comparator);
+		} catch (Throwable e){
+			synchronized (this){
+				pendingSorts--;
+				failure = e;
+				notifyAll();
+			}
+			return;
+		}
+		synchronized (this){
+			runs.put(batchIndex, new Run(elements, batchIndex, batchIndex));
+			pendingSorts--;
+			scheduleMerges();
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Submits a merge for every group of runs that hold consecutive batches, are not being merged already,
+	 * and are in the same size tier. A run is only merged with runs of its own size, so every element is merged
+	 * a logarithmic number of times and small recent runs never rewrite a large old one. Called with the lock held.
+	 */
+	private void scheduleMerges(){
+		List<Run> group = new ArrayList<>();
+		for (Run run : runs.values()){
+			if (run.merging){
+				group.clear();
+				continue;
+			}
+			if (!group.isEmpty()){
+				Run previous = group.get(group.size() - 1);
+				if (run.firstBatch != previous.lastBatch + 1 || run.tier() != group.get(0).tier()){
+					group.clear();
+				}
+			}
+			group.add(run);
+			if (group.size() == MERGE_FAN_IN){
+				submitMerge(group.toArray(new Run[0]));
+				group.clear();
+			}
+		}
+	}
+
+	/**
+	 * Submits the merge of a group of runs, which replaces them once it is done. Called with the lock held.
+	 * @param {Run[]} group The runs, in the order of their batches
+	 */
+	private void submitMerge(Run[] group){
+		for (Run run : group){
+			run.merging = true;
+		}
+		try {
+			executor.execute(() -> mergeRuns(group));
+		} catch (RejectedExecutionException e){
+			for (Run run : group){
+				run.merging = false;
+			}
+		}
+	}
+
+	/**
+	 * Merges a group of runs on the executor and replaces them with the merged run. A failure is recorded
+	 * for the readers instead of being thrown on the executor.
+	 * @param {Run[]} group The runs, in the order of their batches
+	 */
+	private void mergeRuns(Run[] group){
+		Object[][] elements = new Object[group.length][];
+		int length = 0;
+		for (int i = 0; i < group.length; i++){
+			elements[i] = group[i].elements;
+			length += elements[i].length;
+		}
+		Object[] merged = new Object[length];
+		try {
+			RunIterator<T> iterator = new RunIterator<>(elements, comparator);
+			for (int i = 0; i < length; i++){
+				merged[i] = iterator.next();
+			}
+		} catch (Throwable e){
+			synchronized (this){
+				for (Run run : group){
+					run.merging = false;
+				}
+				failure = e;
+				notifyAll();
+			}
+			return;
+		}
+		synchronized (this){
+			for (Run run : group){
+				runs.remove(run.firstBatch);
+			}
+			Run run = new Run(merged, group[0].firstBatch, group[group.length - 1].lastBatch);
+			runs.put(run.firstBatch, run);
+			scheduleMerges();
+		}
+	}
+
+	/**
+	 * A sorted run, which holds the elements of a range of consecutive batches and is never modified
+	 * @name Run
+	 * @class
+	 */
+	private static class Run {
+		private final Object[] elements;
+		private final long firstBatch;
+		private final long lastBatch;
+		private boolean merging;
+
+		private Run(Object[] elements, long firstBatch, long lastBatch){
+			this.elements = elements;
+			this.firstBatch = firstBatch;
+			this.lastBatch = lastBatch;
+		}
+
+		/**
+		 * @return {int} The size tier of the run, runs whose length has the same base 4 logarithm share a tier
+		 */
+		private int tier(){
+			return (31 - Integer.numberOfLeadingZeros(Math.max(1, elements.length))) / 2;
+		}
+	}
+
+	/**
+	 * Merges sorted runs lazily with a tournament tree, the runs that come first winning ties
+	 * @name RunIterator
+	 * @class
+	 */
+	private static class RunIterator<T> implements Iterator<T> {
+		private final Object[][] runs;
+		private final int[] cursors;
+		private final LoserTree tree;
+		private long remaining;
+
+		private RunIterator(Object[][] runs, Comparator<? super T> comparator){
+			this.runs = runs;
+			this.cursors = new int[runs.length];
+			for (Object[] run : runs){
+				remaining += run.length;
+			}
+			if (runs.length == 0){
+				this.tree = null;
+				return;
+			}
+			this.tree = new LoserTree(runs.length){
+				@Override
+				protected boolean isExhausted(int source){
+					return cursors[source] == runs[source].length;
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				protected int compareHeads(int firstSource, int secondSource){
+					return comparator.compare((T) runs[firstSource][cursors[firstSource]], (T) runs[secondSource][cursors[secondSource]]);
+				}
+			};
+			this.tree.build();
+		}
+
+		@Override
+		public boolean hasNext(){
+			return remaining > 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next(){
+			if (remaining == 0){
+				throw new NoSuchElementException();
+			}
+			int run = tree.winner();
+			T element = (T) runs[run][cursors[run]++];
+			tree.replay();
+			remaining--;
+			return element;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * This class that records the metrics of the sorts as Java Flight Recorder events, so they can be correlated
+ * with the GC and CPU profiles of a recording. It is installed with {@link SortMetrics#setListener(SortListener)}
+ * and the events are recorded when a recording enables them, for example with the default settings.
+ * @author NubilaPardus
+ * @name JfrSortListener
+ * @class
+ */
+public class JfrSortListener implements SortListener {
+
+	@Override
+	public void onLeafSorted(String sorter, int level, int length, long nanos){
+		PhaseEvent event = new PhaseEvent();
+		if (event.shouldCommit()){
+			event.sorter = sorter;
+			event.phase = "leaf";
+			event.level = level;
+			event.length = length;
+			event.elapsed = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void onMerged(String sorter, int level, int length, long nanos){
+		PhaseEvent event = new PhaseEvent();
+		if (event.shouldCommit()){
+			event.sorter = sorter;
+			event.phase = "merge";
+			event.level = level;
+			event.length = length;
+			event.elapsed = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void onTaskStarted(String sorter, long queueWaitNanos){
+		TaskEvent event = new TaskEvent();
+		if (event.shouldCommit()){
+			event.sorter = sorter;
+			event.queueWait = queueWaitNanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void onScratchAllocated(long bytes){
+		ScratchEvent event = new ScratchEvent();
+		if (event.shouldCommit()){
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void onSortCompleted(String sorter, int length, long nanos, long comparisons, long moves, long tasks, long steals){
+		SortEvent event = new SortEvent();
+		if (event.shouldCommit()){
+			event.sorter = sorter;
+			event.length = length;
+			event.elapsed = nanos;
+			event.comparisons = comparisons;
+			event.moves = moves;
+			event.tasks = tasks;
+			event.steals = steals;
+			event.commit();
+		}
+	}
+
+	@Name("mergesort.Sort")
+	@Label("Sort")
+	@Category("Merge Sort")
+	static class SortEvent extends Event {
+		@Label("Sorter")
+		String sorter;
+		@Label("Length")
+		int length;
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+		@Label("Comparisons")
+		long comparisons;
+		@Label("Moves")
+		long moves;
+		@Label("Tasks")
+		long tasks;
+		@Label("Steals")
+		long steals;
+	}
+
+	@Name("mergesort.Phase")
+	@Label("Sort Phase")
+	@Category("Merge Sort")
+	static class PhaseEvent extends Event {
+		@Label("Sorter")
+		String sorter;
+		@Label("Phase")
+		String phase;
+		@Label("Level")
+		int level;
+		@Label("Length")
+		int length;
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("mergesort.Task")
+	@Label("Sort Task")
+	@Category("Merge Sort")
+	static class TaskEvent extends Event {
+		@Label("Sorter")
+		String sorter;
+		@Label("Queue Wait")
+		@Timespan(Timespan.NANOSECONDS)
+		long queueWait;
+	}
+
+	@Name("mergesort.Scratch")
+	@Label("Scratch Allocation")
+	@Category("Merge Sort")
+	static class ScratchEvent extends Event {
+		@Label("Size")
+		@DataAmount(DataAmount.BYTES)
+		long bytes;
+	}
+}
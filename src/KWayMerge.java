@@ -0,0 +1,285 @@
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class that merges k already sorted sources in O(n log k) time, instead of concatenating and sorting them.
+ * The next element is selected with a tournament tree of losers, so each element costs about log k comparisons.
+ * Elements that compare equal come in the order of their sources, and in their order within a source.
+ * @author NubilaPardus
+ * @name KWayMerge
+ * @class
+ */
+public class KWayMerge {
+
+	/**
+	 * Merges sorted arrays into a new sorted array.
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The merged array
+	 */
+	public static <T> T[] merge(T[][] sources, Comparator<? super T> comparator) {
+		checkArguments(sources, comparator);
+		T[] destination = newArray(sources);
+		int[] starts = new int[sources.length];
+		int[] ends = new int[sources.length];
+		for (int i = 0; i < sources.length; i++){
+			ends[i] = sources[i].length;
+		}
+		merge(sources, starts, ends, comparator, destination, 0);
+		return destination;
+	}
+
+	/**
+	 * Merges sorted arrays into a new sorted list.
+	 * @param {List<>} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {List<>} The merged list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> List<T> merge(List<? extends T[]> sources, Comparator<? super T> comparator) {
+		if (null == sources){
+			throw new IllegalArgumentException("sources cannot be null");
+		}
+		Object[][] arrays = sources.toArray(new Object[0][]);
+		return Arrays.asList((T[]) merge(arrays, (Comparator<Object>) comparator));
+	}
+
+	/**
+	 * Merges sorted iterators lazily, every source being read as the merged iterator is consumed.
+	 * @param {List<>} sources The sorted iterators, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Iterator<>} The merged iterator
+	 */
+	public static <T> Iterator<T> mergeIterators(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+		if (null == sources){
+			throw new IllegalArgumentException("sources cannot be null");
+		}
+		for (Iterator<? extends T> source : sources){
+			if (null == source){
+				throw new IllegalArgumentException("sources cannot be null");
+			}
+		}
+		if (null == comparator){
+			throw new IllegalArgumentException("comparator cannot be null");
+		}
+		return new MergedIterator<>(new ArrayList<>(sources), comparator);
+	}
+
+	/**
+	 * Validates the arguments shared by the array merge methods
+	 * @param {Array} sources The sorted arrays
+	 * @param {Comparator<>} comparator The comparator
+	 */
+	static void checkArguments(Object[][] sources, Comparator<?> comparator) {
+		if (null == sources){
+			throw new IllegalArgumentException("sources cannot be null");
+		}
+		for (Object[] source : sources){
+			if (null == source){
+				throw new IllegalArgumentException("sources cannot be null");
+			}
+		}
+		if (null == comparator){
+			throw new IllegalArgumentException("comparator cannot be null");
+		}
+	}
+
+	/**
+	 * Provides an array of the element type of the sources, as long as all the sources together
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @return {Array}
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T[] newArray(T[][] sources) {
+		long length = 0;
+		for (T[] source : sources){
+			length += source.length;
+		}
+		if (length > Integer.MAX_VALUE - 8){
+			throw new IllegalArgumentException("The sources hold " + length + " elements, more than an array can hold");
+		}
+		return (T[]) Array.newInstance(sources.getClass().getComponentType().getComponentType(), (int) length);
+	}
+
+	/**
+	 * Merges portions of sorted arrays into a destination with a tournament tree, the sources that come first winning ties
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {int[]} starts The start index of each portion, inclusively.
+	 * @param {int[]} ends The end index of each portion, exclusively.
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {Array} destination The array that receives the merged elements
+	 * @param {int} destinationIndex The index of the first merged element in the destination
+	 */
+	static <T> void merge(T[][] sources, int[] starts, int[] ends, Comparator<? super T> comparator, T[] destination, int destinationIndex) {
+		if (sources.length == 0){
+			return;
+		}
+		int[] cursors = starts.clone();
+		LoserTree tree = new LoserTree(sources.length){
+			@Override
+			protected boolean isExhausted(int source){
+				return cursors[source] == ends[source];
+			}
+
+			@Override
+			protected int compareHeads(int firstSource, int secondSource){
+				return comparator.compare(sources[firstSource][cursors[firstSource]], sources[secondSource][cursors[secondSource]]);
+			}
+		};
+		tree.build();
+		for (int source = tree.winner(); cursors[source] < ends[source]; source = tree.winner()){
+			destination[destinationIndex++] = sources[source][cursors[source]++];
+			tree.replay();
+		}
+	}
+
+	/**
+	 * Finds where each source splits so that the elements before the splits are the given number of first merged elements,
+	 * ordering equal elements by source then by index (multi-sequence selection).
+	 * Every source is searched for the element of that rank, whose rank is computed with a binary search in each source.
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {int} rank The number of elements before the splits
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {int[]} The split index of each source
+	 */
+	static <T> int[] split(T[][] sources, int rank, Comparator<? super T> comparator) {
+		int[] splits = new int[sources.length];
+		for (int source = 0; source < sources.length; source++){
+			T[] elements = sources[source];
+			int low = 0;
+			int high = elements.length;
+			while (low < high){
+				int middle = (low + high) >>> 1;
+				long middleRank = rank(sources, source, middle, comparator);
+				if (middleRank == rank){
+					for (int other = 0; other < sources.length; other++){
+						splits[other] = other == source ? middle : bound(sources[other], elements[middle], other < source, comparator);
+					}
+					return splits;
+				}
+				if (middleRank < rank){
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+		}
+		for (int source = 0; source < sources.length; source++){
+			splits[source] = sources[source].length;
+		}
+		return splits;
+	}
+
+	/**
+	 * Computes the number of merged elements that come before an element of a source
+	 * @param {Array} sources The sorted arrays of element, <T> The generic type of the element
+	 * @param {int} source The index of the source of the element
+	 * @param {int} index The index of the element in its source
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {long}
+	 */
+	private static <T> long rank(T[][] sources, int source, int index, Comparator<? super T> comparator) {
+		T element = sources[source][index];
+		long rank = index;
+		for (int other = 0; other < sources.length; other++){
+			if (other != source){
+				rank += bound(sources[other], element, other < source, comparator);
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Counts the elements of a sorted array that are less than a given element, or not greater than it when inclusive
+	 * @param {Array} elements The sorted array of element, <T> The generic type of the element
+	 * @param {T} element The element
+	 * @param {boolean} inclusive Whether the elements equal to the given one are counted
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {int}
+	 */
+	private static <T> int bound(T[] elements, T element, boolean inclusive, Comparator<? super T> comparator) {
+		int low = 0;
+		int high = elements.length;
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			int comparison = comparator.compare(elements[middle], element);
+			if (comparison < 0 || inclusive && comparison == 0){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Merges sorted iterators lazily with a tournament tree, keeping the current element of each iterator
+	 * @name MergedIterator
+	 * @class
+	 */
+	private static class MergedIterator<T> implements Iterator<T> {
+		private final List<Iterator<? extends T>> sources;
+		private final Object[] heads;
+		private final boolean[] exhausted;
+		private final LoserTree tree;
+
+		private MergedIterator(List<Iterator<? extends T>> sources, Comparator<? super T> comparator){
+			this.sources = sources;
+			this.heads = new Object[sources.size()];
+			this.exhausted = new boolean[sources.size()];
+			for (int source = 0; source < heads.length; source++){
+				advance(source);
+			}
+			if (heads.length == 0){
+				this.tree = null;
+				return;
+			}
+			this.tree = new LoserTree(heads.length){
+				@Override
+				protected boolean isExhausted(int source){
+					return exhausted[source];
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				protected int compareHeads(int firstSource, int secondSource){
+					return comparator.compare((T) heads[firstSource], (T) heads[secondSource]);
+				}
+			};
+			this.tree.build();
+		}
+
+		@Override
+		public boolean hasNext(){
+			return null != tree && !exhausted[tree.winner()];
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next(){
+			if (!hasNext()){
+				throw new NoSuchElementException();
+			}
+			int source = tree.winner();
+			T element = (T) heads[source];
+			advance(source);
+			tree.replay();
+			return element;
+		}
+
+		private void advance(int source){
+			Iterator<? extends T> iterator = sources.get(source);
+			if (iterator.hasNext()){
+				heads[source] = iterator.next();
+			} else {
+				heads[source] = null;
+				exhausted[source] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * This class that selects the next element among k sorted sources with a tournament tree of losers.
+ * Each inner node keeps the source that lost the match played there, so after the winning source
+ * advances only the matches on the path from its leaf to the root are replayed, with one comparison per level.
+ * Ties are won by the source with the lower index, which keeps merges of the sources stable.
+ * @author NubilaPardus
+ * @name LoserTree
+ * @class
+ */
+abstract class LoserTree {
+
+	private final int sourceCount;
+	private final int[] tree;
+
+	/**
+	 * Constructor
+	 * @param {int} sourceCount The number of sources, at least one
+	 */
+	protected LoserTree(int sourceCount){
+		if (sourceCount < 1){
+			throw new IllegalArgumentException("There must be at least one source, got " + sourceCount);
+		}
+		this.sourceCount = sourceCount;
+		this.tree = new int[sourceCount];
+	}
+
+	/**
+	 * Whether a source has no more elements
+	 * @param {int} source The index of the source
+	 * @return {boolean}
+	 */
+	protected abstract boolean isExhausted(int source);
+
+	/**
+	 * Compares the current elements of two sources that are not exhausted
+	 * @param {int} firstSource
+	 * @param {int} secondSource
+	 * @return {int} Returns a negative integer, zero, or a positive integer as the first element is less than, equal to, or greater than the second one.
+	 */
+	protected abstract int compareHeads(int firstSource, int secondSource);
+
+	/**
+	 * Plays all the matches, once every source is positioned on its first element
+	 */
+	void build(){
+		int[] winners = new int[2 * sourceCount];
+		for (int source = 0; source < sourceCount; source++){
+			winners[sourceCount + source] = source;
+		}
+		for (int node = sourceCount - 1; node >= 1; node--){
+			int first = winners[2 * node];
+			int second = winners[2 * node + 1];
+			if (before(first, second)){
+				winners[node] = first;
+				tree[node] = second;
+			} else {
+				winners[node] = second;
+				tree[node] = first;
+			}
+		}
+		tree[0] = sourceCount == 1 ? 0 : winners[1];
+	}
+
+	/**
+	 * Provides the source whose current element comes next, which is exhausted only when all sources are
+	 * @return {int} The index of the source
+	 */
+	int winner(){
+		return tree[0];
+	}
+
+	/**
+	 * Replays the matches of the winning source, after it has moved to its next element or been exhausted
+	 */
+	void replay(){
+		int winner = tree[0];
+		for (int node = (winner + sourceCount) >> 1; node >= 1; node >>= 1){
+			if (before(tree[node], winner)){
+				int loser = winner;
+				winner = tree[node];
+				tree[node] = loser;
+			}
+		}
+		tree[0] = winner;
+	}
+
+	/**
+	 * Whether the current element of a source comes before the one of another source
+	 * @param {int} firstSource
+	 * @param {int} secondSource
+	 * @return {boolean}
+	 */
+	private boolean before(int firstSource, int secondSource){
+		if (isExhausted(firstSource)){
+			return false;
+		}
+		if (isExhausted(secondSource)){
+			return true;
+		}
+		int comparison = compareHeads(firstSource, secondSource);
+		return comparison < 0 || comparison == 0 && firstSource < secondSource;
+	}
+}
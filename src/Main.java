@@ -1,11 +1,22 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ExecutionException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * This class that contains the main method for this project
- * 
+ * This class that contains the main method for this project, a benchmark of the sorters against the JDK sorts.
+ * Every measured sort gets a fresh copy of the same input, runs after a number of warmup sorts, and is reported
+ * as the median of repeated iterations together with the bytes it allocated on all threads.
+ * The benchmark is configured with key=value arguments, lists are separated by commas:
+ * sizes, threads, granularity (0 picks each sorter's default, the executor sorter reports and raises a granularity below its minimum), types (integer, int, long, double),
+ * distributions (random, sorted, reversed, fewunique, organpipe),
+ * sorters (sequential, forkjoin, executor, radix, bottomup, arrays, parallelarrays), warmup, iterations and seed.
+ *
  * @author NubilaPardus
  * @name Main
  * @class
@@ -15,85 +26,380 @@ public class Main {
 	/**
 	 * The main method
 	 */
-	public static void main(String[] args) {
-		Integer initialIntegerArray[] = randomArray(2000);
-		//System.out.println("Initial Integer Array (lenght: "+ initialIntegerArray.length +"): " + Arrays.toString(initialIntegerArray));
-		sequentialMergeSortIntegerTest(initialIntegerArray);
-		forkJoinMergeSortIntegerTest(initialIntegerArray);
-		executorsMergeSortIntegerTest(initialIntegerArray);
+	public static void main(String[] args) throws Exception {
+		Options options = new Options(args);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		int executorGranularity = options.granularity == 0 ? ParallelMergeSort.MIN_GRANULARITY : options.granularity;
+		if (executorGranularity < ParallelMergeSort.MIN_GRANULARITY) {
+			System.err.println("Granularity " + options.granularity + " is below the executor sorter's minimum, it runs with "
+					+ ParallelMergeSort.MIN_GRANULARITY + " instead");
+			executorGranularity = ParallelMergeSort.MIN_GRANULARITY;
+		}
+		System.out.println("sorter,type,distribution,size,threads,median_ms,min_ms,max_ms,allocated_bytes");
 
-		System.exit(0);
-	} 
+		for (int threadCount : options.threads) {
+			ForkJoinPool forkJoinPool = new ForkJoinPool(threadCount);
+			ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+			try {
+				ForkJoinMergeSort forkJoinSorter = options.granularity == 0
+						? new ForkJoinMergeSort(forkJoinPool)
+						: new ForkJoinMergeSort(forkJoinPool, options.granularity);
+				ParallelMergeSort executorSorter = new ParallelMergeSort(executor, executorGranularity);
+
+				for (int size : options.sizes) {
+					for (String distribution : options.distributions) {
+						int[] values = generate(distribution, size, new Random(options.seed));
+						for (String type : options.types) {
+							Object input = convert(values, type);
+							for (String sorter : options.sorters) {
+								Result result = measure(options, threads, input, array -> sort(sorter, array, forkJoinSorter, executorSorter));
+								System.out.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%.3f,%.3f,%.3f,%d",
+										sorter, type, distribution, size, threadCount,
+										result.medianNanos / 1e6, result.minNanos / 1e6, result.maxNanos / 1e6, result.allocatedBytes));
+							}
+						}
+					}
+				}
+			} finally {
+				forkJoinPool.shutdown();
+				executor.shutdown();
+			}
+		}
+	}
 
 	/**
-	 * Provides random integer Array according to size variable
+	 * Sorts a copy of the input the configured number of times after the warmup sorts,
+	 * and checks that the last copy is sorted
+	 * @param {Options} options
+	 * @param {ThreadMXBean} threads The bean that reports the bytes allocated by each thread
+	 * @param {Object} input The array to be sorted, which is never modified
+	 * @param {SortAction} action The sort being measured
+	 * @returns {Result}
+	 */
+	private static Result measure(Options options, com.sun.management.ThreadMXBean threads, Object input, SortAction action) throws Exception {
+		for (int i = 0; i < options.warmup; i++) {
+			action.sort(copy(input));
+		}
+		long[] nanos = new long[options.iterations];
+		long[] allocated = new long[options.iterations];
+		Object array = null;
+		for (int i = 0; i < options.iterations; i++) {
+			array = copy(input);
+			long allocatedBefore = allocatedBytes(threads);
+			long startTime = System.nanoTime();
+			action.sort(array);
+			nanos[i] = System.nanoTime() - startTime;
+			allocated[i] = allocatedBytes(threads) - allocatedBefore;
+		}
+		if (null != array && !isSorted(array)) {
+			throw new IllegalStateException("The benchmarked sort did not sort its input");
+		}
+		Arrays.sort(nanos);
+		Arrays.sort(allocated);
+		return new Result(nanos[nanos.length / 2], nanos[0], nanos[nanos.length - 1], allocated[allocated.length / 2]);
+	}
+
+	/**
+	 * Sums the bytes allocated so far by all live threads, which includes the workers of the pools
+	 * @param {ThreadMXBean} threads
+	 * @returns {long}
+	 */
+	private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+		long total = 0;
+		for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (allocated > 0) {
+				total += allocated;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Sorts an array with one of the benchmarked sorters
+	 * @param {String} sorter The name of the sorter
+	 * @param {Object} array An Integer[], int[], long[] or double[] array
+	 * @param {ForkJoinMergeSort} forkJoinSorter
+	 * @param {ParallelMergeSort} executorSorter
+	 */
+	private static void sort(String sorter, Object array, ForkJoinMergeSort forkJoinSorter, ParallelMergeSort executorSorter) throws Exception {
+		switch (sorter) {
+			case "sequential":
+				if (array instanceof Integer[]) {
+					MergeSort.sort((Integer[]) array, Integer.class);
+				} else if (array instanceof int[]) {
+					MergeSort.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					MergeSort.sort((long[]) array);
+				} else {
+					MergeSort.sort((double[]) array);
+				}
+				break;
+			case "forkjoin":
+				if (array instanceof Integer[]) {
+					forkJoinSorter.sort((Integer[]) array, Integer.class);
+				} else if (array instanceof int[]) {
+					forkJoinSorter.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					forkJoinSorter.sort((long[]) array);
+				} else {
+					forkJoinSorter.sort((double[]) array);
+				}
+				break;
+			case "executor":
+				if (array instanceof Integer[]) {
+					executorSorter.sort((Integer[]) array, Integer.class);
+				} else if (array instanceof int[]) {
+					executorSorter.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					executorSorter.sort((long[]) array);
+				} else {
+					executorSorter.sort((double[]) array);
+				}
+				break;
+			case "radix":
+				if (array instanceof Integer[]) {
+					RadixSort.sortByInt((Integer[]) array, Integer::intValue);
+				} else if (array instanceof int[]) {
+					RadixSort.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					RadixSort.sort((long[]) array);
+				} else {
+					RadixSort.sort((double[]) array);
+				}
+				break;
+			case "bottomup":
+				if (array instanceof int[]) {
+					BottomUpMergeSort.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					BottomUpMergeSort.sort((long[]) array);
+				} else {
+					throw new IllegalArgumentException("The bottomup sorter sorts int and long arrays only");
+				}
+				break;
+			case "arrays":
+				if (array instanceof Integer[]) {
+					Arrays.sort((Integer[]) array);
+				} else if (array instanceof int[]) {
+					Arrays.sort((int[]) array);
+				} else if (array instanceof long[]) {
+					Arrays.sort((long[]) array);
+				} else {
+					Arrays.sort((double[]) array);
+				}
+				break;
+			case "parallelarrays":
+				if (array instanceof Integer[]) {
+					Arrays.parallelSort((Integer[]) array);
+				} else if (array instanceof int[]) {
+					Arrays.parallelSort((int[]) array);
+				} else if (array instanceof long[]) {
+					Arrays.parallelSort((long[]) array);
+				} else {
+					Arrays.parallelSort((double[]) array);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown sorter " + sorter);
+		}
+	}
+
+	/**
+	 * Provides the values of an input distribution
+	 * @param {String} distribution The name of the distribution
 	 * @param {int} size
-	 * @returns {Integer[]}
+	 * @param {Random} random
+	 * @returns {int[]}
 	 */
-	private static Integer[] randomArray(int size) {
-		Integer[] retVal = new Integer[size];
-		for (int i = 0; i < size; i++){
-			retVal[i] = (int)(Math.random() * Integer.MAX_VALUE);
+	private static int[] generate(String distribution, int size, Random random) {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			switch (distribution) {
+				case "random":
+					values[i] = random.nextInt(Integer.MAX_VALUE);
+					break;
+				case "sorted":
+					values[i] = i;
+					break;
+				case "reversed":
+					values[i] = size - i;
+					break;
+				case "fewunique":
+					values[i] = random.nextInt(16);
+					break;
+				case "organpipe":
+					values[i] = Math.min(i, size - i);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown distribution " + distribution);
+			}
 		}
-		return retVal;
+		return values;
 	}
 
 	/**
-	 * Run method of sequential merge sort and print memory usage and total time 
-	 * @param {Integer[]} initialArray
+	 * Converts the values of a distribution to an array of an element type
+	 * @param {int[]} values
+	 * @param {String} type The name of the element type
+	 * @returns {Object}
 	 */
-	public static void sequentialMergeSortIntegerTest(Integer[] initialArray) {
-		long startTime = System.nanoTime();
-		Runtime runtime = Runtime.getRuntime();
+	private static Object convert(int[] values, String type) {
+		switch (type) {
+			case "integer":
+				return Arrays.stream(values).boxed().toArray(Integer[]::new);
+			case "int":
+				return values.clone();
+			case "long":
+				return Arrays.stream(values).asLongStream().toArray();
+			case "double":
+				return Arrays.stream(values).asDoubleStream().toArray();
+			default:
+				throw new IllegalArgumentException("Unknown element type " + type);
+		}
+	}
 
-		Integer sortedArray[] = MergeSort.sort(initialArray, Integer.class);
+	private static Object copy(Object array) {
+		if (array instanceof Integer[]) {
+			return ((Integer[]) array).clone();
+		} else if (array instanceof int[]) {
+			return ((int[]) array).clone();
+		} else if (array instanceof long[]) {
+			return ((long[]) array).clone();
+		}
+		return ((double[]) array).clone();
+	}
 
-		System.out.println("\n -- Sequential version of Merge Sort for Integer Array");
-		//System.out.println("Final State: " + Arrays.toString(sortedArray));
-		System.out.println("Memory Usage: " + ((runtime.totalMemory() - runtime.freeMemory())/1024) +"kb"); 
-		System.out.println("Total Time: "+ (System.nanoTime() - startTime) + "ns");
+	private static boolean isSorted(Object array) {
+		if (array instanceof Integer[]) {
+			Integer[] values = (Integer[]) array;
+			for (int i = 1; i < values.length; i++) {
+				if (values[i - 1] > values[i]) {
+					return false;
+				}
+			}
+		} else if (array instanceof int[]) {
+			int[] values = (int[]) array;
+			for (int i = 1; i < values.length; i++) {
+				if (values[i - 1] > values[i]) {
+					return false;
+				}
+			}
+		} else if (array instanceof long[]) {
+			long[] values = (long[]) array;
+			for (int i = 1; i < values.length; i++) {
+				if (values[i - 1] > values[i]) {
+					return false;
+				}
+			}
+		} else {
+			double[] values = (double[]) array;
+			for (int i = 1; i < values.length; i++) {
+				if (values[i - 1] > values[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 
 	/**
-	 * Run method of parallel merge sort with using fork/join pool and print memory usage and total time 
-	 * @param {Integer[]} initialArray
+	 * A sort of one array, which may throw the checked exceptions of the executor sorter
+	 * @name SortAction
+	 * @interface
 	 */
-	public static void forkJoinMergeSortIntegerTest (Integer[] initialArray) {
-		long startTime = System.nanoTime();
-		Runtime runtime = Runtime.getRuntime();
+	@FunctionalInterface
+	private interface SortAction {
+		void sort(Object array) throws Exception;
+	}
 
-		ForkJoinMergeSort sorter = new ForkJoinMergeSort(new ForkJoinPool(runtime.availableProcessors()));
-		Integer sortedArray[] = sorter.sort(initialArray, Integer.class);
+	/**
+	 * The timings and allocation of the measured iterations of a sort
+	 * @name Result
+	 * @class
+	 */
+	private static class Result {
+		private final long medianNanos;
+		private final long minNanos;
+		private final long maxNanos;
+		private final long allocatedBytes;
 
-		System.out.println("\n -- Parallel version (using a fork/join pool) of Merge Sort for Integer Array");
-		//System.out.println("Final State: " + Arrays.toString(sortedArray));
-		System.out.println("Memory Usage: " + ((runtime.totalMemory() - runtime.freeMemory())/1024) +"kb"); 
-		System.out.println("Total Time: "+ (System.nanoTime() - startTime) + "ns");
+		private Result(long medianNanos, long minNanos, long maxNanos, long allocatedBytes) {
+			this.medianNanos = medianNanos;
+			this.minNanos = minNanos;
+			this.maxNanos = maxNanos;
+			this.allocatedBytes = allocatedBytes;
+		}
 	}
 
 	/**
-	 * Run method of parallel merge sort with using executer service and print memory usage and total time 
-	 * @param {Integer[]} initialArray
+	 * The benchmark parameters, parsed from key=value arguments
+	 * @name Options
+	 * @class
 	 */
-	public static void executorsMergeSortIntegerTest(Integer[] initialArray) {
-		long startTime = System.nanoTime();
-		Runtime runtime = Runtime.getRuntime();
-
-		ParallelMergeSort sorter = new ParallelMergeSort(Executors.newFixedThreadPool(runtime.availableProcessors()));
-		Integer sortedArray[] = null;
-		try {
-			sortedArray = sorter.sort(initialArray, Integer.class);
-			
-			System.out.println("\n -- Parallel version (using executor service) of Merge Sort for Integer Array");
-			//System.out.println("Final State: " + Arrays.toString(sortedArray));
-			System.out.println("Memory Usage: " + ((runtime.totalMemory() - runtime.freeMemory())/1024) +"kb"); 
-			System.out.println("Total Time: "+ (System.nanoTime() - startTime) + "ns");
-		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (ExecutionException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+	private static class Options {
+		private int[] sizes = {2000, 100000, 1000000};
+		private int[] threads = {Runtime.getRuntime().availableProcessors()};
+		private int granularity = 0;
+		private List<String> types = List.of("integer", "int", "long", "double");
+		private List<String> distributions = List.of("random", "sorted", "reversed", "fewunique", "organpipe");
+		private List<String> sorters = List.of("sequential", "forkjoin", "executor", "radix", "arrays", "parallelarrays");
+		private int warmup = 5;
+		private int iterations = 10;
+		private long seed = 42;
+
+		private Options(String[] args) {
+			for (String arg : args) {
+				int separator = arg.indexOf('=');
+				if (separator < 0) {
+					throw new IllegalArgumentException("Arguments must be key=value pairs, got " + arg);
+				}
+				String value = arg.substring(separator + 1);
+				switch (arg.substring(0, separator)) {
+					case "sizes":
+						sizes = integers(value);
+						break;
+					case "threads":
+						threads = integers(value);
+						break;
+					case "granularity":
+						granularity = Integer.parseInt(value);
+						break;
+					case "types":
+						types = names(value);
+						break;
+					case "distributions":
+						distributions = names(value);
+						break;
+					case "sorters":
+						sorters = names(value);
+						break;
+					case "warmup":
+						warmup = Integer.parseInt(value);
+						break;
+					case "iterations":
+						iterations = Integer.parseInt(value);
+						break;
+					case "seed":
+						seed = Long.parseLong(value);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown argument " + arg);
+				}
+			}
+			if (iterations < 1 || warmup < 0) {
+				throw new IllegalArgumentException("There must be at least one iteration and no negative warmup");
+			}
+		}
+
+		private static int[] integers(String value) {
+			return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+		}
+
+		private static List<String> names(String value) {
+			List<String> names = new ArrayList<>();
+			for (String name : value.split(",")) {
+				names.add(name.trim().toLowerCase(Locale.ROOT));
+			}
+			return names;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,1027 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class that binds an array of a given element type to the sort and merge operations
+ * of Merge Sort, so the parallel versions can share one task structure for object and primitive arrays.
+ * @author NubilaPardus
+ * @name MergeKernel
+ * @class
+ */
+abstract class MergeKernel {
+
+	/**
+	 * Sorts the portion of the bound array between the given indexes
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	abstract void sort(int startIndex, int endIndex);
+
+	/**
+	 * Merges two adjacent sorted runs of the bound array
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	abstract void merge(int leftIndex, int leftLength, int rightIndex, int rightLength);
+
+	/**
+	 * Compares two elements of the bound array
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 * @return {int} Returns a negative integer, zero, or a positive integer as the first element is less than, equal to, or greater than the second one.
+	 */
+	abstract int compare(int firstIndex, int secondIndex);
+
+	/**
+	 * Swaps two elements of the bound array
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	abstract void swap(int firstIndex, int secondIndex);
+
+	/**
+	 * Moves an element of the bound array to a lower index, shifting the elements in between up by one
+	 * @param {int} fromIndex The index of the element to be moved
+	 * @param {int} toIndex The index the element is moved to
+	 */
+	abstract void insert(int fromIndex, int toIndex);
+
+	/**
+	 * Copies a portion of the bound array to the same indexes of the scratch space
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	abstract void copyToScratch(int startIndex, int endIndex);
+
+	/**
+	 * Merges two sorted runs of the scratch space into the bound array, taking the left element on ties
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} leftEnd The end index of the left run, exclusively.
+	 * @param {int} rightIndex The start index of the right run, inclusively.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 * @param {int} destinationIndex The index of the bound array the merged elements are written from
+	 */
+	abstract void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex);
+
+	/**
+	 * Searches a sorted run of the scratch space by binary search for the position of an element of the scratch space
+	 * @param {int} keyIndex The scratch index of the searched element
+	 * @param {int} startIndex The start index of the run, inclusively.
+	 * @param {int} endIndex The end index of the run, exclusively.
+	 * @param {boolean} inclusive Whether the elements equal to the searched one are skipped
+	 * @return {int} The index of the first element greater than (or equal to, if not inclusive) the searched one
+	 */
+	abstract int search(int keyIndex, int startIndex, int endIndex, boolean inclusive);
+
+	/**
+	 * The length of the merges below which the parallel versions merge on a single thread
+	 */
+	static final int PARALLEL_MERGE_THRESHOLD = 1 << 13;
+
+	/**
+	 * The minimum length of the runs below which natural runs are extended by binary insertion sort
+	 */
+	static final int MIN_RUN = 32;
+
+	/**
+	 * Sorts the portion of the bound array between the given indexes by merging its natural runs.
+	 * Ascending and strictly descending runs are detected (the latter are reversed in place), short runs are
+	 * extended with binary insertion sort, and the runs are merged following the balanced run stack of TimSort.
+	 * An already ordered portion is therefore sorted with a single pass.
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @return {int} The number of runs that were merged
+	 */
+	int sortRuns(int startIndex, int endIndex){
+		int remaining = endIndex - startIndex;
+		if (remaining < 2){
+			return remaining;
+		}
+		int minRun = minRunLength(remaining);
+		RunStack runs = new RunStack();
+		int runCount = 0;
+		int low = startIndex;
+		while (remaining > 0){
+			int runLength = countRunAndMakeAscending(low, endIndex);
+			if (runLength < minRun){
+				int forced = Math.min(remaining, minRun);
+				binaryInsertionSort(low, low + forced, low + runLength);
+				runLength = forced;
+			}
+			runs.push(low, runLength);
+			runCount++;
+			runs.collapse(this);
+			low += runLength;
+			remaining -= runLength;
+		}
+		runs.forceCollapse(this);
+		return runCount;
+	}
+
+	/**
+	 * Finds the length of the run starting at a given index and reverses it if it is strictly descending
+	 * @param {int} startIndex The start index of the run
+	 * @param {int} endIndex The end index of the portion, exclusively.
+	 * @return {int} The length of the run
+	 */
+	private int countRunAndMakeAscending(int startIndex, int endIndex){
+		int runEnd = startIndex + 1;
+		if (runEnd == endIndex){
+			return 1;
+		}
+		if (compare(runEnd++, startIndex) < 0){
+			while (runEnd < endIndex && compare(runEnd, runEnd - 1) < 0){
+				runEnd++;
+			}
+			for (int low = startIndex, high = runEnd - 1; low < high; low++, high--){
+				swap(low, high);
+			}
+		} else {
+			while (runEnd < endIndex && compare(runEnd, runEnd - 1) >= 0){
+				runEnd++;
+			}
+		}
+		return runEnd - startIndex;
+	}
+
+	/**
+	 * Sorts a portion of the bound array whose beginning is already sorted, inserting every other element
+	 * after the equal elements found by binary search
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {int} sortedEndIndex The end index of the sorted beginning, exclusively.
+	 */
+	private void binaryInsertionSort(int startIndex, int endIndex, int sortedEndIndex){
+		for (int index = sortedEndIndex; index < endIndex; index++){
+			int left = startIndex;
+			int right = index;
+			while (left < right){
+				int middle = (left + right) >>> 1;
+				if (compare(index, middle) < 0){
+					right = middle;
+				} else {
+					left = middle + 1;
+				}
+			}
+			if (left < index){
+				insert(index, left);
+			}
+		}
+	}
+
+	/**
+	 * Computes the minimum run length so that the number of runs is a power of two, or slightly less
+	 * @param {int} length The length of the portion to be sorted
+	 * @return {int}
+	 */
+	private static int minRunLength(int length){
+		int lowBits = 0;
+		while (length >= 2 * MIN_RUN){
+			lowBits |= (length & 1);
+			length >>= 1;
+		}
+		return length + lowBits;
+	}
+
+	/**
+	 * The stack of pending runs, merged so that each run is longer than the sum of the two runs above it
+	 * and longer than the run above it, which keeps the merges balanced.
+	 * @name RunStack
+	 * @class
+	 */
+	private static class RunStack {
+		private final int[] runBase = new int[85];
+		private final int[] runLength = new int[85];
+		private int size;
+
+		private void push(int base, int length){
+			runBase[size] = base;
+			runLength[size++] = length;
+		}
+
+		private void collapse(MergeKernel kernel){
+			while (size > 1){
+				int n = size - 2;
+				if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+						|| n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n]){
+					if (runLength[n - 1] < runLength[n + 1]){
+						n--;
+					}
+				} else if (runLength[n] > runLength[n + 1]){
+					break;
+				}
+				mergeAt(kernel, n);
+			}
+		}
+
+		private void forceCollapse(MergeKernel kernel){
+			while (size > 1){
+				int n = size - 2;
+				if (n > 0 && runLength[n - 1] < runLength[n + 1]){
+					n--;
+				}
+				mergeAt(kernel, n);
+			}
+		}
+
+		private void mergeAt(MergeKernel kernel, int n){
+			kernel.merge(runBase[n], runLength[n], runBase[n + 1], runLength[n + 1]);
+			runLength[n] += runLength[n + 1];
+			if (n == size - 3){
+				runBase[n + 1] = runBase[n + 2];
+				runLength[n + 1] = runLength[n + 2];
+			}
+			size--;
+		}
+	}
+
+	static <T> MergeKernel of(T[] inputArr, Comparator<? super T> comparator, Object[] scratch){
+		return new ObjectKernel<>(inputArr, comparator, scratch);
+	}
+
+	static MergeKernel of(int[] inputArr, int[] scratch){
+		return new IntKernel(inputArr, scratch);
+	}
+
+	static MergeKernel of(long[] inputArr, long[] scratch){
+		return new LongKernel(inputArr, scratch);
+	}
+
+	static MergeKernel of(float[] inputArr, float[] scratch){
+		return new FloatKernel(inputArr, scratch);
+	}
+
+	static MergeKernel of(double[] inputArr, double[] scratch){
+		return new DoubleKernel(inputArr, scratch);
+	}
+
+	static MergeKernel of(long[] keys, int[] indexes, long[] keyScratch, int[] indexScratch){
+		return new KeyedKernel(keys, indexes, keyScratch, indexScratch);
+	}
+
+	static <T> MergeKernel of(T[] elementArray, Comparator<? super T> comparator, int[] indexes, int[] scratch){
+		return new IndexKernel<>(elementArray, comparator, indexes, scratch);
+	}
+
+	static MergeKernel of(ByteBuffer records, ByteBuffer scratch, RecordLayout layout){
+		return new RecordKernel(records, scratch, layout);
+	}
+
+	static MergeKernel of(Object[] keys, StringMergeSort.KeyAccess access, int[] lcps, Object[] scratch, int[] lcpScratch){
+		return new LcpKernel(keys, access, lcps, scratch, lcpScratch);
+	}
+
+	/**
+	 * Kernel for arrays of elements ordered by a comparator
+	 * @name ObjectKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	@SuppressWarnings("unchecked")
+	private static class ObjectKernel<T> extends MergeKernel {
+		private final T[] inputArr;
+		private final Comparator<? super T> comparator;
+		private final Object[] scratch;
+
+		private ObjectKernel(T[] inputArr, Comparator<? super T> comparator, Object[] scratch){
+			this.inputArr = inputArr;
+			this.comparator = comparator;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			MergeSort.sort(inputArr, comparator, scratch, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(inputArr, comparator, leftIndex, leftLength, rightIndex, rightLength, scratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return comparator.compare(inputArr[firstIndex], inputArr[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			T tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			T tmp = inputArr[fromIndex];
+			System.arraycopy(inputArr, toIndex, inputArr, toIndex + 1, fromIndex - toIndex);
+			inputArr[toIndex] = tmp;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(inputArr, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				inputArr[index++] = comparator.compare((T) scratch[rightIndex], (T) scratch[leftIndex]) < 0 ? (T) scratch[rightIndex++] : (T) scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, inputArr, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, inputArr, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			T key = (T) scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (comparator.compare((T) scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for int arrays
+	 * @name IntKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class IntKernel extends MergeKernel {
+		private final int[] inputArr;
+		private final int[] scratch;
+
+		private IntKernel(int[] inputArr, int[] scratch){
+			this.inputArr = inputArr;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			Arrays.sort(inputArr, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Integer.compare(inputArr[firstIndex], inputArr[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			int tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			int tmp = inputArr[fromIndex];
+			System.arraycopy(inputArr, toIndex, inputArr, toIndex + 1, fromIndex - toIndex);
+			inputArr[toIndex] = tmp;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(inputArr, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				inputArr[index++] = Integer.compare(scratch[rightIndex], scratch[leftIndex]) < 0 ? scratch[rightIndex++] : scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, inputArr, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, inputArr, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			int key = scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (Integer.compare(scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for long arrays
+	 * @name LongKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class LongKernel extends MergeKernel {
+		private final long[] inputArr;
+		private final long[] scratch;
+
+		private LongKernel(long[] inputArr, long[] scratch){
+			this.inputArr = inputArr;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			Arrays.sort(inputArr, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Long.compare(inputArr[firstIndex], inputArr[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			long tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			long tmp = inputArr[fromIndex];
+			System.arraycopy(inputArr, toIndex, inputArr, toIndex + 1, fromIndex - toIndex);
+			inputArr[toIndex] = tmp;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(inputArr, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				inputArr[index++] = Long.compare(scratch[rightIndex], scratch[leftIndex]) < 0 ? scratch[rightIndex++] : scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, inputArr, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, inputArr, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			long key = scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (Long.compare(scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for float arrays
+	 * @name FloatKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class FloatKernel extends MergeKernel {
+		private final float[] inputArr;
+		private final float[] scratch;
+
+		private FloatKernel(float[] inputArr, float[] scratch){
+			this.inputArr = inputArr;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			Arrays.sort(inputArr, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Float.compare(inputArr[firstIndex], inputArr[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			float tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			float tmp = inputArr[fromIndex];
+			System.arraycopy(inputArr, toIndex, inputArr, toIndex + 1, fromIndex - toIndex);
+			inputArr[toIndex] = tmp;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(inputArr, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				inputArr[index++] = Float.compare(scratch[rightIndex], scratch[leftIndex]) < 0 ? scratch[rightIndex++] : scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, inputArr, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, inputArr, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			float key = scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (Float.compare(scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for double arrays
+	 * @name DoubleKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class DoubleKernel extends MergeKernel {
+		private final double[] inputArr;
+		private final double[] scratch;
+
+		private DoubleKernel(double[] inputArr, double[] scratch){
+			this.inputArr = inputArr;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			Arrays.sort(inputArr, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Double.compare(inputArr[firstIndex], inputArr[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			double tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			double tmp = inputArr[fromIndex];
+			System.arraycopy(inputArr, toIndex, inputArr, toIndex + 1, fromIndex - toIndex);
+			inputArr[toIndex] = tmp;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(inputArr, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				inputArr[index++] = Double.compare(scratch[rightIndex], scratch[leftIndex]) < 0 ? scratch[rightIndex++] : scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, inputArr, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, inputArr, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			double key = scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (Double.compare(scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for arrays of long keys that move an array of indexes along with them
+	 * @name KeyedKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class KeyedKernel extends MergeKernel {
+		private final long[] keys;
+		private final int[] indexes;
+		private final long[] keyScratch;
+		private final int[] indexScratch;
+
+		private KeyedKernel(long[] keys, int[] indexes, long[] keyScratch, int[] indexScratch){
+			this.keys = keys;
+			this.indexes = indexes;
+			this.keyScratch = keyScratch;
+			this.indexScratch = indexScratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			MergeSort.sort(keys, indexes, keyScratch, indexScratch, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			MergeSort.merge(keys, indexes, leftIndex, leftLength, rightIndex, rightLength, keyScratch, indexScratch);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Long.compare(keys[firstIndex], keys[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			long key = keys[firstIndex];
+			keys[firstIndex] = keys[secondIndex];
+			keys[secondIndex] = key;
+			int index = indexes[firstIndex];
+			indexes[firstIndex] = indexes[secondIndex];
+			indexes[secondIndex] = index;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			long key = keys[fromIndex];
+			int index = indexes[fromIndex];
+			System.arraycopy(keys, toIndex, keys, toIndex + 1, fromIndex - toIndex);
+			System.arraycopy(indexes, toIndex, indexes, toIndex + 1, fromIndex - toIndex);
+			keys[toIndex] = key;
+			indexes[toIndex] = index;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(keys, startIndex, keyScratch, startIndex, endIndex - startIndex);
+			System.arraycopy(indexes, startIndex, indexScratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				if (keyScratch[rightIndex] < keyScratch[leftIndex]){
+					keys[index] = keyScratch[rightIndex];
+					indexes[index++] = indexScratch[rightIndex++];
+				} else {
+					keys[index] = keyScratch[leftIndex];
+					indexes[index++] = indexScratch[leftIndex++];
+				}
+			}
+			System.arraycopy(keyScratch, leftIndex, keys, index, leftEnd - leftIndex);
+			System.arraycopy(indexScratch, leftIndex, indexes, index, leftEnd - leftIndex);
+			index += leftEnd - leftIndex;
+			System.arraycopy(keyScratch, rightIndex, keys, index, rightEnd - rightIndex);
+			System.arraycopy(indexScratch, rightIndex, indexes, index, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			long key = keyScratch[keyIndex];
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (keyScratch[middle] < key || inclusive && keyScratch[middle] == key){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for arrays of indexes ordered by a comparator over the elements they point to, the elements never moving
+	 * @name IndexKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class IndexKernel<T> extends MergeKernel {
+		private final T[] elementArray;
+		private final Comparator<? super T> comparator;
+		private final int[] indexes;
+		private final int[] scratch;
+
+		private IndexKernel(T[] elementArray, Comparator<? super T> comparator, int[] indexes, int[] scratch){
+			this.elementArray = elementArray;
+			this.comparator = comparator;
+			this.indexes = indexes;
+			this.scratch = scratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			sortRuns(startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			if (leftLength == 0 || rightLength == 0 || compare(rightIndex - 1, rightIndex) <= 0){
+				return;
+			}
+			copyToScratch(leftIndex, rightIndex + rightLength);
+			mergeFromScratch(leftIndex, rightIndex, rightIndex, rightIndex + rightLength, leftIndex);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return comparator.compare(elementArray[indexes[firstIndex]], elementArray[indexes[secondIndex]]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			int index = indexes[firstIndex];
+			indexes[firstIndex] = indexes[secondIndex];
+			indexes[secondIndex] = index;
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			int index = indexes[fromIndex];
+			System.arraycopy(indexes, toIndex, indexes, toIndex + 1, fromIndex - toIndex);
+			indexes[toIndex] = index;
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(indexes, startIndex, scratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			SortMetrics.moved(leftEnd - leftIndex + rightEnd - rightIndex);
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				indexes[index++] = comparator.compare(elementArray[scratch[rightIndex]], elementArray[scratch[leftIndex]]) < 0 ? scratch[rightIndex++] : scratch[leftIndex++];
+			}
+			System.arraycopy(scratch, leftIndex, indexes, index, leftEnd - leftIndex);
+			System.arraycopy(scratch, rightIndex, indexes, index + leftEnd - leftIndex, rightEnd - rightIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			T key = elementArray[scratch[keyIndex]];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (comparator.compare(elementArray[scratch[middle]], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for fixed-width records held in a buffer, the indexes being record indexes
+	 * @name RecordKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class RecordKernel extends MergeKernel {
+		private final ByteBuffer records;
+		private final ByteBuffer scratch;
+		private final RecordLayout layout;
+
+		private RecordKernel(ByteBuffer records, ByteBuffer scratch, RecordLayout layout){
+			this.records = records;
+			this.scratch = scratch;
+			this.layout = layout;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			OffHeapSort.sort(records, scratch, layout, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			OffHeapSort.merge(records, scratch, layout, leftIndex, rightIndex, rightIndex + rightLength);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return Long.compare(OffHeapSort.key(records, layout, firstIndex), OffHeapSort.key(records, layout, secondIndex));
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			OffHeapSort.swap(records, scratch, layout, firstIndex, secondIndex);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			OffHeapSort.copy(records, fromIndex, scratch, fromIndex, 1, layout);
+			for (int index = fromIndex; index > toIndex; index--){
+				OffHeapSort.copy(records, index - 1, records, index, 1, layout);
+			}
+			OffHeapSort.copy(scratch, fromIndex, records, toIndex, 1, layout);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			OffHeapSort.copy(records, startIndex, scratch, startIndex, endIndex - startIndex, layout);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			int index = destinationIndex;
+			while (leftIndex < leftEnd && rightIndex < rightEnd){
+				if (OffHeapSort.key(scratch, layout, rightIndex) < OffHeapSort.key(scratch, layout, leftIndex)){
+					OffHeapSort.copy(scratch, rightIndex++, records, index++, 1, layout);
+				} else {
+					OffHeapSort.copy(scratch, leftIndex++, records, index++, 1, layout);
+				}
+			}
+			OffHeapSort.copy(scratch, leftIndex, records, index, leftEnd - leftIndex, layout);
+			OffHeapSort.copy(scratch, rightIndex, records, index + leftEnd - leftIndex, rightEnd - rightIndex, layout);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			long key = OffHeapSort.key(scratch, layout, keyIndex);
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				long middleKey = OffHeapSort.key(scratch, layout, middle);
+				if (middleKey < key || inclusive && middleKey == key){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+
+	/**
+	 * Kernel for arrays of strings or byte strings that carry the LCP of every key with the key before it through the merges
+	 * @name LcpKernel
+	 * @extends MergeKernel
+	 * @class
+	 */
+	private static class LcpKernel extends MergeKernel {
+		private final Object[] keys;
+		private final StringMergeSort.KeyAccess access;
+		private final int[] lcps;
+		private final Object[] scratch;
+		private final int[] lcpScratch;
+
+		private LcpKernel(Object[] keys, StringMergeSort.KeyAccess access, int[] lcps, Object[] scratch, int[] lcpScratch){
+			this.keys = keys;
+			this.access = access;
+			this.lcps = lcps;
+			this.scratch = scratch;
+			this.lcpScratch = lcpScratch;
+		}
+
+		@Override
+		void sort(int startIndex, int endIndex){
+			StringMergeSort.sort(keys, access, lcps, scratch, lcpScratch, startIndex, endIndex);
+		}
+
+		@Override
+		void merge(int leftIndex, int leftLength, int rightIndex, int rightLength){
+			StringMergeSort.merge(keys, access, lcps, scratch, lcpScratch, leftIndex, rightIndex, rightIndex + rightLength);
+		}
+
+		@Override
+		int compare(int firstIndex, int secondIndex){
+			return access.compare(keys[firstIndex], keys[secondIndex]);
+		}
+
+		@Override
+		void swap(int firstIndex, int secondIndex){
+			Object key = keys[firstIndex];
+			keys[firstIndex] = keys[secondIndex];
+			keys[secondIndex] = key;
+			invalidate(firstIndex, firstIndex + 2);
+			invalidate(secondIndex, secondIndex + 2);
+			SortMetrics.moved(2);
+		}
+
+		@Override
+		void insert(int fromIndex, int toIndex){
+			Object key = keys[fromIndex];
+			System.arraycopy(keys, toIndex, keys, toIndex + 1, fromIndex - toIndex);
+			keys[toIndex] = key;
+			invalidate(toIndex, fromIndex + 2);
+			SortMetrics.moved(fromIndex - toIndex + 1);
+		}
+
+		private void invalidate(int startIndex, int endIndex){
+			Arrays.fill(lcps, startIndex, Math.min(endIndex, keys.length), StringMergeSort.UNKNOWN_LCP);
+		}
+
+		@Override
+		void copyToScratch(int startIndex, int endIndex){
+			System.arraycopy(keys, startIndex, scratch, startIndex, endIndex - startIndex);
+			System.arraycopy(lcps, startIndex, lcpScratch, startIndex, endIndex - startIndex);
+			SortMetrics.moved(endIndex - startIndex);
+		}
+
+		@Override
+		void mergeFromScratch(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex){
+			StringMergeSort.merge(access, scratch, lcpScratch, leftIndex, leftEnd, scratch, lcpScratch, rightIndex, rightEnd, keys, lcps, destinationIndex);
+		}
+
+		@Override
+		int search(int keyIndex, int startIndex, int endIndex, boolean inclusive){
+			Object key = scratch[keyIndex];
+			int bound = inclusive ? 1 : 0;
+			while (startIndex < endIndex){
+				int middle = (startIndex + endIndex) >>> 1;
+				if (access.compare(scratch[middle], key) < bound){
+					startIndex = middle + 1;
+				} else {
+					endIndex = middle;
+				}
+			}
+			return startIndex;
+		}
+	}
+}
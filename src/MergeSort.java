@@ -1,10 +1,17 @@
 import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BinaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /** 
  *  This class that contains sequential version of Merge Sort.
  *  It simply divides the array to be sorted continuously by two elements until they reach the
  *  remaining pieces. Then they merge these pieces into themselves. In this respect, it’s
  *  based on the "divide and conquer" paradigm.
+ *  Every sort allocates a single scratch buffer up front (or borrows one from a {@link SortBuffer})
+ *  and reuses it for all merge steps.
  * 
  * @author NubilaPardus
  * @name MergeSort
@@ -12,157 +19,2651 @@ import java.lang.reflect.Array;
  */
 public class MergeSort {
 
+	/**
+	 * The natural ordering of comparable elements, rejecting null elements
+	 */
+	@SuppressWarnings("rawtypes")
+	static final Comparator<Comparable> NATURAL_ORDER = MergeSort::compare;
+
+	/**
+	 * The number of consecutive wins of one run after which a merge switches to galloping search
+	 */
+	static final int MIN_GALLOP = 7;
+
+	/**
+	 * The partial sorts sort the whole array when k is at least the array length divided by this ratio,
+	 * where a bounded heap is no faster than a merge sort
+	 */
+	static final int PREFIX_SORT_RATIO = 4;
+
 	/**
 	 * Perform an in-place merge and sort on a given array of element. 
 	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
 	 * @param {Class<>} elementClass The class of the element
 	 * @return {Array} The sorted array
 	 */
-	public static <T extends Comparable> T[] sort(T[] comparableElementArray, Class<T> elementClass) {
-		if (null == comparableElementArray){
+	public static <T extends Comparable> T[] sort(T[] comparableElementArray, Class<T> elementClass) {
+		return sort(comparableElementArray, elementClass, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, using the scratch space of a reusable buffer.
+	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
+	 * @param {Class<>} elementClass The class of the element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T extends Comparable> T[] sort(T[] comparableElementArray, Class<T> elementClass, SortBuffer buffer) {
+		return sort(comparableElementArray, NATURAL_ORDER, buffer);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sort(T[] elementArray, Comparator<? super T> comparator) {
+		return sort(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sort(T[] elementArray, Comparator<? super T> comparator, SortBuffer buffer) {
+		checkArguments(elementArray, comparator, buffer);
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		SortMetrics.CountingComparator<T> counter = SortMetrics.counting(comparator);
+		try {
+			sort(elementArray, null == counter ? comparator : counter, buffer.objects(elementArray.length), 0, elementArray.length);
+		} finally {
+			buffer.release(elementArray.length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", elementArray.length, sample, counter);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key.
+	 * The keys are extracted once and sorted together with the element indexes as packed long values,
+	 * then the elements are moved to their sorted positions in a single pass.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByInt(T[] elementArray, ToIntFunction<? super T> keyExtractor) {
+		return sortByInt(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByInt(T[] elementArray, ToIntFunction<? super T> keyExtractor, SortBuffer buffer) {
+		checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		try {
+			long[] packedKeys = packKeys(elementArray, keyExtractor, buffer.keys(length));
+			sort(packedKeys, buffer.longs(length), 0, length);
+			reorder(elementArray, packedKeys, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key.
+	 * The keys are extracted once into a primitive array and sorted together with the element indexes,
+	 * then the elements are moved to their sorted positions in a single pass.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByLong(T[] elementArray, ToLongFunction<? super T> keyExtractor) {
+		return sortByLong(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByLong(T[] elementArray, ToLongFunction<? super T> keyExtractor, SortBuffer buffer) {
+		checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		try {
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			extractKeys(elementArray, keyExtractor, keys, indexes);
+			sort(keys, indexes, buffer.longs(length), buffer.ints(length), 0, length);
+			reorder(elementArray, indexes, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a composite key.
+	 * The leading keys of every element are encoded once into a long prefix, the elements are sorted by prefix
+	 * and only the runs of equal prefixes are sorted again with the full comparison of the keys.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {CompositeKey<>} key The sequence of keys that determines the order of the elements
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByKeys(T[] elementArray, CompositeKey<T> key) {
+		return sortByKeys(elementArray, key, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a composite key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {CompositeKey<>} key The sequence of keys that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByKeys(T[] elementArray, CompositeKey<T> key, SortBuffer buffer) {
+		checkArguments(elementArray, key, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		try {
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			CompositeKey.Abbreviation<T> abbreviation = key.abbreviation(key.ranges(elementArray, 0, length));
+			extractKeys(elementArray, abbreviation, keys, indexes);
+			sort(keys, indexes, buffer.longs(length), buffer.ints(length), 0, length);
+			if (!abbreviation.isExact()){
+				sortTies(MergeKernel.of(elementArray, key, indexes, buffer.ints(length)), keys, 0, length, length);
+			}
+			reorder(elementArray, indexes, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Sorts the runs of equal prefix keys that start between the given indexes, a run that starts before them being left to its owner
+	 * @param {MergeKernel} kernel The kernel bound to the element indexes, which orders them by the full comparison of the keys
+	 * @param {long[]} keys The sorted prefix keys
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {int} length The number of keys
+	 */
+	static void sortTies(MergeKernel kernel, long[] keys, int startIndex, int endIndex, int length) {
+		int runStart = startIndex;
+		while (runStart > 0 && runStart < endIndex && keys[runStart - 1] == keys[runStart]){
+			runStart++;
+		}
+		while (runStart < endIndex){
+			int runEnd = runStart + 1;
+			while (runEnd < length && keys[runEnd] == keys[runStart]){
+				runEnd++;
+			}
+			if (runEnd - runStart > 1){
+				kernel.sort(runStart, runEnd);
+			}
+			runStart = runEnd;
+		}
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of element, ordered by a comparator.
+	 * The natural runs of the array are detected and merged, so already ordered or nearly ordered arrays,
+	 * or concatenations of ordered batches, are sorted in linear or close to linear time.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {int} The number of runs that were merged
+	 */
+	public static <T> int sortAdaptive(T[] elementArray, Comparator<? super T> comparator) {
+		return sortAdaptive(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of element, ordered by a comparator
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of runs that were merged
+	 */
+	public static <T> int sortAdaptive(T[] elementArray, Comparator<? super T> comparator, SortBuffer buffer) {
+		checkArguments(elementArray, comparator, buffer);
+		try {
+			return MergeKernel.of(elementArray, comparator, buffer.objects(elementArray.length)).sortRuns(0, elementArray.length);
+		} finally {
+			buffer.release(elementArray.length);
+		}
+	}
+
+	/**
+	 * Perform an in-place partial sort on a given array of element: the k smallest elements are moved in order
+	 * to the beginning of the array, and the other elements are left after them in no particular order.
+	 * The k smallest elements are selected with a bounded heap in O(n log k) time, equal elements keeping their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} k The number of smallest elements to be sorted, the whole array is sorted when it is not shorter
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The partially sorted array
+	 */
+	public static <T> T[] sortPrefix(T[] elementArray, int k, Comparator<? super T> comparator) {
+		checkPrefixArguments(elementArray, k, comparator);
+		int length = elementArray.length;
+		if (k >= length / PREFIX_SORT_RATIO){
+			return sort(elementArray, comparator);
+		}
+		Object[] heap = new Object[k];
+		int[] positions = new int[k];
+		selectSmallest(elementArray, 0, length, k, comparator, heap, positions);
+		placePrefix(elementArray, heap, positions, k);
+		return elementArray;
+	}
+
+	/**
+	 * Provides the k smallest elements of a given array of element in order, without modifying the array.
+	 * The elements are selected with a bounded heap in O(n log k) time, equal elements keeping their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} k The number of smallest elements, all of them are provided when the array is not longer
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} A new array of the min(k, n) smallest elements
+	 */
+	public static <T> T[] topK(T[] elementArray, int k, Comparator<? super T> comparator) {
+		checkPrefixArguments(elementArray, k, comparator);
+		int length = elementArray.length;
+		if (k >= length / PREFIX_SORT_RATIO){
+			return Arrays.copyOf(sort(elementArray.clone(), comparator), Math.min(k, length));
+		}
+		T[] smallest = Arrays.copyOf(elementArray, k);
+		selectSmallest(elementArray, 0, length, k, comparator, smallest, new int[k]);
+		return smallest;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that keeps a single element of every group of
+	 * equal elements, the first one in the array. Equal elements are collapsed as soon as a leaf sort or a merge meets them,
+	 * so the merges only move the distinct elements found so far.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @return {int} The number of distinct elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public static <T> int sortDistinct(T[] elementArray, Comparator<? super T> comparator) {
+		return sortDistinct(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that keeps a single element of every group of
+	 * equal elements, the first one in the array, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of distinct elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public static <T> int sortDistinct(T[] elementArray, Comparator<? super T> comparator, SortBuffer buffer) {
+		return sortReduce(elementArray, comparator, keepFirst(), buffer);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that replaces every group of equal elements by
+	 * their combination. Equal elements are combined as soon as a leaf sort or a merge meets them, so the merges only move
+	 * the combined elements found so far. The combiner is always given an element that comes from earlier in the array
+	 * first, but the grouping of the combinations follows the merges, so it should be associative.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one, equal to them
+	 * @return {int} The number of combined elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public static <T> int sortReduce(T[] elementArray, Comparator<? super T> comparator, BinaryOperator<T> combiner) {
+		return sortReduce(elementArray, comparator, combiner, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element that replaces every group of equal elements by
+	 * their combination, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one, equal to them
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of combined elements, which are sorted at the beginning of the array, the rest of the array being cleared
+	 */
+	public static <T> int sortReduce(T[] elementArray, Comparator<? super T> comparator, BinaryOperator<T> combiner, SortBuffer buffer) {
+		checkReduceArguments(elementArray, comparator, combiner, buffer);
+		int length = elementArray.length;
+		int reducedLength;
+		try {
+			reducedLength = sortReduce(elementArray, comparator, combiner, buffer.objects(length), 0, length);
+		} finally {
+			buffer.release(length);
+		}
+		Arrays.fill(elementArray, reducedLength, length, null);
+		return reducedLength;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of int keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * The permutation can then reorder any number of column arrays with {@link #applyPermutation(int[], int[])}.
+	 * @param {int[]} keys The array of int keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(int[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of int keys, using the scratch space of a reusable buffer.
+	 * @param {int[]} keys The array of int keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(int[] keys, SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		long[] sortKeys = buffer.keys(length);
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		int[] permutation = new int[length];
+		try {
+			extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, buffer.longs(length), buffer.ints(length), 0, length);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of long keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * @param {long[]} keys The array of long keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(long[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of long keys, using the scratch space of a reusable buffer.
+	 * @param {long[]} keys The array of long keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(long[] keys, SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		long[] sortKeys = buffer.keys(length);
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		int[] permutation = new int[length];
+		try {
+			extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, buffer.longs(length), buffer.ints(length), 0, length);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of double keys, without modifying the array:
+	 * the i-th value of the permutation is the index of the i-th smallest key, equal keys keeping their original order.
+	 * The keys are ordered as by {@link Double#compare(double, double)}.
+	 * @param {double[]} keys The array of double keys
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(double[] keys) {
+		return argsort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of double keys, using the scratch space of a reusable buffer.
+	 * @param {double[]} keys The array of double keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public static int[] argsort(double[] keys, SortBuffer buffer) {
+		RadixSort.checkArguments(keys, buffer);
+		int length = keys.length;
+		long[] sortKeys = buffer.keys(length);
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		int[] permutation = new int[length];
+		try {
+			extractKeys(keys, sortKeys, permutation);
+			sort(sortKeys, permutation, buffer.longs(length), buffer.ints(length), 0, length);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, null);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of element by a comparator, without moving the elements:
+	 * only the indexes are merged, so heavy elements stay where they are.
+	 * The i-th value of the permutation is the index of the i-th smallest element, equal elements keeping their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {int[]} The sorting permutation
+	 */
+	public static <T> int[] argsort(T[] elementArray, Comparator<? super T> comparator) {
+		return argsort(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Provides the permutation that sorts a given array of element by a comparator, using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorting permutation
+	 */
+	public static <T> int[] argsort(T[] elementArray, Comparator<? super T> comparator, SortBuffer buffer) {
+		checkArguments(elementArray, comparator, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		SortMetrics.CountingComparator<T> counter = SortMetrics.counting(comparator);
+		int[] permutation = identity(length);
+		try {
+			MergeKernel.of(elementArray, null == counter ? comparator : counter, permutation, buffer.ints(length)).sort(0, length);
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", length, sample, counter);
+		}
+		return permutation;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * Applying the permutation returned by an argsort sorts the column by the sorted keys.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {int[]} column The column array
+	 * @return {int[]} The reordered column
+	 */
+	public static int[] applyPermutation(int[] permutation, int[] column) {
+		checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, 0, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {long[]} column The column array
+	 * @return {long[]} The reordered column
+	 */
+	public static long[] applyPermutation(int[] permutation, long[] column) {
+		checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, 0, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {float[]} column The column array
+	 * @return {float[]} The reordered column
+	 */
+	public static float[] applyPermutation(int[] permutation, float[] column) {
+		checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, 0, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th value becomes the value at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {double[]} column The column array
+	 * @return {double[]} The reordered column
+	 */
+	public static double[] applyPermutation(int[] permutation, double[] column) {
+		checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, 0, column.length);
+		return column;
+	}
+
+	/**
+	 * Reorders a column array in place by a permutation, so that the i-th element becomes the element at the i-th index of the permutation.
+	 * @param {int[]} permutation The permutation, holding every index of the column once
+	 * @param {Array} column The column array, <T> The generic type of the element
+	 * @return {Array} The reordered column
+	 */
+	public static <T> T[] applyPermutation(int[] permutation, T[] column) {
+		checkPermutationArguments(permutation, column);
+		permute(permutation, column.clone(), column, 0, column.length);
+		return column;
+	}
+
+	/**
+	 * Validates the arguments shared by the permutation methods
+	 * @param {int[]} permutation The permutation
+	 * @param {Object} column The column array
+	 */
+	static void checkPermutationArguments(int[] permutation, Object column) {
+		if (null == permutation || null == column){
+			throw new IllegalArgumentException("permutation and column cannot be null");
+		}
+		if (permutation.length != Array.getLength(column)){
+			throw new IllegalArgumentException("Permutation has " + permutation.length + " indexes, the column has " + Array.getLength(column) + " values");
+		}
+	}
+
+	/**
+	 * Gathers a portion of a column through a permutation: every index i of the portion receives the value at the i-th index of the permutation
+	 * @param {int[]} permutation The permutation
+	 * @param {Object} source The column array the values are read from
+	 * @param {Object} destination The column array of the same type the values are written to
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void permute(int[] permutation, Object source, Object destination, int startIndex, int endIndex) {
+		if (source instanceof int[]){
+			int[] from = (int[]) source;
+			int[] to = (int[]) destination;
+			for (int i = startIndex; i < endIndex; i++){
+				to[i] = from[permutation[i]];
+			}
+		} else if (source instanceof long[]){
+			long[] from = (long[]) source;
+			long[] to = (long[]) destination;
+			for (int i = startIndex; i < endIndex; i++){
+				to[i] = from[permutation[i]];
+			}
+		} else if (source instanceof float[]){
+			float[] from = (float[]) source;
+			float[] to = (float[]) destination;
+			for (int i = startIndex; i < endIndex; i++){
+				to[i] = from[permutation[i]];
+			}
+		} else if (source instanceof double[]){
+			double[] from = (double[]) source;
+			double[] to = (double[]) destination;
+			for (int i = startIndex; i < endIndex; i++){
+				to[i] = from[permutation[i]];
+			}
+		} else {
+			Object[] from = (Object[]) source;
+			Object[] to = (Object[]) destination;
+			for (int i = startIndex; i < endIndex; i++){
+				to[i] = from[permutation[i]];
+			}
+		}
+		SortMetrics.moved(endIndex - startIndex);
+	}
+
+	/**
+	 * Provides the identity permutation of a given length
+	 * @param {int} length
+	 * @return {int[]}
+	 */
+	static int[] identity(int length) {
+		int[] indexes = new int[length];
+		for (int i = 0; i < length; i++){
+			indexes[i] = i;
+		}
+		return indexes;
+	}
+
+	/**
+	 * Validates the arguments shared by the partial sort methods
+	 * @param {Array} elementArray The array of element
+	 * @param {int} k The number of smallest elements
+	 * @param {Comparator<>} comparator The comparator
+	 */
+	static void checkPrefixArguments(Object[] elementArray, int k, Comparator<?> comparator) {
+		if (null == elementArray){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == comparator){
+			throw new IllegalArgumentException("comparator cannot be null");
+		}
+		if (k < 0){
+			throw new IllegalArgumentException("k cannot be negative, got " + k);
+		}
+	}
+
+	/**
+	 * Selects the k smallest elements of a portion of an array with a bounded max-heap,
+	 * where an element is larger than an equal one that comes before it, and sorts them
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {int} k The number of smallest elements
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {Object[]} heap The array that receives the smallest elements in order, at least k long
+	 * @param {int[]} positions The array that receives the index of each smallest element, at least k long
+	 * @return {int} The number of selected elements, min(k, endIndex - startIndex)
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> int selectSmallest(T[] elementArray, int startIndex, int endIndex, int k, Comparator<? super T> comparator, Object[] heap, int[] positions) {
+		int size = Math.min(k, endIndex - startIndex);
+		for (int i = 0; i < size; i++){
+			heap[i] = elementArray[startIndex + i];
+			positions[i] = startIndex + i;
+		}
+		for (int node = size / 2 - 1; node >= 0; node--){
+			siftDown(heap, positions, node, size, comparator);
+		}
+		for (int i = startIndex + size; i < endIndex; i++){
+			if (size > 0 && comparator.compare(elementArray[i], (T) heap[0]) < 0){
+				heap[0] = elementArray[i];
+				positions[0] = i;
+				siftDown(heap, positions, 0, size, comparator);
+			}
+		}
+		for (int last = size - 1; last > 0; last--){
+			swapHeap(heap, positions, 0, last);
+			siftDown(heap, positions, 0, last, comparator);
+		}
+		return size;
+	}
+
+	/**
+	 * Moves the sorted smallest elements to the beginning of an array, moving the other elements
+	 * that were there to the positions the smallest elements leave
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Object[]} smallest The smallest elements in order
+	 * @param {int[]} positions The index of each smallest element in the array
+	 * @param {int} k The number of smallest elements
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> void placePrefix(T[] elementArray, Object[] smallest, int[] positions, int k) {
+		boolean[] selectedInPrefix = new boolean[k];
+		for (int i = 0; i < k; i++){
+			if (positions[i] < k){
+				selectedInPrefix[positions[i]] = true;
+			}
+		}
+		int displaced = 0;
+		for (int i = 0; i < k; i++){
+			if (positions[i] >= k){
+				while (selectedInPrefix[displaced]){
+					displaced++;
+				}
+				elementArray[positions[i]] = elementArray[displaced++];
+			}
+		}
+		for (int i = 0; i < k; i++){
+			elementArray[i] = (T) smallest[i];
+		}
+	}
+
+	/**
+	 * Moves a heap element down until the max-heap order is restored
+	 * @param {Object[]} heap
+	 * @param {int[]} positions
+	 * @param {int} node The index of the element
+	 * @param {int} size The size of the heap
+	 * @param {Comparator<>} comparator
+	 */
+	private static <T> void siftDown(Object[] heap, int[] positions, int node, int size, Comparator<? super T> comparator) {
+		for (int child = 2 * node + 1; child < size; node = child, child = 2 * node + 1){
+			if (child + 1 < size && heapLarger(heap, positions, child + 1, child, comparator)){
+				child++;
+			}
+			if (!heapLarger(heap, positions, child, node, comparator)){
+				return;
+			}
+			swapHeap(heap, positions, node, child);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> boolean heapLarger(Object[] heap, int[] positions, int first, int second, Comparator<? super T> comparator) {
+		int comparison = comparator.compare((T) heap[first], (T) heap[second]);
+		return comparison > 0 || comparison == 0 && positions[first] > positions[second];
+	}
+
+	private static void swapHeap(Object[] heap, int[] positions, int first, int second) {
+		Object element = heap[first];
+		heap[first] = heap[second];
+		heap[second] = element;
+		int position = positions[first];
+		positions[first] = positions[second];
+		positions[second] = position;
+	}
+
+	/**
+	 * The combiner of the distinct sorts, which keeps the element that comes from earlier in the array
+	 * @return {BinaryOperator<>}
+	 */
+	static <T> BinaryOperator<T> keepFirst() {
+		return (first, second) -> first;
+	}
+
+	/**
+	 * Validates the arguments shared by the reducing sort methods
+	 * @param {Array} elementArray The array of element
+	 * @param {Comparator<>} comparator The comparator
+	 * @param {BinaryOperator<>} combiner The combiner
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space
+	 */
+	static void checkReduceArguments(Object[] elementArray, Comparator<?> comparator, BinaryOperator<?> combiner, SortBuffer buffer) {
+		checkArguments(elementArray, comparator, buffer);
+		if (null == combiner){
+			throw new IllegalArgumentException("combiner cannot be null");
+		}
+	}
+
+	/**
+	 * Sorts the portion of a given array of element between the given indexes and combines its equal elements,
+	 * the combined elements being moved to the beginning of the portion.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @return {int} The end index of the combined elements, exclusively.
+	 */
+	static <T> int sortReduce(T[] inputArr, Comparator<? super T> comparator, BinaryOperator<T> combiner, Object[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length <= MergeKernel.MIN_RUN){
+			return insertReduce(inputArr, comparator, combiner, startIndex, endIndex);
+		}
+		int middleIndex = startIndex + length / 2;
+		int leftEnd = sortReduce(inputArr, comparator, combiner, scratch, startIndex, middleIndex);
+		int rightEnd = sortReduce(inputArr, comparator, combiner, scratch, middleIndex, endIndex);
+		return mergeReduce(inputArr, comparator, combiner, startIndex, leftEnd, middleIndex, rightEnd, scratch);
+	}
+
+	/**
+	 * Sorts a short portion of a given array of element by binary insertion, combining every element with an equal one
+	 * that is already in place instead of inserting it.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @return {int} The end index of the combined elements, exclusively.
+	 */
+	private static <T> int insertReduce(T[] inputArr, Comparator<? super T> comparator, BinaryOperator<T> combiner, int startIndex, int endIndex) {
+		if (startIndex == endIndex){
+			return endIndex;
+		}
+		int end = startIndex + 1;
+		for (int i = startIndex + 1; i < endIndex; i++){
+			T element = inputArr[i];
+			int position = gallop(element, inputArr, startIndex, end, false, comparator);
+			if (position < end && comparator.compare(inputArr[position], element) == 0){
+				inputArr[position] = combiner.apply(inputArr[position], element);
+				SortMetrics.moved(1);
+			} else {
+				System.arraycopy(inputArr, position, inputArr, position + 1, end - position);
+				inputArr[position] = element;
+				SortMetrics.moved(end - position + 1);
+				end++;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Merges two sorted runs of combined elements of a given array of element into the beginning of the left run,
+	 * combining the equal elements of the two runs. The right run follows the portion the left run was sorted in.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} leftEnd The end index of the left run, exclusively.
+	 * @param {int} rightIndex The start index of the right run, not lower than the end of the left one.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 * @return {int} The end index of the merged elements, exclusively.
+	 */
+	static <T> int mergeReduce(T[] inputArr, Comparator<? super T> comparator, BinaryOperator<T> combiner, int leftIndex, int leftEnd, int rightIndex, int rightEnd, Object[] scratch) {
+		if (leftIndex == leftEnd || rightIndex == rightEnd || comparator.compare(inputArr[leftEnd - 1], inputArr[rightIndex]) < 0){
+			System.arraycopy(inputArr, rightIndex, inputArr, leftEnd, rightEnd - rightIndex);
+			SortMetrics.moved(rightIndex == leftEnd ? 0 : rightEnd - rightIndex);
+			return leftEnd + rightEnd - rightIndex;
+		}
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, leftEnd - leftIndex);
+		SortMetrics.moved(leftEnd - leftIndex);
+		return mergeReduce(comparator, combiner, scratch, leftIndex, leftEnd, inputArr, rightIndex, rightEnd, inputArr, leftIndex);
+	}
+
+	/**
+	 * Merges two sorted runs of combined elements into a destination, combining the equal elements of the two runs,
+	 * the left one being given to the combiner first. The destination can hold the right run, at the same or higher indexes than its merged elements.
+	 * @param {Comparator<>} comparator The comparator that determines the order and the equality of the elements
+	 * @param {BinaryOperator<>} combiner The function that combines two equal elements into one
+	 * @param {Object[]} left The array that holds the left run
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} leftEnd The end index of the left run, exclusively.
+	 * @param {Object[]} right The array that holds the right run
+	 * @param {int} rightIndex The start index of the right run, inclusively.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 * @param {Array} destination The array that receives the merged elements, <T> The generic type of the element
+	 * @param {int} destinationIndex The index of the first merged element
+	 * @return {int} The end index of the merged elements, exclusively.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> int mergeReduce(
+			Comparator<? super T> comparator,
+			BinaryOperator<T> combiner,
+			Object[] left,
+			int leftIndex,
+			int leftEnd,
+			Object[] right,
+			int rightIndex,
+			int rightEnd,
+			T[] destination,
+			int destinationIndex) {
+		int index = destinationIndex;
+		while (leftIndex < leftEnd && rightIndex < rightEnd){
+			T leftElement = (T) left[leftIndex];
+			T rightElement = (T) right[rightIndex];
+			int comparison = comparator.compare(leftElement, rightElement);
+			if (comparison < 0){
+				destination[index++] = leftElement;
+				leftIndex++;
+			} else if (comparison > 0){
+				destination[index++] = rightElement;
+				rightIndex++;
+			} else {
+				destination[index++] = combiner.apply(leftElement, rightElement);
+				leftIndex++;
+				rightIndex++;
+			}
+		}
+		System.arraycopy(left, leftIndex, destination, index, leftEnd - leftIndex);
+		index += leftEnd - leftIndex;
+		System.arraycopy(right, rightIndex, destination, index, rightEnd - rightIndex);
+		index += rightEnd - rightIndex;
+		SortMetrics.moved(index - destinationIndex);
+		return index;
+	}
+
+	/**
+	 * Validates the arguments shared by the sort methods
+	 * @param {Array} elementArray The array of element
+	 * @param {Object} order The comparator or key extractor
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space
+	 */
+	static void checkArguments(Object[] elementArray, Object order, SortBuffer buffer) {
+		if (null == elementArray){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == order){
+			throw new IllegalArgumentException("comparator or key extractor cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+	}
+
+	/**
+	 * Sorts the portion of a given array of element between the given indexes.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static <T> void sort(T[] inputArr, Comparator<? super T> comparator, Object[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(inputArr, comparator, scratch, startIndex, middle, startIndex + middle, length - middle);
+		}
+	}
+
+	/**
+	 * Sorts on a given array of element. 
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {Object[]} scratch The scratch space
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	private static <T> void sort(
+			T[] inputArr,
+			Comparator<? super T> comparator,
+			Object[] scratch,
+			int leftIndex,
+			int leftLength,
+			int rightIndex,
+			int rightLength) {
+
+		if (leftLength > 2) {
+			int middle = leftLength / 2;
+			sort(inputArr, comparator, scratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
+		} else if (leftLength == 2){
+			compareSwap(inputArr, comparator, leftIndex, leftIndex + 1);
+		}
+
+		if (rightLength > 2){
+			int middle = rightLength / 2;
+			sort(inputArr, comparator, scratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
+		} else if (rightLength == 2){
+			compareSwap(inputArr, comparator, rightIndex, rightIndex + 1);
+		}
+
+		merge(inputArr, comparator, leftIndex, leftLength, rightIndex, rightLength, scratch);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of a given array of element.
+	 * A single comparison skips runs that are already in order, and the beginning of the left run and the end of the
+	 * right run that are already in place are trimmed by galloping search before the smaller remaining run is
+	 * copied to the same indexes of the scratch space.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 */
+	static <T> void merge(T[] inputArr, Comparator<? super T> comparator, int leftIndex, int leftLength, int rightIndex, int rightLength, Object[] scratch){
+		if (leftLength == 0 || rightLength == 0 || comparator.compare(inputArr[rightIndex - 1], inputArr[rightIndex]) <= 0){
+			return;
+		}
+		int leftStart = gallop(inputArr[rightIndex], inputArr, leftIndex, rightIndex, true, comparator);
+		int rightEnd = gallopBack(inputArr[rightIndex - 1], inputArr, rightIndex, rightIndex + rightLength, true, comparator);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(inputArr, comparator, leftStart, rightIndex, rightEnd, scratch);
+		} else {
+			mergeBackward(inputArr, comparator, leftStart, rightIndex, rightEnd, scratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the front, after copying the left run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void mergeForward(T[] inputArr, Comparator<? super T> comparator, int leftIndex, int rightIndex, int rightEnd, Object[] scratch){
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (comparator.compare((T) scratch[tmpCur], inputArr[rightCur]) <= 0){
+				inputArr[index++] = (T) scratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(inputArr[rightCur], scratch, tmpCur, tmpEnd, true, comparator) - tmpCur;
+					System.arraycopy(scratch, tmpCur, inputArr, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				inputArr[index++] = inputArr[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop((T) scratch[tmpCur], inputArr, rightCur, rightEnd, false, comparator) - rightCur;
+					System.arraycopy(inputArr, rightCur, inputArr, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, tmpCur, inputArr, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the back, after copying the right run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> void mergeBackward(T[] inputArr, Comparator<? super T> comparator, int leftIndex, int rightIndex, int rightEnd, Object[] scratch){
+		System.arraycopy(inputArr, rightIndex, scratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (comparator.compare((T) scratch[tmpCur], inputArr[leftCur]) >= 0){
+				inputArr[index--] = (T) scratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(inputArr[leftCur], scratch, rightIndex, tmpCur + 1, true, comparator);
+					System.arraycopy(scratch, tmpCur + 1 - count, inputArr, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				inputArr[index--] = inputArr[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack((T) scratch[tmpCur], inputArr, leftIndex, leftCur + 1, false, comparator);
+					System.arraycopy(inputArr, leftCur + 1 - count, inputArr, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, rightIndex, inputArr, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
+	}
+
+	/**
+	 * Finds the end of the beginning of a sorted portion whose values are less than a key (or equal to it, if inclusive),
+	 * probing exponentially from the start and then searching the last probed interval by binary search.
+	 * @param {T} key
+	 * @param {Object[]} arr The sorted array
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the beginning
+	 * @return {int} The index of the first value greater than (or equal to, if not inclusive) the key
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> int gallop(T key, Object[] arr, int startIndex, int endIndex, boolean inclusive, Comparator<? super T> comparator){
+		int bound = inclusive ? 1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && comparator.compare((T) arr[startIndex + offset - 1], key) < bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		low += startIndex;
+		int high = startIndex + Math.min(offset - 1, length);
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (comparator.compare((T) arr[middle], key) < bound){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the start of the end of a sorted portion whose values are greater than a key (or equal to it, if inclusive),
+	 * probing exponentially from the end and then searching the last probed interval by binary search.
+	 * @param {T} key
+	 * @param {Object[]} arr The sorted array
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the end
+	 * @return {int} The index following the last value less than (or equal to, if not inclusive) the key
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> int gallopBack(T key, Object[] arr, int startIndex, int endIndex, boolean inclusive, Comparator<? super T> comparator){
+		int bound = inclusive ? -1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && comparator.compare((T) arr[endIndex - offset], key) > bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		int first = endIndex - Math.min(offset - 1, length);
+		int last = endIndex - low;
+		while (first < last){
+			int middle = (first + last) >>> 1;
+			if (comparator.compare((T) arr[middle], key) > bound){
+				last = middle;
+			} else {
+				first = middle + 1;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of element. 
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static <T> void compareSwap(T[] inputArr, Comparator<? super T> comparator, int firstIndex, int secondIndex){
+		if (comparator.compare(inputArr[firstIndex], inputArr[secondIndex]) > 0){
+			swap(inputArr, firstIndex, secondIndex);
+		}
+	}
+
+	/**
+	 * Compares two given elements 
+	 * @param {T} first
+	 * @param {T} second
+	 * @return {int} Returns a negative integer, zero, or a positive integer as this object is lessthan, equal to, or greater than the specified object.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends Comparable> int compare(T first, T second){
+		if (null == first || null == second) {
+			throw new IllegalArgumentException("Array element cannot be null!");
+		}
+		return first.compareTo(second);
+	}
+	
+	/**
+	 * Swaps inside of a given array
+	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static <T> void swap(T[] inputArr, int firstIndex, int secondIndex){
+		T tmp = inputArr[firstIndex];
+		inputArr[firstIndex] = inputArr[secondIndex];
+		inputArr[secondIndex] = tmp;
+		SortMetrics.moved(2);
+	}
+
+	/**
+	 * Extracts the int keys of the given elements and packs each of them with the index of its element,
+	 * the key in the high half and the index in the low half, so sorting the packed values orders
+	 * the elements by key and keeps equal keys in their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {long[]} packedKeys The array that receives the packed keys
+	 * @return {long[]} The packed keys
+	 */
+	static <T> long[] packKeys(T[] elementArray, ToIntFunction<? super T> keyExtractor, long[] packedKeys){
+		for (int i = 0; i < elementArray.length; i++){
+			packedKeys[i] = ((long) keyExtractor.applyAsInt(elementArray[i]) << 32) | i;
+		}
+		return packedKeys;
+	}
+
+	/**
+	 * Extracts the long keys of the given elements next to the index of each element
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {long[]} keys The array that receives the keys
+	 * @param {int[]} indexes The array that receives the indexes
+	 */
+	static <T> void extractKeys(T[] elementArray, ToLongFunction<? super T> keyExtractor, long[] keys, int[] indexes){
+		for (int i = 0; i < elementArray.length; i++){
+			keys[i] = keyExtractor.applyAsLong(elementArray[i]);
+			indexes[i] = i;
+		}
+	}
+
+	/**
+	 * Copies int keys to the long keys of a keyed sort, next to the index of each key
+	 * @param {int[]} keys The int keys
+	 * @param {long[]} sortKeys The array that receives the long keys
+	 * @param {int[]} indexes The array that receives the indexes
+	 */
+	static void extractKeys(int[] keys, long[] sortKeys, int[] indexes){
+		for (int i = 0; i < keys.length; i++){
+			sortKeys[i] = keys[i];
+			indexes[i] = i;
+		}
+	}
+
+	/**
+	 * Copies long keys to the keys of a keyed sort, next to the index of each key
+	 * @param {long[]} keys The long keys
+	 * @param {long[]} sortKeys The array that receives the keys
+	 * @param {int[]} indexes The array that receives the indexes
+	 */
+	static void extractKeys(long[] keys, long[] sortKeys, int[] indexes){
+		System.arraycopy(keys, 0, sortKeys, 0, keys.length);
+		for (int i = 0; i < keys.length; i++){
+			indexes[i] = i;
+		}
+	}
+
+	/**
+	 * Turns double keys into the long keys of a keyed sort, with the same order, next to the index of each key
+	 * @param {double[]} keys The double keys
+	 * @param {long[]} sortKeys The array that receives the long keys
+	 * @param {int[]} indexes The array that receives the indexes
+	 */
+	static void extractKeys(double[] keys, long[] sortKeys, int[] indexes){
+		for (int i = 0; i < keys.length; i++){
+			sortKeys[i] = RadixSort.sortableBits(Double.doubleToLongBits(keys[i]));
+			indexes[i] = i;
+		}
+	}
+
+	/**
+	 * Moves the elements to the order given by sorted packed keys
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {long[]} packedKeys The sorted packed keys, the element index is in the low half
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> void reorder(T[] elementArray, long[] packedKeys, Object[] scratch){
+		System.arraycopy(elementArray, 0, scratch, 0, elementArray.length);
+		for (int i = 0; i < elementArray.length; i++){
+			elementArray[i] = (T) scratch[(int) packedKeys[i]];
+		}
+		SortMetrics.moved(2L * elementArray.length);
+	}
+
+	/**
+	 * Moves the elements to the order given by sorted indexes
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {int[]} indexes The sorted element indexes
+	 * @param {Object[]} scratch The scratch space, at least as long as the array of element
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> void reorder(T[] elementArray, int[] indexes, Object[] scratch){
+		System.arraycopy(elementArray, 0, scratch, 0, elementArray.length);
+		for (int i = 0; i < elementArray.length; i++){
+			elementArray[i] = (T) scratch[indexes[i]];
+		}
+		SortMetrics.moved(2L * elementArray.length);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		sort(inputArr, buffer.ints(inputArr.length), 0, inputArr.length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", inputArr.length, sample, null);
+		}
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of int values.
+	 * The natural runs of the array are detected and merged, so already ordered or nearly ordered arrays,
+	 * or concatenations of ordered batches, are sorted in linear or close to linear time.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(int[] inputArr) {
+		return sortAdaptive(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(int[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		return MergeKernel.of(inputArr, buffer.ints(inputArr.length)).sortRuns(0, inputArr.length);
+	}
+
+	/**
+	 * Sorts the portion of a given array of int values between the given indexes.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int[]} scratch The scratch space, at least as long as the array of values
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void sort(int[] inputArr, int[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(inputArr, scratch, startIndex, middle, startIndex + middle, length - middle);
+		}
+	}
+
+	/**
+	 * Sorts on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int[]} scratch The scratch space
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	private static void sort(int[] inputArr, int[] scratch, int leftIndex, int leftLength, int rightIndex, int rightLength) {
+		if (leftLength > 2) {
+			int middle = leftLength / 2;
+			sort(inputArr, scratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
+		} else if (leftLength == 2){
+			compareSwap(inputArr, leftIndex, leftIndex + 1);
+		}
+
+		if (rightLength > 2){
+			int middle = rightLength / 2;
+			sort(inputArr, scratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
+		} else if (rightLength == 2){
+			compareSwap(inputArr, rightIndex, rightIndex + 1);
+		}
+
+		merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of a given array of int values.
+	 * A single comparison skips runs that are already in order, and the beginning of the left run and the end of the
+	 * right run that are already in place are trimmed by galloping search before the smaller remaining run is
+	 * copied to the same indexes of the scratch space.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 * @param {int[]} scratch The scratch space, at least as long as the array of values
+	 */
+	static void merge(int[] inputArr, int leftIndex, int leftLength, int rightIndex, int rightLength, int[] scratch){
+		if (leftLength == 0 || rightLength == 0 || Integer.compare(inputArr[rightIndex - 1], inputArr[rightIndex]) <= 0){
+			return;
+		}
+		int leftStart = gallop(inputArr[rightIndex], inputArr, leftIndex, rightIndex, true);
+		int rightEnd = gallopBack(inputArr[rightIndex - 1], inputArr, rightIndex, rightIndex + rightLength, true);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		} else {
+			mergeBackward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the front, after copying the left run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {int[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeForward(int[] inputArr, int leftIndex, int rightIndex, int rightEnd, int[] scratch){
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (Integer.compare(scratch[tmpCur], inputArr[rightCur]) <= 0){
+				inputArr[index++] = scratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(inputArr[rightCur], scratch, tmpCur, tmpEnd, true) - tmpCur;
+					System.arraycopy(scratch, tmpCur, inputArr, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				inputArr[index++] = inputArr[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop(scratch[tmpCur], inputArr, rightCur, rightEnd, false) - rightCur;
+					System.arraycopy(inputArr, rightCur, inputArr, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, tmpCur, inputArr, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the back, after copying the right run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {int[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeBackward(int[] inputArr, int leftIndex, int rightIndex, int rightEnd, int[] scratch){
+		System.arraycopy(inputArr, rightIndex, scratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (Integer.compare(scratch[tmpCur], inputArr[leftCur]) >= 0){
+				inputArr[index--] = scratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(inputArr[leftCur], scratch, rightIndex, tmpCur + 1, true);
+					System.arraycopy(scratch, tmpCur + 1 - count, inputArr, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				inputArr[index--] = inputArr[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack(scratch[tmpCur], inputArr, leftIndex, leftCur + 1, false);
+					System.arraycopy(inputArr, leftCur + 1 - count, inputArr, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, rightIndex, inputArr, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
+	}
+
+	/**
+	 * Finds the end of the beginning of a sorted portion whose values are less than a key (or equal to it, if inclusive),
+	 * probing exponentially from the start and then searching the last probed interval by binary search.
+	 * @param {int} key
+	 * @param {int[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the beginning
+	 * @return {int} The index of the first value greater than (or equal to, if not inclusive) the key
+	 */
+	private static int gallop(int key, int[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? 1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Integer.compare(arr[startIndex + offset - 1], key) < bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		low += startIndex;
+		int high = startIndex + Math.min(offset - 1, length);
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (Integer.compare(arr[middle], key) < bound){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the start of the end of a sorted portion whose values are greater than a key (or equal to it, if inclusive),
+	 * probing exponentially from the end and then searching the last probed interval by binary search.
+	 * @param {int} key
+	 * @param {int[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the end
+	 * @return {int} The index following the last value less than (or equal to, if not inclusive) the key
+	 */
+	private static int gallopBack(int key, int[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? -1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Integer.compare(arr[endIndex - offset], key) > bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		int first = endIndex - Math.min(offset - 1, length);
+		int last = endIndex - low;
+		while (first < last){
+			int middle = (first + last) >>> 1;
+			if (Integer.compare(arr[middle], key) > bound){
+				last = middle;
+			} else {
+				first = middle + 1;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static void compareSwap(int[] inputArr, int firstIndex, int secondIndex){
+		if (Integer.compare(inputArr[firstIndex], inputArr[secondIndex]) > 0){
+			int tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		sort(inputArr, buffer.longs(inputArr.length), 0, inputArr.length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", inputArr.length, sample, null);
+		}
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of long values.
+	 * The natural runs of the array are detected and merged, so already ordered or nearly ordered arrays,
+	 * or concatenations of ordered batches, are sorted in linear or close to linear time.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(long[] inputArr) {
+		return sortAdaptive(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(long[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		return MergeKernel.of(inputArr, buffer.longs(inputArr.length)).sortRuns(0, inputArr.length);
+	}
+
+	/**
+	 * Sorts the portion of a given array of long values between the given indexes.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {long[]} scratch The scratch space, at least as long as the array of values
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void sort(long[] inputArr, long[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(inputArr, scratch, startIndex, middle, startIndex + middle, length - middle);
+		}
+	}
+
+	/**
+	 * Sorts on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {long[]} scratch The scratch space
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	private static void sort(long[] inputArr, long[] scratch, int leftIndex, int leftLength, int rightIndex, int rightLength) {
+		if (leftLength > 2) {
+			int middle = leftLength / 2;
+			sort(inputArr, scratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
+		} else if (leftLength == 2){
+			compareSwap(inputArr, leftIndex, leftIndex + 1);
+		}
+
+		if (rightLength > 2){
+			int middle = rightLength / 2;
+			sort(inputArr, scratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
+		} else if (rightLength == 2){
+			compareSwap(inputArr, rightIndex, rightIndex + 1);
+		}
+
+		merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of a given array of long values.
+	 * A single comparison skips runs that are already in order, and the beginning of the left run and the end of the
+	 * right run that are already in place are trimmed by galloping search before the smaller remaining run is
+	 * copied to the same indexes of the scratch space.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 * @param {long[]} scratch The scratch space, at least as long as the array of values
+	 */
+	static void merge(long[] inputArr, int leftIndex, int leftLength, int rightIndex, int rightLength, long[] scratch){
+		if (leftLength == 0 || rightLength == 0 || Long.compare(inputArr[rightIndex - 1], inputArr[rightIndex]) <= 0){
+			return;
+		}
+		int leftStart = gallop(inputArr[rightIndex], inputArr, leftIndex, rightIndex, true);
+		int rightEnd = gallopBack(inputArr[rightIndex - 1], inputArr, rightIndex, rightIndex + rightLength, true);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		} else {
+			mergeBackward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the front, after copying the left run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {long[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeForward(long[] inputArr, int leftIndex, int rightIndex, int rightEnd, long[] scratch){
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (Long.compare(scratch[tmpCur], inputArr[rightCur]) <= 0){
+				inputArr[index++] = scratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(inputArr[rightCur], scratch, tmpCur, tmpEnd, true) - tmpCur;
+					System.arraycopy(scratch, tmpCur, inputArr, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				inputArr[index++] = inputArr[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop(scratch[tmpCur], inputArr, rightCur, rightEnd, false) - rightCur;
+					System.arraycopy(inputArr, rightCur, inputArr, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, tmpCur, inputArr, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the back, after copying the right run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {long[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeBackward(long[] inputArr, int leftIndex, int rightIndex, int rightEnd, long[] scratch){
+		System.arraycopy(inputArr, rightIndex, scratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (Long.compare(scratch[tmpCur], inputArr[leftCur]) >= 0){
+				inputArr[index--] = scratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(inputArr[leftCur], scratch, rightIndex, tmpCur + 1, true);
+					System.arraycopy(scratch, tmpCur + 1 - count, inputArr, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				inputArr[index--] = inputArr[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack(scratch[tmpCur], inputArr, leftIndex, leftCur + 1, false);
+					System.arraycopy(inputArr, leftCur + 1 - count, inputArr, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, rightIndex, inputArr, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
+	}
+
+	/**
+	 * Finds the end of the beginning of a sorted portion whose values are less than a key (or equal to it, if inclusive),
+	 * probing exponentially from the start and then searching the last probed interval by binary search.
+	 * @param {long} key
+	 * @param {long[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the beginning
+	 * @return {int} The index of the first value greater than (or equal to, if not inclusive) the key
+	 */
+	private static int gallop(long key, long[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? 1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Long.compare(arr[startIndex + offset - 1], key) < bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		low += startIndex;
+		int high = startIndex + Math.min(offset - 1, length);
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (Long.compare(arr[middle], key) < bound){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the start of the end of a sorted portion whose values are greater than a key (or equal to it, if inclusive),
+	 * probing exponentially from the end and then searching the last probed interval by binary search.
+	 * @param {long} key
+	 * @param {long[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the end
+	 * @return {int} The index following the last value less than (or equal to, if not inclusive) the key
+	 */
+	private static int gallopBack(long key, long[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? -1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Long.compare(arr[endIndex - offset], key) > bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		int first = endIndex - Math.min(offset - 1, length);
+		int last = endIndex - low;
+		while (first < last){
+			int middle = (first + last) >>> 1;
+			if (Long.compare(arr[middle], key) > bound){
+				last = middle;
+			} else {
+				first = middle + 1;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	private static void compareSwap(long[] inputArr, int firstIndex, int secondIndex){
+		if (Long.compare(inputArr[firstIndex], inputArr[secondIndex]) > 0){
+			long tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of float values.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {float[]} The sorted array
+	 */
+	public static float[] sort(float[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of float values, using the scratch space of a reusable buffer.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {float[]} The sorted array
+	 */
+	public static float[] sort(float[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
 			throw new IllegalArgumentException("array of elements cannot be null");
 		}
-		if (comparableElementArray.length > 1){
-			int middle = (int)Math.floor(comparableElementArray.length / 2);
-			sort(comparableElementArray, 0, middle, middle, comparableElementArray.length - middle, elementClass);
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
 		}
-		return comparableElementArray;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		sort(inputArr, buffer.floats(inputArr.length), 0, inputArr.length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", inputArr.length, sample, null);
+		}
+		return inputArr;
 	}
 
 	/**
-	 * Sorts on a given array of element. 
-	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * Perform an in-place adaptive merge and sort on a given array of float values.
+	 * The natural runs of the array are detected and merged, so already ordered or nearly ordered arrays,
+	 * or concatenations of ordered batches, are sorted in linear or close to linear time.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(float[] inputArr) {
+		return sortAdaptive(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of float values, using the scratch space of a reusable buffer.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(float[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		return MergeKernel.of(inputArr, buffer.floats(inputArr.length)).sortRuns(0, inputArr.length);
+	}
+
+	/**
+	 * Sorts the portion of a given array of float values between the given indexes.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {float[]} scratch The scratch space, at least as long as the array of values
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void sort(float[] inputArr, float[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(inputArr, scratch, startIndex, middle, startIndex + middle, length - middle);
+		}
+	}
+
+	/**
+	 * Sorts on a given array of float values.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {float[]} scratch The scratch space
 	 * @param {int} leftIndex
 	 * @param {int} leftLength
 	 * @param {int} rightIndex
 	 * @param {int} rightLength
-	 * @param {Class<>} elementClass The class of the element
 	 */
-	private static <T extends Comparable> void sort(
-			T[] inputArr,
-			int leftIndex,
-			int leftLength,
-			int rightIndex,
-			int rightLength,
-			Class<T> elementClass) {
-
+	private static void sort(float[] inputArr, float[] scratch, int leftIndex, int leftLength, int rightIndex, int rightLength) {
 		if (leftLength > 2) {
-			int middle = (int)Math.floor(leftLength / 2);
-			sort(inputArr, leftIndex, middle, leftIndex + middle, leftLength - middle, elementClass);
+			int middle = leftLength / 2;
+			sort(inputArr, scratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
 		} else if (leftLength == 2){
 			compareSwap(inputArr, leftIndex, leftIndex + 1);
 		}
 
 		if (rightLength > 2){
-			int middle = (int)Math.floor(rightLength / 2);
-			sort(inputArr, rightIndex, middle, rightIndex + middle, rightLength - middle, elementClass);
+			int middle = rightLength / 2;
+			sort(inputArr, scratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
 		} else if (rightLength == 2){
 			compareSwap(inputArr, rightIndex, rightIndex + 1);
 		}
 
-		merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, elementClass);
+		merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
 	}
 
 	/**
-	 * Merges on a given array of element. 
-	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * Merges two adjacent sorted runs of a given array of float values.
+	 * A single comparison skips runs that are already in order, and the beginning of the left run and the end of the
+	 * right run that are already in place are trimmed by galloping search before the smaller remaining run is
+	 * copied to the same indexes of the scratch space.
+	 * @param {float[]} inputArr The array of float values
 	 * @param {int} leftIndex
 	 * @param {int} leftLength
 	 * @param {int} rightIndex
 	 * @param {int} rightLength
-	 * @param {Class<>} elementClass The class of the element
+	 * @param {float[]} scratch The scratch space, at least as long as the array of values
 	 */
-	@SuppressWarnings("unchecked")
-	static <T extends Comparable> void merge(
-			T[] inputArr,
-			int leftIndex,
-			int leftLength,
-			int rightIndex,
-			int rightLength,
-			Class<T> elementClass){
-		int smallArrayIndex = leftLength < rightLength ? leftIndex : rightIndex;
-		int smallArrayLength = leftLength < rightLength ? leftLength : rightLength;
-		T[] tmp = (T[]) Array.newInstance(elementClass, smallArrayLength);
-		System.arraycopy(inputArr, smallArrayIndex, tmp, 0, smallArrayLength);
-
-		if (leftLength < rightLength){
-			int tmpCur = 0;
-			int index = leftIndex;
-			int rightCur = rightIndex;
-
-			while (index < rightIndex + rightLength){
-				if (tmpCur == leftLength){
-					break;
-				} else if (rightCur == rightIndex + rightLength){
-					inputArr[index++] = tmp[tmpCur++];
-				} else if (compare(tmp[tmpCur], inputArr[rightCur]) < 0){
-					inputArr[index++] = tmp[tmpCur++];
-				} else {
-					inputArr[index++] = inputArr[rightCur++];
+	static void merge(float[] inputArr, int leftIndex, int leftLength, int rightIndex, int rightLength, float[] scratch){
+		if (leftLength == 0 || rightLength == 0 || Float.compare(inputArr[rightIndex - 1], inputArr[rightIndex]) <= 0){
+			return;
+		}
+		int leftStart = gallop(inputArr[rightIndex], inputArr, leftIndex, rightIndex, true);
+		int rightEnd = gallopBack(inputArr[rightIndex - 1], inputArr, rightIndex, rightIndex + rightLength, true);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		} else {
+			mergeBackward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the front, after copying the left run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {float[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeForward(float[] inputArr, int leftIndex, int rightIndex, int rightEnd, float[] scratch){
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (Float.compare(scratch[tmpCur], inputArr[rightCur]) <= 0){
+				inputArr[index++] = scratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(inputArr[rightCur], scratch, tmpCur, tmpEnd, true) - tmpCur;
+					System.arraycopy(scratch, tmpCur, inputArr, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				inputArr[index++] = inputArr[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop(scratch[tmpCur], inputArr, rightCur, rightEnd, false) - rightCur;
+					System.arraycopy(inputArr, rightCur, inputArr, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
 				}
 			}
-		} else {
-			int tmpCur = rightLength - 1;
-			int index = rightIndex + rightLength - 1;
-			int leftCur = leftIndex + leftLength - 1;
-			while (index >= leftIndex){
-				if (tmpCur < 0){
-					break;
-				} else if (leftCur < leftIndex){
-					inputArr[index--] = tmp[tmpCur--];
-				} else if (compare(tmp[tmpCur], inputArr[leftCur]) >= 0){
-					inputArr[index--] = tmp[tmpCur--];
-				} else {
-					inputArr[index--] = inputArr[leftCur--];
+		}
+		System.arraycopy(scratch, tmpCur, inputArr, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the back, after copying the right run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {float[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeBackward(float[] inputArr, int leftIndex, int rightIndex, int rightEnd, float[] scratch){
+		System.arraycopy(inputArr, rightIndex, scratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (Float.compare(scratch[tmpCur], inputArr[leftCur]) >= 0){
+				inputArr[index--] = scratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(inputArr[leftCur], scratch, rightIndex, tmpCur + 1, true);
+					System.arraycopy(scratch, tmpCur + 1 - count, inputArr, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				inputArr[index--] = inputArr[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack(scratch[tmpCur], inputArr, leftIndex, leftCur + 1, false);
+					System.arraycopy(inputArr, leftCur + 1 - count, inputArr, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
 				}
 			}
 		}
+		System.arraycopy(scratch, rightIndex, inputArr, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
 	}
 
 	/**
-	 * First compares and then swaps inside of a given array of element. 
-	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * Finds the end of the beginning of a sorted portion whose values are less than a key (or equal to it, if inclusive),
+	 * probing exponentially from the start and then searching the last probed interval by binary search.
+	 * @param {float} key
+	 * @param {float[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the beginning
+	 * @return {int} The index of the first value greater than (or equal to, if not inclusive) the key
+	 */
+	private static int gallop(float key, float[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? 1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Float.compare(arr[startIndex + offset - 1], key) < bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		low += startIndex;
+		int high = startIndex + Math.min(offset - 1, length);
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (Float.compare(arr[middle], key) < bound){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the start of the end of a sorted portion whose values are greater than a key (or equal to it, if inclusive),
+	 * probing exponentially from the end and then searching the last probed interval by binary search.
+	 * @param {float} key
+	 * @param {float[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the end
+	 * @return {int} The index following the last value less than (or equal to, if not inclusive) the key
+	 */
+	private static int gallopBack(float key, float[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? -1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Float.compare(arr[endIndex - offset], key) > bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		int first = endIndex - Math.min(offset - 1, length);
+		int last = endIndex - low;
+		while (first < last){
+			int middle = (first + last) >>> 1;
+			if (Float.compare(arr[middle], key) > bound){
+				last = middle;
+			} else {
+				first = middle + 1;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of float values.
+	 * @param {float[]} inputArr The array of float values
 	 * @param {int} firstIndex
 	 * @param {int} secondIndex
 	 */
-	private static <T extends Comparable> void compareSwap(T[] inputArr, int firstIndex, int secondIndex){
-		if (compare(inputArr, firstIndex, secondIndex) > 0){
-			swap(inputArr, firstIndex, secondIndex);
+	private static void compareSwap(float[] inputArr, int firstIndex, int secondIndex){
+		if (Float.compare(inputArr[firstIndex], inputArr[secondIndex]) > 0){
+			float tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
 		}
 	}
+
 	/**
-	 * Compares inside of a given array
-	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * Perform an in-place merge and sort on a given array of double values.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {double[]} The sorted array
+	 */
+	public static double[] sort(double[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of double values, using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {double[]} The sorted array
+	 */
+	public static double[] sort(double[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		sort(inputArr, buffer.doubles(inputArr.length), 0, inputArr.length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted("sequential", inputArr.length, sample, null);
+		}
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of double values.
+	 * The natural runs of the array are detected and merged, so already ordered or nearly ordered arrays,
+	 * or concatenations of ordered batches, are sorted in linear or close to linear time.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(double[] inputArr) {
+		return sortAdaptive(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place adaptive merge and sort on a given array of double values, using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int} The number of runs that were merged
+	 */
+	public static int sortAdaptive(double[] inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		return MergeKernel.of(inputArr, buffer.doubles(inputArr.length)).sortRuns(0, inputArr.length);
+	}
+
+	/**
+	 * Sorts the portion of a given array of double values between the given indexes.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {double[]} scratch The scratch space, at least as long as the array of values
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void sort(double[] inputArr, double[] scratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(inputArr, scratch, startIndex, middle, startIndex + middle, length - middle);
+		}
+	}
+
+	/**
+	 * Sorts on a given array of double values.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {double[]} scratch The scratch space
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	private static void sort(double[] inputArr, double[] scratch, int leftIndex, int leftLength, int rightIndex, int rightLength) {
+		if (leftLength > 2) {
+			int middle = leftLength / 2;
+			sort(inputArr, scratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
+		} else if (leftLength == 2){
+			compareSwap(inputArr, leftIndex, leftIndex + 1);
+		}
+
+		if (rightLength > 2){
+			int middle = rightLength / 2;
+			sort(inputArr, scratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
+		} else if (rightLength == 2){
+			compareSwap(inputArr, rightIndex, rightIndex + 1);
+		}
+
+		merge(inputArr, leftIndex, leftLength, rightIndex, rightLength, scratch);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of a given array of double values.
+	 * A single comparison skips runs that are already in order, and the beginning of the left run and the end of the
+	 * right run that are already in place are trimmed by galloping search before the smaller remaining run is
+	 * copied to the same indexes of the scratch space.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 * @param {double[]} scratch The scratch space, at least as long as the array of values
+	 */
+	static void merge(double[] inputArr, int leftIndex, int leftLength, int rightIndex, int rightLength, double[] scratch){
+		if (leftLength == 0 || rightLength == 0 || Double.compare(inputArr[rightIndex - 1], inputArr[rightIndex]) <= 0){
+			return;
+		}
+		int leftStart = gallop(inputArr[rightIndex], inputArr, leftIndex, rightIndex, true);
+		int rightEnd = gallopBack(inputArr[rightIndex - 1], inputArr, rightIndex, rightIndex + rightLength, true);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		} else {
+			mergeBackward(inputArr, leftStart, rightIndex, rightEnd, scratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the front, after copying the left run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {double[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeForward(double[] inputArr, int leftIndex, int rightIndex, int rightEnd, double[] scratch){
+		System.arraycopy(inputArr, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (Double.compare(scratch[tmpCur], inputArr[rightCur]) <= 0){
+				inputArr[index++] = scratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(inputArr[rightCur], scratch, tmpCur, tmpEnd, true) - tmpCur;
+					System.arraycopy(scratch, tmpCur, inputArr, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				inputArr[index++] = inputArr[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop(scratch[tmpCur], inputArr, rightCur, rightEnd, false) - rightCur;
+					System.arraycopy(inputArr, rightCur, inputArr, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, tmpCur, inputArr, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs from the back, after copying the right run to the scratch space.
+	 * When one run wins {@link #MIN_GALLOP} times in a row, the length of its winning streak is found by galloping search and copied at once.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {double[]} scratch The scratch space, at least as long as the array of values
+	 */
+	private static void mergeBackward(double[] inputArr, int leftIndex, int rightIndex, int rightEnd, double[] scratch){
+		System.arraycopy(inputArr, rightIndex, scratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (Double.compare(scratch[tmpCur], inputArr[leftCur]) >= 0){
+				inputArr[index--] = scratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(inputArr[leftCur], scratch, rightIndex, tmpCur + 1, true);
+					System.arraycopy(scratch, tmpCur + 1 - count, inputArr, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				inputArr[index--] = inputArr[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack(scratch[tmpCur], inputArr, leftIndex, leftCur + 1, false);
+					System.arraycopy(inputArr, leftCur + 1 - count, inputArr, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
+				}
+			}
+		}
+		System.arraycopy(scratch, rightIndex, inputArr, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
+	}
+
+	/**
+	 * Finds the end of the beginning of a sorted portion whose values are less than a key (or equal to it, if inclusive),
+	 * probing exponentially from the start and then searching the last probed interval by binary search.
+	 * @param {double} key
+	 * @param {double[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the beginning
+	 * @return {int} The index of the first value greater than (or equal to, if not inclusive) the key
+	 */
+	private static int gallop(double key, double[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? 1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Double.compare(arr[startIndex + offset - 1], key) < bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		low += startIndex;
+		int high = startIndex + Math.min(offset - 1, length);
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (Double.compare(arr[middle], key) < bound){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the start of the end of a sorted portion whose values are greater than a key (or equal to it, if inclusive),
+	 * probing exponentially from the end and then searching the last probed interval by binary search.
+	 * @param {double} key
+	 * @param {double[]} arr The sorted array
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 * @param {boolean} inclusive Whether the values equal to the key belong to the end
+	 * @return {int} The index following the last value less than (or equal to, if not inclusive) the key
+	 */
+	private static int gallopBack(double key, double[] arr, int startIndex, int endIndex, boolean inclusive){
+		int bound = inclusive ? -1 : 0;
+		int length = endIndex - startIndex;
+		int low = 0;
+		int offset = 1;
+		while (offset <= length && Double.compare(arr[endIndex - offset], key) > bound){
+			low = offset;
+			offset = offset <= length >> 1 ? offset << 1 : length + 1;
+		}
+		int first = endIndex - Math.min(offset - 1, length);
+		int last = endIndex - low;
+		while (first < last){
+			int middle = (first + last) >>> 1;
+			if (Double.compare(arr[middle], key) > bound){
+				last = middle;
+			} else {
+				first = middle + 1;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of double values.
+	 * @param {double[]} inputArr The array of double values
 	 * @param {int} firstIndex
 	 * @param {int} secondIndex
 	 */
-	private static <T extends Comparable> int compare(T[] inputArr, int firstIndex, int secondIndex){
-		return compare(inputArr[firstIndex], inputArr[secondIndex]);
+	private static void compareSwap(double[] inputArr, int firstIndex, int secondIndex){
+		if (Double.compare(inputArr[firstIndex], inputArr[secondIndex]) > 0){
+			double tmp = inputArr[firstIndex];
+			inputArr[firstIndex] = inputArr[secondIndex];
+			inputArr[secondIndex] = tmp;
+			SortMetrics.moved(2);
+		}
 	}
 
 	/**
-	 * Compares two given elements 
-	 * @param {T} first
-	 * @param {T} second
-	 * @return {int} Returns a negative integer, zero, or a positive integer as this object is lessthan, equal to, or greater than the specified object.
+	 * Sorts the portion of an array of long keys between the given indexes, moving an array of int indexes along with them.
+	 * Equal keys keep the original order of their indexes.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
+	 * @param {long[]} keyScratch The scratch space for the keys, at least as long as the keys
+	 * @param {int[]} indexScratch The scratch space for the indexes, at least as long as the keys
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
 	 */
-	@SuppressWarnings("unchecked")
-	private static <T extends Comparable> int compare(T first, T second){
-		if (null == first || null == second) {
-			throw new IllegalArgumentException("Array element cannot be null!");
+	static void sort(long[] keys, int[] indexes, long[] keyScratch, int[] indexScratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length > 1){
+			int middle = length / 2;
+			sort(keys, indexes, keyScratch, indexScratch, startIndex, middle, startIndex + middle, length - middle);
 		}
-		return first.compareTo(second);
 	}
-	
+
 	/**
-	 * Swaps inside of a given array
-	 * @param {Array} inputArr The array of element, <T> The generic type of the element
+	 * Sorts on a given array of long keys and its indexes.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
+	 * @param {long[]} keyScratch The scratch space for the keys
+	 * @param {int[]} indexScratch The scratch space for the indexes
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 */
+	private static void sort(
+			long[] keys,
+			int[] indexes,
+			long[] keyScratch,
+			int[] indexScratch,
+			int leftIndex,
+			int leftLength,
+			int rightIndex,
+			int rightLength) {
+		if (leftLength > 2) {
+			int middle = leftLength / 2;
+			sort(keys, indexes, keyScratch, indexScratch, leftIndex, middle, leftIndex + middle, leftLength - middle);
+		} else if (leftLength == 2){
+			compareSwap(keys, indexes, leftIndex, leftIndex + 1);
+		}
+
+		if (rightLength > 2){
+			int middle = rightLength / 2;
+			sort(keys, indexes, keyScratch, indexScratch, rightIndex, middle, rightIndex + middle, rightLength - middle);
+		} else if (rightLength == 2){
+			compareSwap(keys, indexes, rightIndex, rightIndex + 1);
+		}
+
+		merge(keys, indexes, leftIndex, leftLength, rightIndex, rightLength, keyScratch, indexScratch);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of an array of long keys and its indexes.
+	 * Runs that are already in order are skipped and the parts already in place are trimmed as in the other merges.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
+	 * @param {int} leftIndex
+	 * @param {int} leftLength
+	 * @param {int} rightIndex
+	 * @param {int} rightLength
+	 * @param {long[]} keyScratch The scratch space for the keys, at least as long as the keys
+	 * @param {int[]} indexScratch The scratch space for the indexes, at least as long as the keys
+	 */
+	static void merge(
+			long[] keys,
+			int[] indexes,
+			int leftIndex,
+			int leftLength,
+			int rightIndex,
+			int rightLength,
+			long[] keyScratch,
+			int[] indexScratch){
+		if (leftLength == 0 || rightLength == 0 || keys[rightIndex - 1] <= keys[rightIndex]){
+			return;
+		}
+		int leftStart = gallop(keys[rightIndex], keys, leftIndex, rightIndex, true);
+		int rightEnd = gallopBack(keys[rightIndex - 1], keys, rightIndex, rightIndex + rightLength, true);
+		if (rightIndex - leftStart < rightEnd - rightIndex){
+			mergeForward(keys, indexes, leftStart, rightIndex, rightEnd, keyScratch, indexScratch);
+		} else {
+			mergeBackward(keys, indexes, leftStart, rightIndex, rightEnd, keyScratch, indexScratch);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of an array of long keys and its indexes from the front, after copying the left run to the scratch space.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {long[]} keyScratch The scratch space for the keys
+	 * @param {int[]} indexScratch The scratch space for the indexes
+	 */
+	private static void mergeForward(long[] keys, int[] indexes, int leftIndex, int rightIndex, int rightEnd, long[] keyScratch, int[] indexScratch){
+		System.arraycopy(keys, leftIndex, keyScratch, leftIndex, rightIndex - leftIndex);
+		System.arraycopy(indexes, leftIndex, indexScratch, leftIndex, rightIndex - leftIndex);
+		int tmpCur = leftIndex;
+		int tmpEnd = rightIndex;
+		int index = leftIndex;
+		int rightCur = rightIndex;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur < tmpEnd && rightCur < rightEnd){
+			if (keyScratch[tmpCur] <= keys[rightCur]){
+				keys[index] = keyScratch[tmpCur];
+				indexes[index++] = indexScratch[tmpCur++];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = gallop(keys[rightCur], keyScratch, tmpCur, tmpEnd, true) - tmpCur;
+					System.arraycopy(keyScratch, tmpCur, keys, index, count);
+					System.arraycopy(indexScratch, tmpCur, indexes, index, count);
+					tmpCur += count;
+					index += count;
+					leftWins = 0;
+				}
+			} else {
+				keys[index] = keys[rightCur];
+				indexes[index++] = indexes[rightCur++];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = gallop(keyScratch[tmpCur], keys, rightCur, rightEnd, false) - rightCur;
+					System.arraycopy(keys, rightCur, keys, index, count);
+					System.arraycopy(indexes, rightCur, indexes, index, count);
+					rightCur += count;
+					index += count;
+					rightWins = 0;
+				}
+			}
+		}
+		System.arraycopy(keyScratch, tmpCur, keys, index, tmpEnd - tmpCur);
+		System.arraycopy(indexScratch, tmpCur, indexes, index, tmpEnd - tmpCur);
+		SortMetrics.moved((tmpEnd - leftIndex) + (index - leftIndex) + (tmpEnd - tmpCur));
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of an array of long keys and its indexes from the back, after copying the right run to the scratch space.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
+	 * @param {int} leftIndex
+	 * @param {int} rightIndex
+	 * @param {int} rightEnd
+	 * @param {long[]} keyScratch The scratch space for the keys
+	 * @param {int[]} indexScratch The scratch space for the indexes
+	 */
+	private static void mergeBackward(long[] keys, int[] indexes, int leftIndex, int rightIndex, int rightEnd, long[] keyScratch, int[] indexScratch){
+		System.arraycopy(keys, rightIndex, keyScratch, rightIndex, rightEnd - rightIndex);
+		System.arraycopy(indexes, rightIndex, indexScratch, rightIndex, rightEnd - rightIndex);
+		int tmpCur = rightEnd - 1;
+		int index = rightEnd - 1;
+		int leftCur = rightIndex - 1;
+		int leftWins = 0;
+		int rightWins = 0;
+		while (tmpCur >= rightIndex && leftCur >= leftIndex){
+			if (keyScratch[tmpCur] >= keys[leftCur]){
+				keys[index] = keyScratch[tmpCur];
+				indexes[index--] = indexScratch[tmpCur--];
+				leftWins = 0;
+				if (++rightWins >= MIN_GALLOP){
+					int count = tmpCur + 1 - gallopBack(keys[leftCur], keyScratch, rightIndex, tmpCur + 1, true);
+					System.arraycopy(keyScratch, tmpCur + 1 - count, keys, index + 1 - count, count);
+					System.arraycopy(indexScratch, tmpCur + 1 - count, indexes, index + 1 - count, count);
+					tmpCur -= count;
+					index -= count;
+					rightWins = 0;
+				}
+			} else {
+				keys[index] = keys[leftCur];
+				indexes[index--] = indexes[leftCur--];
+				rightWins = 0;
+				if (++leftWins >= MIN_GALLOP){
+					int count = leftCur + 1 - gallopBack(keyScratch[tmpCur], keys, leftIndex, leftCur + 1, false);
+					System.arraycopy(keys, leftCur + 1 - count, keys, index + 1 - count, count);
+					System.arraycopy(indexes, leftCur + 1 - count, indexes, index + 1 - count, count);
+					leftCur -= count;
+					index -= count;
+					leftWins = 0;
+				}
+			}
+		}
+		System.arraycopy(keyScratch, rightIndex, keys, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		System.arraycopy(indexScratch, rightIndex, indexes, index - (tmpCur - rightIndex), tmpCur - rightIndex + 1);
+		SortMetrics.moved((rightEnd - rightIndex) + (rightEnd - 1 - index) + (tmpCur - rightIndex + 1));
+	}
+
+	/**
+	 * First compares and then swaps inside of a given array of long keys and its indexes.
+	 * @param {long[]} keys The array of long keys
+	 * @param {int[]} indexes The array of indexes that follows the keys
 	 * @param {int} firstIndex
 	 * @param {int} secondIndex
 	 */
-	private static <T> void swap(T[] inputArr, int firstIndex, int secondIndex){
-		T tmp = inputArr[firstIndex];
-		inputArr[firstIndex] = inputArr[secondIndex];
-		inputArr[secondIndex] = tmp;
+	private static void compareSwap(long[] keys, int[] indexes, int firstIndex, int secondIndex){
+		if (keys[firstIndex] > keys[secondIndex]){
+			long key = keys[firstIndex];
+			keys[firstIndex] = keys[secondIndex];
+			keys[secondIndex] = key;
+			int index = indexes[firstIndex];
+			indexes[firstIndex] = indexes[secondIndex];
+			indexes[secondIndex] = index;
+			SortMetrics.moved(2);
+		}
 	}
 }
@@ -0,0 +1,177 @@
+import java.nio.ByteBuffer;
+
+/**
+ * This class that contains sequential version of Merge Sort for fixed-width records held in a ByteBuffer,
+ * typically a direct buffer filled from the network or a file. The records are sorted in place by a key that is
+ * read straight from the buffer, so no record is materialized as an object, and the scratch space is a buffer
+ * as well: with a direct record buffer and a reused direct scratch buffer a sort allocates nothing on the heap
+ * beyond a few buffer views. Records with equal keys keep their original order.
+ * The records are the bytes between the position and the limit of the buffer, which are left unchanged.
+ * @author NubilaPardus
+ * @name OffHeapSort
+ * @class
+ */
+public class OffHeapSort {
+
+	/**
+	 * Perform an in-place merge and sort on the records of a buffer, with a direct scratch buffer allocated for the sort.
+	 * @param {ByteBuffer} records The buffer of records, from its position to its limit
+	 * @param {RecordLayout} layout The layout of the records
+	 * @return {ByteBuffer} The sorted buffer
+	 */
+	public static ByteBuffer sort(ByteBuffer records, RecordLayout layout) {
+		if (null == records){
+			throw new IllegalArgumentException("buffer of records cannot be null");
+		}
+		return sort(records, layout, ByteBuffer.allocateDirect(records.remaining()));
+	}
+
+	/**
+	 * Perform an in-place merge and sort on the records of a buffer, using a reusable scratch buffer.
+	 * @param {ByteBuffer} records The buffer of records, from its position to its limit
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {ByteBuffer} scratch The scratch space, from its position, at least as long as the records
+	 * @return {ByteBuffer} The sorted buffer
+	 */
+	public static ByteBuffer sort(ByteBuffer records, RecordLayout layout, ByteBuffer scratch) {
+		int recordCount = checkArguments(records, layout, scratch);
+		sort(view(records, layout), view(scratch, layout), layout, 0, recordCount);
+		return records;
+	}
+
+	/**
+	 * Validates the arguments shared by the record sort methods
+	 * @param {ByteBuffer} records The buffer of records
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {ByteBuffer} scratch The scratch space
+	 * @return {int} The number of records
+	 */
+	static int checkArguments(ByteBuffer records, RecordLayout layout, ByteBuffer scratch) {
+		if (null == records || null == layout || null == scratch){
+			throw new IllegalArgumentException("buffer of records, record layout and scratch buffer cannot be null");
+		}
+		if (records.isReadOnly() || scratch.isReadOnly()){
+			throw new IllegalArgumentException("buffer of records and scratch buffer cannot be read-only");
+		}
+		int recordWidth = layout.getRecordWidth();
+		if (records.remaining() % recordWidth != 0){
+			throw new IllegalArgumentException("Buffer size " + records.remaining() + " is not a multiple of the record width " + recordWidth);
+		}
+		if (scratch.remaining() < records.remaining()){
+			throw new IllegalArgumentException("Scratch buffer has " + scratch.remaining() + " bytes, at least " + records.remaining() + " are needed");
+		}
+		return records.remaining() / recordWidth;
+	}
+
+	/**
+	 * Provides a view of a buffer that starts at its position and uses the byte order of the layout
+	 * @param {ByteBuffer} buffer
+	 * @param {RecordLayout} layout
+	 * @return {ByteBuffer}
+	 */
+	static ByteBuffer view(ByteBuffer buffer, RecordLayout layout) {
+		return buffer.slice().order(layout.getByteOrder());
+	}
+
+	/**
+	 * Sorts the records between the given indexes.
+	 * @param {ByteBuffer} records The view of the records
+	 * @param {ByteBuffer} scratch The view of the scratch space
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {int} startIndex The start record index, inclusively.
+	 * @param {int} endIndex The end record index, exclusively.
+	 */
+	static void sort(ByteBuffer records, ByteBuffer scratch, RecordLayout layout, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length < 2){
+			return;
+		}
+		if (length == 2){
+			if (key(records, layout, startIndex) > key(records, layout, startIndex + 1)){
+				swap(records, scratch, layout, startIndex, startIndex + 1);
+			}
+			return;
+		}
+		int middleIndex = startIndex + length / 2;
+		sort(records, scratch, layout, startIndex, middleIndex);
+		sort(records, scratch, layout, middleIndex, endIndex);
+		merge(records, scratch, layout, startIndex, middleIndex, endIndex);
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of records. A single comparison skips runs that are already in order,
+	 * otherwise the left run is copied to the same indexes of the scratch space and merged back with the right run.
+	 * @param {ByteBuffer} records The view of the records
+	 * @param {ByteBuffer} scratch The view of the scratch space
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} rightIndex The start index of the right run, which ends the left run.
+	 * @param {int} endIndex The end index of the right run, exclusively.
+	 */
+	static void merge(ByteBuffer records, ByteBuffer scratch, RecordLayout layout, int leftIndex, int rightIndex, int endIndex) {
+		if (key(records, layout, rightIndex - 1) <= key(records, layout, rightIndex)){
+			return;
+		}
+		copy(records, leftIndex, scratch, leftIndex, rightIndex - leftIndex, layout);
+		int leftEnd = rightIndex;
+		int index = leftIndex;
+		long leftKey = key(scratch, layout, leftIndex);
+		long rightKey = key(records, layout, rightIndex);
+		while (true){
+			if (rightKey < leftKey){
+				copy(records, rightIndex++, records, index++, 1, layout);
+				if (rightIndex == endIndex){
+					break;
+				}
+				rightKey = key(records, layout, rightIndex);
+			} else {
+				copy(scratch, leftIndex++, records, index++, 1, layout);
+				if (leftIndex == leftEnd){
+					return;
+				}
+				leftKey = key(scratch, layout, leftIndex);
+			}
+		}
+		copy(scratch, leftIndex, records, index, leftEnd - leftIndex, layout);
+	}
+
+	/**
+	 * Reads the key of a record
+	 * @param {ByteBuffer} buffer The view that holds the record
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {int} index The index of the record
+	 * @return {long} The key, as a long with the same order
+	 */
+	static long key(ByteBuffer buffer, RecordLayout layout, int index) {
+		return layout.key(buffer, index * layout.getRecordWidth());
+	}
+
+	/**
+	 * Copies consecutive records from one view to another, the two ranges must not overlap
+	 * @param {ByteBuffer} source
+	 * @param {int} sourceIndex The index of the first copied record in the source
+	 * @param {ByteBuffer} destination
+	 * @param {int} destinationIndex The index of the first copied record in the destination
+	 * @param {int} count The number of records
+	 * @param {RecordLayout} layout The layout of the records
+	 */
+	static void copy(ByteBuffer source, int sourceIndex, ByteBuffer destination, int destinationIndex, int count, RecordLayout layout) {
+		int recordWidth = layout.getRecordWidth();
+		destination.put(destinationIndex * recordWidth, source, sourceIndex * recordWidth, count * recordWidth);
+		SortMetrics.moved(count);
+	}
+
+	/**
+	 * Swaps two records, going through the scratch space at the index of the first one
+	 * @param {ByteBuffer} records The view of the records
+	 * @param {ByteBuffer} scratch The view of the scratch space
+	 * @param {RecordLayout} layout The layout of the records
+	 * @param {int} firstIndex
+	 * @param {int} secondIndex
+	 */
+	static void swap(ByteBuffer records, ByteBuffer scratch, RecordLayout layout, int firstIndex, int secondIndex) {
+		copy(records, firstIndex, scratch, firstIndex, 1, layout);
+		copy(records, secondIndex, records, firstIndex, 1, layout);
+		copy(scratch, firstIndex, records, secondIndex, 1, layout);
+	}
+}
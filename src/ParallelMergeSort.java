@@ -1,11 +1,15 @@
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * This class that contains parallel version (using executor service) of Merge Sort
@@ -16,8 +20,11 @@ import java.util.concurrent.Future;
 public class ParallelMergeSort {
 	
 	public static final int MIN_GRANULARITY = 256;
+	private static final int MAX_MERGE_PIECES = 64;
+	private static final String SORTER_NAME = "executor";
 	private final ExecutorService executor;
 	private final int granularity;
+	private final int leavesInFlight;
 
 	/**
 	 * Constructor
@@ -41,6 +48,24 @@ public class ParallelMergeSort {
 		}
 		this.executor = executor;
 		this.granularity = granularity;
+		this.leavesInFlight = parallelism(executor);
+	}
+
+	/**
+	 * Estimates how many tasks an executor runs at once, which is how many sort tasks are kept submitted
+	 * @param {ExecutorService} executor The executor the sort tasks are submitted to
+	 * @return {int}
+	 */
+	private static int parallelism(final ExecutorService executor){
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (executor instanceof ThreadPoolExecutor){
+			ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			return Math.max(1, Math.min(pool.getMaximumPoolSize(), Math.max(pool.getCorePoolSize(), processors)));
+		}
+		if (executor instanceof ForkJoinPool){
+			return ((ForkJoinPool) executor).getParallelism();
+		}
+		return processors;
 	}
 
 	
@@ -52,182 +77,793 @@ public class ParallelMergeSort {
 	 */
 	public <T extends Comparable> T[] sort(final T[] comparableElementArray, final Class<T> elementClass)
 			throws InterruptedException, ExecutionException {
-		if (null == comparableElementArray){
+		return sort(comparableElementArray, elementClass, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, using the scratch space of a reusable buffer.
+	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
+	 * @param {Class<>} elementClass The class of the element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T extends Comparable> T[] sort(final T[] comparableElementArray, final Class<T> elementClass, final SortBuffer buffer)
+			throws InterruptedException, ExecutionException {
+		return sort(comparableElementArray, MergeSort.NATURAL_ORDER, buffer);
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sort(final T[] elementArray, final Comparator<? super T> comparator)
+			throws InterruptedException, ExecutionException {
+		return sort(elementArray, comparator, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a comparator
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sort(final T[] elementArray, final Comparator<? super T> comparator, final SortBuffer buffer)
+			throws InterruptedException, ExecutionException {
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		try {
+			SortMetrics.CountingComparator<T> counter = SortMetrics.counting(comparator);
+			invoke(MergeKernel.of(elementArray, null == counter ? comparator : counter, buffer.objects(elementArray.length)), elementArray.length, counter);
+		} finally {
+			buffer.release(elementArray.length);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key.
+	 * The keys are extracted once and sorted together with the element indexes as packed long values.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor)
+			throws InterruptedException, ExecutionException {
+		return sortByInt(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by an int key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByInt(final T[] elementArray, final ToIntFunction<? super T> keyExtractor, final SortBuffer buffer)
+			throws InterruptedException, ExecutionException {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		try {
+			long[] packedKeys = MergeSort.packKeys(elementArray, keyExtractor, buffer.keys(length));
+			run(MergeKernel.of(packedKeys, buffer.longs(length)), length);
+			MergeSort.reorder(elementArray, packedKeys, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key.
+	 * The keys are extracted once into a primitive array and sorted together with the element indexes.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor)
+			throws InterruptedException, ExecutionException {
+		return sortByLong(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of element, ordered by a long key
+	 * and using the scratch space of a reusable buffer.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public <T> T[] sortByLong(final T[] elementArray, final ToLongFunction<? super T> keyExtractor, final SortBuffer buffer)
+			throws InterruptedException, ExecutionException {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		int length = elementArray.length;
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		try {
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			MergeSort.extractKeys(elementArray, keyExtractor, keys, indexes);
+			run(MergeKernel.of(keys, indexes, buffer.longs(length), buffer.ints(length)), length);
+			MergeSort.reorder(elementArray, indexes, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, null);
+		}
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		if (null == inputArr){
 			throw new IllegalArgumentException("Array of elements cannot be null!");
 		}
-		if (comparableElementArray.length < 2){
-			return comparableElementArray;
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
 		}
-		for (Future<T> f : executor.invokeAll(build(comparableElementArray, elementClass, 0, comparableElementArray.length))){
-			f.get();
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
 		}
-		return comparableElementArray;
+		invoke(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length);
+		return inputArr;
 	}
 
 	/**
-	 * Splits the array into smaller executable workloads
-	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
-	 * @param {Class<>} elementClass The class of the element
-	 * @param {int} startIndex The start index from the array of elements to be sorted, inclusively.
-	 * @param {int} endIndex The end index from the array of elements to be sorted, exclusively.
-	 * @return {List<Callable<>>} original array with sorted element
+	 * Perform an in-place merge and sort on a given array of float values.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {float[]} The sorted array
 	 */
-	private <T extends Comparable> List<Callable<T>> build(T[] comparableElementArray, Class<T> elementClass, int startIndex, int endIndex){
-		List<Callable<T>> tasks = new ArrayList<>();
-		tasks.add(build(comparableElementArray, startIndex, endIndex, tasks, elementClass));
-		return tasks;
+	public float[] sort(final float[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
 	}
 
 	/**
-	 * Splits the array into MergeSortTas where each of the task is either a SortTask  or a MergeTask. 
-	 * The sort tasks sort an exclusive portion on the array of elements, 
-	 * while the merge tasks wait for its dependent sort tasks (or merge tasks) to be finished using a latch. 
-	 * When finished, the merge tasks perform a merge operation on its dependent task's elements.
-	 * @param {Array} comparableElementArray The array of element, <T> The generic type of the element
+	 * Perform an in-place merge and sort on a given array of float values, using the scratch space of a reusable buffer.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {float[]} The sorted array
+	 */
+	public float[] sort(final float[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of double values.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of double values, using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {double[]} The sorted array
+	 */
+	public double[] sort(final double[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		if (null == inputArr){
+			throw new IllegalArgumentException("Array of elements cannot be null!");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("SortBuffer cannot be null!");
+		}
+		invoke(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length);
+		return inputArr;
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of element, ordered by a comparator, and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress, the tasks not yet started being abandoned on cancellation.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public <T> SortFuture<T[]> sortAsync(final T[] elementArray, final Comparator<? super T> comparator) {
+		SortBuffer buffer = new SortBuffer();
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		return invokeAsync(MergeKernel.of(elementArray, comparator, buffer.objects(elementArray.length)), elementArray.length, elementArray, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of element, ordered by a comparator, and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed
+	 * before the timeout, the deadline being checked before every task.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {Comparator<>} comparator The comparator that determines the order of the elements
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public <T> SortFuture<T[]> sortAsync(final T[] elementArray, final Comparator<? super T> comparator, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		MergeSort.checkArguments(elementArray, comparator, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(elementArray, comparator, buffer.objects(elementArray.length)), elementArray.length, elementArray, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of int values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<int[]> sortAsync(final int[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of int values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<int[]> sortAsync(final int[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.ints(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of long values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<long[]> sortAsync(final long[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of long values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<long[]> sortAsync(final long[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.longs(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of float values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {float[]} inputArr The array of float values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<float[]> sortAsync(final float[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of float values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {float[]} inputArr The array of float values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<float[]> sortAsync(final float[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.floats(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of double values and returns at once.
+	 * The sort can be cancelled through the returned future, which also reports its progress.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<double[]> sortAsync(final double[] inputArr) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length, inputArr, SortFuture.NO_DEADLINE);
+	}
+
+	/**
+	 * Starts an in-place merge and sort on a given array of double values and returns at once.
+	 * The sort stops and the returned future completes exceptionally with a TimeoutException when it has not completed before the timeout.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {SortFuture<>} The future that completes with the sorted array
+	 */
+	public SortFuture<double[]> sortAsync(final double[] inputArr, final long timeout, final TimeUnit unit) {
+		SortBuffer buffer = new SortBuffer();
+		RadixSort.checkArguments(inputArr, buffer);
+		long timeoutNanos = SortFuture.timeoutNanos(timeout, unit);
+		return invokeAsync(MergeKernel.of(inputArr, buffer.doubles(inputArr.length)), inputArr.length, inputArr, timeoutNanos);
+	}
+
+	/**
+	 * Submits the sort tasks for a kernel and waits for the root of the task graph to finish
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 */
+	private void invoke(final MergeKernel kernel, final int length) throws InterruptedException, ExecutionException {
+		invoke(kernel, length, null);
+	}
+
+	/**
+	 * Submits the sort tasks for a kernel, waits for the root of the task graph to finish,
+	 * and reports the sort when the metrics are enabled
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 * @param {CountingComparator<>} counter The comparator that counts the comparisons, or null
+	 */
+	private void invoke(final MergeKernel kernel, final int length, final SortMetrics.CountingComparator<?> counter)
+			throws InterruptedException, ExecutionException {
+		if (length < 2){
+			return;
+		}
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		run(kernel, length);
+		if (SortMetrics.ENABLED){
+			SortMetrics.sortCompleted(SORTER_NAME, length, sample, counter);
+		}
+	}
+
+	/**
+	 * Submits the sort tasks for a kernel and waits for the root of the task graph to finish, without reporting the sort,
+	 * for the sorts that report their other steps with it
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 */
+	private void run(final MergeKernel kernel, final int length) throws InterruptedException, ExecutionException {
+		if (length < 2){
+			return;
+		}
+		submit(kernel, length, null, SortFuture.NO_DEADLINE).get();
+	}
+
+	/**
+	 * Submits the sort tasks of an asynchronous sort for a kernel, and reports the sort when the metrics are enabled
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 * @param {R} result The sorted array the future completes with
+	 * @param {long} timeoutNanos The time the sort may take in nanoseconds, or no deadline
+	 * @return {SortFuture<>}
+	 */
+	private <R> SortFuture<R> invokeAsync(final MergeKernel kernel, final int length, final R result, final long timeoutNanos){
+		SortMetrics.Sample sample = SortMetrics.sample(null);
+		SortFuture<R> future = submit(kernel, length, result, timeoutNanos);
+		if (SortMetrics.ENABLED){
+			future.thenRun(() -> SortMetrics.sortCompleted(SORTER_NAME, length, sample, null));
+		}
+		return future;
+	}
+
+	/**
+	 * Builds the task graph for a kernel and submits its first sort tasks, one per thread of the executor;
+	 * every sort task then submits the next one when it finishes, so the queue of the executor never holds more
+	 * than a few tasks of the sort and an executor with a bounded queue does not reject them
+	 * @param {MergeKernel} kernel The kernel bound to the array to be sorted
+	 * @param {int} length The length of the array to be sorted
+	 * @param {R} result The sorted array the future completes with
+	 * @param {long} timeoutNanos The time the sort may take in nanoseconds, or no deadline
+	 * @return {SortFuture<>} The future that completes when the root of the task graph has finished
+	 */
+	private <R> SortFuture<R> submit(final MergeKernel kernel, final int length, final R result, final long timeoutNanos){
+		SortFuture<R> future = new SortFuture<>(result, SortFuture.work(length, granularity), timeoutNanos);
+		List<SortTask> leaves = new ArrayList<>();
+		SortJob job = new SortJob(executor, kernel, future, leaves);
+		build(job, 0, length, null, leaves, 0);
+		future.enter();
+		try {
+			for (int i = 0; i < leavesInFlight; i++){
+				SortTask leaf = job.nextLeaf();
+				if (null == leaf){
+					break;
+				}
+				job.submit(leaf);
+			}
+		} finally {
+			future.exit();
+		}
+		return future;
+	}
+
+	/**
+	 * Splits the array into a graph of MergeSortTasks where each of the task is either a SortTask or a MergeTask. 
+	 * The sort tasks sort an exclusive portion on the array of elements and are submitted from left to right,
+	 * while a merge task is submitted by whichever of its two dependent tasks finishes last.
+	 * No task ever waits for another one, so the graph makes progress on any executor, however small.
+	 * @param {SortJob} job The state shared by the tasks of one sort
 	 * @param {int} startIndex The start index from the array of elements to be sorted, inclusively.
 	 * @param {int} endIndex The end index from the array of elements to be sorted, exclusively.
-	 * @param {List<Callable<>>} tasks 
-	 * @param {Class<>} elementClass The class of the element
-	 * @return {<T>} 
+	 * @param {MergeTask} parent The merge task that depends on the built task, or null for the root
+	 * @param {List<SortTask>} leaves The list that receives the sort tasks
+	 * @param {int} level The depth of the built task in the graph, the root being at level 0
 	 */
-	private <T extends Comparable> Callable<T> build(
-			T[] comparableElementArray,
-			int startIndex,
-			int endIndex,
-			List<Callable<T>> tasks,
-			Class<T> elementClass){
-
+	private void build(SortJob job, int startIndex, int endIndex, MergeTask parent, List<SortTask> leaves, int level){
 		int len = endIndex - startIndex;
 		if (len < granularity) {
-			return new SortTask<>(comparableElementArray, startIndex, endIndex);
+			leaves.add(new SortTask(job, startIndex, endIndex, parent, level));
 		} else {
-			int middle = len / 2;
-			CountDownLatch latch = new CountDownLatch(2);
-			tasks.add(new ForkTask<>(latch, build(comparableElementArray, startIndex, startIndex + middle, tasks, elementClass)));
-			tasks.add(new ForkTask<>(latch, build(comparableElementArray, startIndex + middle, endIndex, tasks, elementClass)));
-			return new JoinTask<>(latch, new MergeTask<>(comparableElementArray, startIndex, startIndex + middle, startIndex + middle, endIndex, elementClass));
+			int middle = startIndex + len / 2;
+			MergeTask merge = new MergeTask(job, startIndex, middle, endIndex, parent, level);
+			build(job, startIndex, middle, merge, leaves, level + 1);
+			build(job, middle, endIndex, merge, leaves, level + 1);
+		}
+	}
+
+	/**
+	 * The state shared by the tasks of one sort
+	 * @name SortJob
+	 * @class
+	 */
+	private static class SortJob {
+		private final ExecutorService executor;
+		private final MergeKernel kernel;
+		private final SortFuture<?> completion;
+		private final List<SortTask> leaves;
+		private final AtomicInteger nextLeaf = new AtomicInteger();
+
+		private SortJob(ExecutorService executor, MergeKernel kernel, SortFuture<?> completion, List<SortTask> leaves) {
+			this.executor = executor;
+			this.kernel = kernel;
+			this.completion = completion;
+			this.leaves = leaves;
+		}
+
+		/**
+		 * Takes the next sort task that has not been submitted yet
+		 * @return {SortTask} The sort task, or null when all of them have been taken
+		 */
+		private SortTask nextLeaf() {
+			int index = nextLeaf.getAndIncrement();
+			return index < leaves.size() ? leaves.get(index) : null;
+		}
+
+		/**
+		 * Submits a task to the executor, and runs it on the calling thread if the executor rejects it,
+		 * so that a merge whose portion is already in the scratch space always writes it back
+		 * @param {Runnable} task
+		 */
+		private void submit(Runnable task) {
+			if (!trySubmit(task)){
+				completion.enter();
+				task.run();
+			}
+		}
+
+		/**
+		 * Submits a task to the executor
+		 * @param {Runnable} task
+		 * @return {boolean} false if the executor rejected the task
+		 */
+		private boolean trySubmit(Runnable task) {
+			if (SortMetrics.ENABLED && task instanceof MergeSortTask){
+				((MergeSortTask) task).submittedNanos = System.nanoTime();
+			}
+			completion.enter();
+			try {
+				executor.execute(task);
+				return true;
+			} catch (RejectedExecutionException e){
+				completion.exit();
+				return false;
+			}
 		}
 	}
 
 	/**
 	 * The interfaces for the parallel merge & sort tasks
 	 * @name MergeSortTask
-	 * @extends Callable<>
+	 * @extends Runnable
 	 * @class
 	 */
-	private static abstract class MergeSortTask<T extends Comparable> implements Callable<T> {
-		protected final T[] comparableElementArray;
+	private static abstract class MergeSortTask implements Runnable {
+		protected final SortJob job;
 		protected final int startIndex;
 		protected final int endIndex;
+		protected final MergeTask parent;
+		protected final int level;
+		private long submittedNanos;
 
-		protected MergeSortTask(T[] comparableElementArray, int startIndex, int endIndex) {
-			this.comparableElementArray = comparableElementArray;
+		protected MergeSortTask(SortJob job, int startIndex, int endIndex, MergeTask parent, int level) {
+			this.job = job;
 			this.startIndex = startIndex;
 			this.endIndex = endIndex;
+			this.parent = parent;
+			this.level = level;
+			SortMetrics.taskCreated();
+		}
+
+		/**
+		 * Runs the task unless the sort has failed, has been cancelled or has passed its deadline
+		 */
+		@Override
+		public final void run() {
+			try {
+				if (!job.completion.proceed()){
+					return;
+				}
+				if (SortMetrics.ENABLED){
+					SortMetrics.listener().onTaskStarted(SORTER_NAME, System.nanoTime() - submittedNanos);
+				}
+				try {
+					execute();
+				} catch (Throwable t){
+					job.completion.completeExceptionally(t);
+				}
+			} finally {
+				job.completion.exit();
+			}
+		}
+
+		/**
+		 * Does the work of the task, then calls {@link #complete()} (possibly later, from another thread)
+		 */
+		protected abstract void execute();
+
+		/**
+		 * Notifies the dependent merge task, or completes the sort when this task is the root
+		 */
+		protected void complete() {
+			if (null == parent){
+				job.completion.finish();
+			} else {
+				parent.childCompleted();
+			}
 		}
 	}
 
 	/**
-	 * Sort tasks sort the desinated portion on the array of elements.
+	 * Sort tasks sort the desinated portion on the array of elements, then submit the next sort task.
+	 * When the executor rejects it, the task sorts it as well and tries to submit the one after.
 	 * @name SortTask
-	 * @extends MergeSortTask<>
+	 * @extends MergeSortTask
 	 * @class
 	 */
-	private static class SortTask<T extends Comparable> extends MergeSortTask<T> {
+	private static class SortTask extends MergeSortTask {
 
-		protected SortTask(T[] comparableElementArray, int startIndex, int endIndex) {
-			super(comparableElementArray, startIndex, endIndex);
+		private SortTask(SortJob job, int startIndex, int endIndex, MergeTask parent, int level) {
+			super(job, startIndex, endIndex, parent, level);
 		}
 
 		@Override
-		public T call() throws Exception {
-			Arrays.sort(comparableElementArray, startIndex, endIndex);
-			return null;
+		protected void execute() {
+			SortTask leaf = this;
+			do {
+				leaf.sortLeaf();
+				leaf = job.completion.proceed() ? job.nextLeaf() : null;
+			} while (null != leaf && !job.trySubmit(leaf));
+		}
+
+		/**
+		 * Sorts the portion and notifies the dependent merge task
+		 */
+		private void sortLeaf() {
+			long start = SortMetrics.start();
+			job.kernel.sort(startIndex, endIndex);
+			if (SortMetrics.ENABLED){
+				SortMetrics.listener().onLeafSorted(SORTER_NAME, level, endIndex - startIndex, System.nanoTime() - start);
+			}
+			job.completion.advance(endIndex - startIndex);
+			complete();
 		}
 	}
 
 	/**
-	 * A wrapper that forks a given callable task and track its completion before counting down a latch
-	 * @name ForkTask
-	 * @extends Callable<>
+	 * Merge tasks merge the two disjoint but continuous portions of an array of elements,
+	 * once both of the tasks that sort them have completed.
+	 * @name MergeTask
+	 * @extends MergeSortTask
 	 * @class
 	 */
-	private static class ForkTask<T> implements Callable<T> {
-		private final CountDownLatch latch;
-		private final Callable<T> task;
+	private static class MergeTask extends MergeSortTask {
+		private final int middleIndex;
+		private final AtomicInteger pendingChildren = new AtomicInteger(2);
+		private final AtomicInteger pendingPieces = new AtomicInteger();
+		private long mergeStart;
 
-		protected ForkTask(CountDownLatch latch, Callable<T> task) {
-			this.latch = latch;
-			this.task = task;
+		private MergeTask(SortJob job, int startIndex, int middleIndex, int endIndex, MergeTask parent, int level) {
+			super(job, startIndex, endIndex, parent, level);
+			this.middleIndex = middleIndex;
+		}
+
+		/**
+		 * Counts down the dependent tasks and submits the merge when the last one has completed
+		 */
+		private void childCompleted() {
+			if (pendingChildren.decrementAndGet() == 0){
+				job.submit(this);
+			}
 		}
 
+		/**
+		 * Merges small portions on the calling thread. Larger portions are copied to the scratch space and split
+		 * into independent pieces at co-ranked positions; all pieces but one are submitted to the executor,
+		 * and whichever piece finishes last completes the merge. Once the portion has been copied, every piece runs
+		 * even if the sort is cancelled, and on the calling thread if the executor rejects it, so the array keeps
+		 * all of its elements.
+		 */
 		@Override
-		public T call() throws Exception {
-			try {
-				return task.call();
-			} catch (Exception e){
-				throw new ExecutionException("Error while trying to execute forked task " + task.getClass().toString(), e);
-			} finally {
-				latch.countDown();
+		protected void execute() {
+			MergeKernel kernel = job.kernel;
+			mergeStart = SortMetrics.start();
+			if (endIndex - startIndex < MergeKernel.PARALLEL_MERGE_THRESHOLD){
+				kernel.merge(startIndex, middleIndex - startIndex, middleIndex, endIndex - middleIndex);
+				merged();
+			} else if (kernel.compare(middleIndex - 1, middleIndex) <= 0){
+				merged();
+			} else {
+				kernel.copyToScratch(startIndex, endIndex);
+				List<MergePiece> pieces = new ArrayList<>();
+				int pieceLength = Math.max(MergeKernel.PARALLEL_MERGE_THRESHOLD, (endIndex - startIndex) / MAX_MERGE_PIECES);
+				split(startIndex, middleIndex, middleIndex, endIndex, startIndex, pieceLength, pieces);
+				pendingPieces.set(pieces.size());
+				for (int i = 1; i < pieces.size(); i++){
+					job.submit(pieces.get(i));
+				}
+				pieces.get(0).merge();
 			}
 		}
-	}
 
-	/**
-	 * A wrapper tasks that waits for the latch to reach zero before running a callable task.
-	 * @name JoinTask
-	 * @extends Callable<>
-	 * @class
-	 */
-	private static class JoinTask<T> implements Callable<T> {
-		private final CountDownLatch latch;
-		private final Callable<T> task;
+		/**
+		 * Counts down the merge pieces and completes the merge when the last one has finished
+		 */
+		private void pieceCompleted() {
+			if (pendingPieces.decrementAndGet() == 0){
+				merged();
+			}
+		}
 
-		private JoinTask(CountDownLatch latch, Callable<T> task) {
-			this.latch = latch;
-			this.task = task;
+		/**
+		 * Reports the merge when the metrics are enabled and completes the task
+		 */
+		private void merged() {
+			if (SortMetrics.ENABLED){
+				SortMetrics.listener().onMerged(SORTER_NAME, level, endIndex - startIndex, System.nanoTime() - mergeStart);
+			}
+			job.completion.advance(endIndex - startIndex);
+			complete();
 		}
 
-		@Override
-		public T call() throws Exception {
-			latch.await();
-			return task.call();
+		/**
+		 * Splits the merge of two runs of the scratch space into pieces no longer than a given length.
+		 * The longer run is split at its middle element and the shorter one at the co-ranked position found by binary search.
+		 * @param {int} leftIndex The start index of the left run, inclusively.
+		 * @param {int} leftEnd The end index of the left run, exclusively.
+		 * @param {int} rightIndex The start index of the right run, inclusively.
+		 * @param {int} rightEnd The end index of the right run, exclusively.
+		 * @param {int} destinationIndex The index of the array the merged elements are written from
+		 * @param {int} pieceLength The maximum length of a piece
+		 * @param {List<MergePiece>} pieces The list that receives the pieces
+		 */
+		private void split(int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex, int pieceLength, List<MergePiece> pieces){
+			int leftLength = leftEnd - leftIndex;
+			int rightLength = rightEnd - rightIndex;
+			if (leftLength + rightLength <= pieceLength){
+				pieces.add(new MergePiece(this, leftIndex, leftEnd, rightIndex, rightEnd, destinationIndex));
+				return;
+			}
+			int leftMiddle;
+			int rightMiddle;
+			if (leftLength >= rightLength){
+				leftMiddle = (leftIndex + leftEnd) >>> 1;
+				rightMiddle = job.kernel.search(leftMiddle, rightIndex, rightEnd, false);
+			} else {
+				rightMiddle = (rightIndex + rightEnd) >>> 1;
+				leftMiddle = job.kernel.search(rightMiddle, leftIndex, leftEnd, true);
+			}
+			split(leftIndex, leftMiddle, rightIndex, rightMiddle, destinationIndex, pieceLength, pieces);
+			split(leftMiddle, leftEnd, rightMiddle, rightEnd, destinationIndex + (leftMiddle - leftIndex) + (rightMiddle - rightIndex), pieceLength, pieces);
 		}
 	}
 
 	/**
-	 * Merge tasks merge the two disjoint but continuous portions of an array of elements.
-	 * @name MergeTask
-	 * @extends MergeSortTask<>
+	 * A piece of a parallel merge that merges two co-ranked parts of the scratch space into the array.
+	 * @name MergePiece
+	 * @extends Runnable
 	 * @class
 	 */
-	private static class MergeTask<T extends Comparable> extends MergeSortTask<T> {
-		private final Class<T> elementClass;
-		private final int leftLength;
-		private final int rightLength;
+	private static class MergePiece implements Runnable {
+		private final MergeTask merge;
+		private final int leftIndex;
+		private final int leftEnd;
+		private final int rightIndex;
+		private final int rightEnd;
+		private final int destinationIndex;
 
-		private MergeTask(
-				T[] comparableElementArray,
-				int leftStartIndex,
-				int leftEndIndex,
-				int rightStartIndex,
-				int rightEndIndex,
-				Class<T> elementClass) {
-			super(comparableElementArray, leftStartIndex, rightEndIndex);
-			this.leftLength = leftEndIndex - leftStartIndex;
-			this.rightLength = rightEndIndex - rightStartIndex;
-			this.elementClass = elementClass;
+		private MergePiece(MergeTask merge, int leftIndex, int leftEnd, int rightIndex, int rightEnd, int destinationIndex) {
+			this.merge = merge;
+			this.leftIndex = leftIndex;
+			this.leftEnd = leftEnd;
+			this.rightIndex = rightIndex;
+			this.rightEnd = rightEnd;
+			this.destinationIndex = destinationIndex;
+			SortMetrics.taskCreated();
 		}
 
 		@Override
-		public T call() throws Exception {
-			MergeSort.merge(
-					comparableElementArray,
-					startIndex, leftLength,
-					startIndex + leftLength, rightLength,
-					elementClass
-					);
-			return null;
+		public void run() {
+			try {
+				merge();
+			} finally {
+				merge.job.completion.exit();
+			}
+		}
+
+		/**
+		 * Merges the piece and counts it down
+		 */
+		private void merge() {
+			try {
+				merge.job.kernel.mergeFromScratch(leftIndex, leftEnd, rightIndex, rightEnd, destinationIndex);
+				merge.pieceCompleted();
+			} catch (Throwable t){
+				merge.job.completion.completeExceptionally(t);
+			}
 		}
 	}
 }
@@ -0,0 +1,299 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class that sorts the buckets of a {@link SampleSort} in worker JVM processes on the same machine.
+ * Each worker sorts one bucket at a time, received over its standard input and sent back sorted over its standard output,
+ * so the buckets are sorted with the memory bandwidth and the heaps of several processes. The workers can be started
+ * with a custom command, for example prefixed with numactl to bind every worker to a NUMA node.
+ * The workers are started by the constructor and stopped by {@link #close()}. A worker that fails to sort a bucket
+ * may be out of step with its streams, so it is killed and replaced by a new process started with the same command.
+ * @author NubilaPardus
+ * @name ProcessBucketSorter
+ * @class
+ */
+public class ProcessBucketSorter implements SampleSort.BucketSorter, AutoCloseable {
+
+	private static final int INT_VALUES = 0;
+	private static final int LONG_VALUES = 1;
+	private static final int TRANSFER_BYTES = 1 << 16;
+	private static final long STOP_TIMEOUT_SECONDS = 5;
+
+	private final List<Worker> workers = new ArrayList<>();
+	private final BlockingQueue<Worker> idleWorkers;
+	private boolean closed;
+
+	/**
+	 * Constructor, starting worker JVMs with the Java runtime and class path of this JVM
+	 * @param {int} processes The number of worker processes
+	 */
+	public ProcessBucketSorter(final int processes) throws IOException {
+		this(nCopies(processes, workerCommand()));
+	}
+
+	/**
+	 * Constructor
+	 * @param {List<>} commands The command that starts every worker process, which must run the main method of this class
+	 */
+	public ProcessBucketSorter(final List<List<String>> commands) throws IOException {
+		if (null == commands || commands.isEmpty()){
+			throw new IllegalArgumentException("At least one worker command is needed");
+		}
+		this.idleWorkers = new ArrayBlockingQueue<>(commands.size());
+		try {
+			for (List<String> command : commands){
+				Worker worker = new Worker(command);
+				workers.add(worker);
+				idleWorkers.add(worker);
+			}
+		} catch (IOException e){
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Provides the command that starts a worker with the Java runtime and class path of this JVM
+	 * @return {List<>}
+	 */
+	public static List<String> workerCommand(){
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		return List.of(java, "-cp", System.getProperty("java.class.path"), ProcessBucketSorter.class.getName());
+	}
+
+	private static List<List<String>> nCopies(final int processes, final List<String> command){
+		if (processes < 1){
+			throw new IllegalArgumentException("At least one worker process is needed, got " + processes);
+		}
+		List<List<String>> commands = new ArrayList<>(processes);
+		for (int i = 0; i < processes; i++){
+			commands.add(command);
+		}
+		return commands;
+	}
+
+	@Override
+	public void sort(int[] values, int[] output, int startIndex, int endIndex) throws IOException {
+		Worker worker = acquire();
+		boolean sorted = false;
+		try {
+			worker.output.writeInt(INT_VALUES);
+			worker.output.writeInt(endIndex - startIndex);
+			writeValues(worker.output, values, startIndex, endIndex);
+			worker.output.flush();
+			readValues(worker.input, output, startIndex, endIndex);
+			sorted = true;
+		} finally {
+			release(worker, sorted);
+		}
+	}
+
+	@Override
+	public void sort(long[] values, long[] output, int startIndex, int endIndex) throws IOException {
+		Worker worker = acquire();
+		boolean sorted = false;
+		try {
+			worker.output.writeInt(LONG_VALUES);
+			worker.output.writeInt(endIndex - startIndex);
+			writeValues(worker.output, values, startIndex, endIndex);
+			worker.output.flush();
+			readValues(worker.input, output, startIndex, endIndex);
+			sorted = true;
+		} finally {
+			release(worker, sorted);
+		}
+	}
+
+	/**
+	 * Stops the workers by closing their standard input, and kills the ones that do not exit in time
+	 */
+	@Override
+	public void close(){
+		List<Worker> stoppedWorkers;
+		synchronized (workers){
+			closed = true;
+			stoppedWorkers = new ArrayList<>(workers);
+		}
+		for (Worker worker : stoppedWorkers){
+			try {
+				worker.output.close();
+			} catch (IOException e){
+				worker.process.destroyForcibly();
+			}
+		}
+		for (Worker worker : stoppedWorkers){
+			try {
+				if (!worker.process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)){
+					worker.process.destroyForcibly();
+				}
+			} catch (InterruptedException e){
+				worker.process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Takes an idle worker, starting again a failed worker that could not be replaced when it failed
+	 * @return {Worker}
+	 */
+	private Worker acquire() throws IOException {
+		Worker worker;
+		try {
+			worker = idleWorkers.take();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a worker process");
+		}
+		if (worker.failed){
+			try {
+				worker = replace(worker);
+			} catch (IOException e){
+				idleWorkers.add(worker);
+				throw e;
+			}
+		}
+		return worker;
+	}
+
+	/**
+	 * Gives a worker back to the idle workers once it has sorted a bucket. A worker that failed is killed
+	 * and replaced, or given back as failed when its replacement cannot be started, for the next sort to try again.
+	 * @param {Worker} worker
+	 * @param {boolean} sorted Whether the worker sent back its sorted bucket
+	 */
+	private void release(Worker worker, boolean sorted){
+		if (!sorted){
+			worker.failed = true;
+			worker.process.destroyForcibly();
+			try {
+				worker = replace(worker);
+			} catch (IOException e){
+				// the worker stays failed and the next sort that takes it starts it again
+			}
+		}
+		idleWorkers.add(worker);
+	}
+
+	/**
+	 * Starts a new worker process with the command of a failed one, and puts it in its place
+	 * @param {Worker} worker The failed worker
+	 * @return {Worker} The new worker
+	 */
+	private Worker replace(Worker worker) throws IOException {
+		Worker replacement = new Worker(worker.command);
+		synchronized (workers){
+			if (!closed){
+				workers.set(workers.indexOf(worker), replacement);
+				return replacement;
+			}
+		}
+		replacement.process.destroyForcibly();
+		throw new IOException("The bucket sorter is closed");
+	}
+
+	/**
+	 * The entry point of a worker process: sorts the buckets received over the standard input until it is closed
+	 * @param {String[]} args Unused
+	 */
+	public static void main(String[] args) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(System.in, TRANSFER_BYTES));
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(System.out, TRANSFER_BYTES));
+		SortBuffer buffer = new SortBuffer();
+		while (true){
+			int type;
+			try {
+				type = input.readInt();
+			} catch (EOFException e){
+				return;
+			}
+			int length = input.readInt();
+			if (type == INT_VALUES){
+				int[] values = new int[length];
+				readValues(input, values, 0, length);
+				writeValues(output, BottomUpMergeSort.sort(values, buffer), 0, length);
+			} else {
+				long[] values = new long[length];
+				readValues(input, values, 0, length);
+				writeValues(output, BottomUpMergeSort.sort(values, buffer), 0, length);
+			}
+			output.flush();
+		}
+	}
+
+	private static void writeValues(DataOutputStream output, int[] values, int startIndex, int endIndex) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(TRANSFER_BYTES);
+		for (int index = startIndex; index < endIndex; ){
+			int count = Math.min(endIndex - index, TRANSFER_BYTES / Integer.BYTES);
+			bytes.clear();
+			bytes.asIntBuffer().put(values, index, count);
+			output.write(bytes.array(), 0, count * Integer.BYTES);
+			index += count;
+		}
+	}
+
+	private static void writeValues(DataOutputStream output, long[] values, int startIndex, int endIndex) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(TRANSFER_BYTES);
+		for (int index = startIndex; index < endIndex; ){
+			int count = Math.min(endIndex - index, TRANSFER_BYTES / Long.BYTES);
+			bytes.clear();
+			bytes.asLongBuffer().put(values, index, count);
+			output.write(bytes.array(), 0, count * Long.BYTES);
+			index += count;
+		}
+	}
+
+	private static void readValues(DataInputStream input, int[] values, int startIndex, int endIndex) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(TRANSFER_BYTES);
+		for (int index = startIndex; index < endIndex; ){
+			int count = Math.min(endIndex - index, TRANSFER_BYTES / Integer.BYTES);
+			input.readFully(bytes.array(), 0, count * Integer.BYTES);
+			bytes.clear();
+			bytes.asIntBuffer().get(values, index, count);
+			index += count;
+		}
+	}
+
+	private static void readValues(DataInputStream input, long[] values, int startIndex, int endIndex) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(TRANSFER_BYTES);
+		for (int index = startIndex; index < endIndex; ){
+			int count = Math.min(endIndex - index, TRANSFER_BYTES / Long.BYTES);
+			input.readFully(bytes.array(), 0, count * Long.BYTES);
+			bytes.clear();
+			bytes.asLongBuffer().get(values, index, count);
+			index += count;
+		}
+	}
+
+	/**
+	 * A worker process, the command that started it and the streams to its standard input and output
+	 * @name Worker
+	 * @class
+	 */
+	private static class Worker {
+		private final List<String> command;
+		private final Process process;
+		private final DataOutputStream output;
+		private final DataInputStream input;
+		private boolean failed;
+
+		private Worker(List<String> command) throws IOException {
+			this.command = command;
+			this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			this.output = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), TRANSFER_BYTES));
+			this.input = new DataInputStream(new BufferedInputStream(process.getInputStream(), TRANSFER_BYTES));
+		}
+	}
+}
@@ -0,0 +1,393 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class that contains sequential version of LSD Radix Sort, a non-comparison sort for int, long and double keys.
+ * The keys are distributed by 8-bit digits from the least significant one, every pass being a stable counting sort,
+ * so a sort costs a fixed number of linear passes instead of n log n comparisons.
+ * The most significant digit has its sign bit flipped so negative keys come first, double keys are turned into
+ * longs with the order of {@link Double#compare}, and passes whose digit is the same for every key are skipped.
+ * Elements can be sorted by an int or long key, the keys being sorted together with the element indexes.
+ * @author NubilaPardus
+ * @name RadixSort
+ * @class
+ */
+public class RadixSort {
+
+	static final int DIGIT_BITS = 8;
+	static final int RADIX = 1 << DIGIT_BITS;
+	private static final int DIGIT_MASK = RADIX - 1;
+	private static final int SIGN_FLIP = RADIX >> 1;
+
+	/**
+	 * Runs an action for every chunk of an array, on the calling thread or in a pool
+	 * @name ChunkRunner
+	 * @interface
+	 */
+	@FunctionalInterface
+	interface ChunkRunner {
+		void run(int chunks, IntConsumer action);
+	}
+
+	/**
+	 * Runs the chunks one after another on the calling thread
+	 */
+	static final ChunkRunner SEQUENTIAL = (chunks, action) -> {
+		for (int chunk = 0; chunk < chunks; chunk++){
+			action.accept(chunk);
+		}
+	};
+
+	/**
+	 * Perform an in-place radix sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public static int[] sort(int[] inputArr, SortBuffer buffer) {
+		checkArguments(inputArr, buffer);
+		sort(inputArr, buffer.ints(inputArr.length), inputArr.length, 1, SEQUENTIAL);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public static long[] sort(long[] inputArr, SortBuffer buffer) {
+		checkArguments(inputArr, buffer);
+		sort(inputArr, buffer.longs(inputArr.length), inputArr.length, Long.SIZE, 1, SEQUENTIAL);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of double values, ordered like {@link Double#compare}.
+	 * @param {double[]} inputArr The array of double values
+	 * @return {double[]} The sorted array
+	 */
+	public static double[] sort(double[] inputArr) {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of double values, ordered like {@link Double#compare}
+	 * and using the scratch space of a reusable buffer.
+	 * @param {double[]} inputArr The array of double values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {double[]} The sorted array
+	 */
+	public static double[] sort(double[] inputArr, SortBuffer buffer) {
+		checkArguments(inputArr, buffer);
+		sort(inputArr, buffer, 1, SEQUENTIAL);
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by an int key.
+	 * Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByInt(T[] elementArray, ToIntFunction<? super T> keyExtractor) {
+		return sortByInt(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by an int key
+	 * and using the scratch space of a reusable buffer. Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToIntFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByInt(T[] elementArray, ToIntFunction<? super T> keyExtractor, SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		sortByKey(elementArray, element -> keyExtractor.applyAsInt(element), Integer.SIZE, buffer, 1, SEQUENTIAL);
+		return elementArray;
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by a long key.
+	 * Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByLong(T[] elementArray, ToLongFunction<? super T> keyExtractor) {
+		return sortByLong(elementArray, keyExtractor, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place radix sort on a given array of element, ordered by a long key
+	 * and using the scratch space of a reusable buffer. Elements with equal keys keep their original order.
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {Array} The sorted array
+	 */
+	public static <T> T[] sortByLong(T[] elementArray, ToLongFunction<? super T> keyExtractor, SortBuffer buffer) {
+		MergeSort.checkArguments(elementArray, keyExtractor, buffer);
+		sortByKey(elementArray, keyExtractor, Long.SIZE, buffer, 1, SEQUENTIAL);
+		return elementArray;
+	}
+
+	static void checkArguments(Object inputArr, SortBuffer buffer) {
+		if (null == inputArr){
+			throw new IllegalArgumentException("array of elements cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+	}
+
+	/**
+	 * Provides the first index of a chunk, the chunks splitting an array in nearly equal parts
+	 * @param {int} chunk The index of the chunk, the chunk count gives the end of the array
+	 * @param {int} chunks The number of chunks
+	 * @param {int} length The length of the array
+	 * @return {int}
+	 */
+	static int chunkStart(int chunk, int chunks, int length){
+		return (int) ((long) length * chunk / chunks);
+	}
+
+	/**
+	 * Turns the per-chunk digit counts of a pass into the position where each chunk writes its first key of each digit,
+	 * so the chunks can be distributed independently and the pass stays stable
+	 * @param {int[][]} counts The digit counts of every chunk, replaced by the positions
+	 * @param {int} length The number of keys
+	 * @return {boolean} Whether the pass must be done, false when all the keys have the same digit
+	 */
+	static boolean offsets(int[][] counts, int length){
+		int position = 0;
+		for (int digit = 0; digit < RADIX; digit++){
+			int total = 0;
+			for (int[] chunkCounts : counts){
+				total += chunkCounts[digit];
+			}
+			if (total == length){
+				return false;
+			}
+			for (int[] chunkCounts : counts){
+				int count = chunkCounts[digit];
+				chunkCounts[digit] = position;
+				position += count;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the first values of an array of int values
+	 * @param {int[]} values The values to be sorted
+	 * @param {int[]} scratch The scratch space, at least as long as the values to be sorted
+	 * @param {int} length The number of values to be sorted
+	 * @param {int} chunks The number of chunks the passes are split in
+	 * @param {ChunkRunner} runner Runs the chunks of a pass
+	 */
+	static void sort(int[] values, int[] scratch, int length, int chunks, ChunkRunner runner){
+		int[][] counts = new int[chunks][RADIX];
+		int[] source = values;
+		int[] target = scratch;
+		for (int shift = 0; shift < Integer.SIZE; shift += DIGIT_BITS){
+			final int[] from = source;
+			final int[] to = target;
+			final int digitShift = shift;
+			final int flip = shift + DIGIT_BITS == Integer.SIZE ? SIGN_FLIP : 0;
+			runner.run(chunks, chunk -> {
+				int[] chunkCounts = counts[chunk];
+				Arrays.fill(chunkCounts, 0);
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					chunkCounts[((from[i] >>> digitShift) & DIGIT_MASK) ^ flip]++;
+				}
+			});
+			if (!offsets(counts, length)){
+				continue;
+			}
+			runner.run(chunks, chunk -> {
+				int[] positions = counts[chunk];
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					to[positions[((from[i] >>> digitShift) & DIGIT_MASK) ^ flip]++] = from[i];
+				}
+			});
+			source = to;
+			target = from;
+		}
+		if (source != values){
+			System.arraycopy(source, 0, values, 0, length);
+		}
+	}
+
+	/**
+	 * Sorts the first values of an array of long values, on their lowest bits
+	 * @param {long[]} values The values to be sorted
+	 * @param {long[]} scratch The scratch space, at least as long as the values to be sorted
+	 * @param {int} length The number of values to be sorted
+	 * @param {int} keyBits The number of low bits that hold the signed keys, a multiple of the digit size
+	 * @param {int} chunks The number of chunks the passes are split in
+	 * @param {ChunkRunner} runner Runs the chunks of a pass
+	 */
+	static void sort(long[] values, long[] scratch, int length, int keyBits, int chunks, ChunkRunner runner){
+		int[][] counts = new int[chunks][RADIX];
+		long[] source = values;
+		long[] target = scratch;
+		for (int shift = 0; shift < keyBits; shift += DIGIT_BITS){
+			final long[] from = source;
+			final long[] to = target;
+			final int digitShift = shift;
+			final int flip = shift + DIGIT_BITS == keyBits ? SIGN_FLIP : 0;
+			runner.run(chunks, chunk -> {
+				int[] chunkCounts = counts[chunk];
+				Arrays.fill(chunkCounts, 0);
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					chunkCounts[((int) (from[i] >>> digitShift) & DIGIT_MASK) ^ flip]++;
+				}
+			});
+			if (!offsets(counts, length)){
+				continue;
+			}
+			runner.run(chunks, chunk -> {
+				int[] positions = counts[chunk];
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					to[positions[((int) (from[i] >>> digitShift) & DIGIT_MASK) ^ flip]++] = from[i];
+				}
+			});
+			source = to;
+			target = from;
+		}
+		if (source != values){
+			System.arraycopy(source, 0, values, 0, length);
+		}
+	}
+
+	/**
+	 * Sorts the first keys of an array of long keys together with an array of indexes,
+	 * equal keys keeping the order they had
+	 * @param {long[]} keys The keys to be sorted
+	 * @param {int[]} indexes The indexes moved along with the keys
+	 * @param {long[]} keyScratch The scratch space of the keys
+	 * @param {int[]} indexScratch The scratch space of the indexes
+	 * @param {int} length The number of keys to be sorted
+	 * @param {int} keyBits The number of low bits that hold the signed keys, a multiple of the digit size
+	 * @param {int} chunks The number of chunks the passes are split in
+	 * @param {ChunkRunner} runner Runs the chunks of a pass
+	 */
+	static void sort(long[] keys, int[] indexes, long[] keyScratch, int[] indexScratch, int length, int keyBits, int chunks, ChunkRunner runner){
+		int[][] counts = new int[chunks][RADIX];
+		long[] sourceKeys = keys;
+		int[] sourceIndexes = indexes;
+		long[] targetKeys = keyScratch;
+		int[] targetIndexes = indexScratch;
+		for (int shift = 0; shift < keyBits; shift += DIGIT_BITS){
+			final long[] fromKeys = sourceKeys;
+			final int[] fromIndexes = sourceIndexes;
+			final long[] toKeys = targetKeys;
+			final int[] toIndexes = targetIndexes;
+			final int digitShift = shift;
+			final int flip = shift + DIGIT_BITS == keyBits ? SIGN_FLIP : 0;
+			runner.run(chunks, chunk -> {
+				int[] chunkCounts = counts[chunk];
+				Arrays.fill(chunkCounts, 0);
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					chunkCounts[((int) (fromKeys[i] >>> digitShift) & DIGIT_MASK) ^ flip]++;
+				}
+			});
+			if (!offsets(counts, length)){
+				continue;
+			}
+			runner.run(chunks, chunk -> {
+				int[] positions = counts[chunk];
+				for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+					int position = positions[((int) (fromKeys[i] >>> digitShift) & DIGIT_MASK) ^ flip]++;
+					toKeys[position] = fromKeys[i];
+					toIndexes[position] = fromIndexes[i];
+				}
+			});
+			sourceKeys = toKeys;
+			sourceIndexes = toIndexes;
+			targetKeys = fromKeys;
+			targetIndexes = fromIndexes;
+		}
+		if (sourceKeys != keys){
+			System.arraycopy(sourceKeys, 0, keys, 0, length);
+			System.arraycopy(sourceIndexes, 0, indexes, 0, length);
+		}
+	}
+
+	/**
+	 * Sorts an array of double values through longs with the same order
+	 * @param {double[]} values The values to be sorted
+	 * @param {SortBuffer} buffer The buffer that provides the longs and their scratch space
+	 * @param {int} chunks The number of chunks the passes are split in
+	 * @param {ChunkRunner} runner Runs the chunks of a pass
+	 */
+	static void sort(double[] values, SortBuffer buffer, int chunks, ChunkRunner runner){
+		int length = values.length;
+		long[] keys = buffer.keys(length);
+		runner.run(chunks, chunk -> {
+			for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+				keys[i] = sortableBits(Double.doubleToLongBits(values[i]));
+			}
+		});
+		sort(keys, buffer.longs(length), length, Long.SIZE, chunks, runner);
+		runner.run(chunks, chunk -> {
+			for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++){
+				values[i] = Double.longBitsToDouble(sortableBits(keys[i]));
+			}
+		});
+	}
+
+	/**
+	 * Sorts an array of element by their keys, moving the elements once after the keys are sorted
+	 * @param {Array} elementArray The array of element, <T> The generic type of the element
+	 * @param {ToLongFunction<>} keyExtractor The function that extracts the sort key of an element
+	 * @param {int} keyBits The number of low bits that hold the signed keys
+	 * @param {SortBuffer} buffer The buffer that provides the keys, the indexes and their scratch space
+	 * @param {int} chunks The number of chunks the passes are split in
+	 * @param {ChunkRunner} runner Runs the chunks of a pass
+	 */
+	static <T> void sortByKey(T[] elementArray, ToLongFunction<? super T> keyExtractor, int keyBits, SortBuffer buffer, int chunks, ChunkRunner runner){
+		int length = elementArray.length;
+		try {
+			long[] keys = buffer.keys(length);
+			int[] indexes = buffer.indexes(length);
+			MergeSort.extractKeys(elementArray, keyExtractor, keys, indexes);
+			sort(keys, indexes, buffer.longs(length), buffer.ints(length), length, keyBits, chunks, runner);
+			MergeSort.reorder(elementArray, indexes, buffer.objects(length));
+		} finally {
+			buffer.release(length);
+		}
+	}
+
+	/**
+	 * Turns the bits of a double into a long with the order of the double, and back
+	 * @param {long} bits
+	 * @return {long}
+	 */
+	static long sortableBits(long bits){
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,111 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class that describes fixed-width binary records and where their sort key is.
+ * The key is read straight from a buffer and turned into a long whose signed order is the order of the key,
+ * so records can be compared without materializing them as objects.
+ * @author NubilaPardus
+ * @name RecordLayout
+ * @class
+ */
+public class RecordLayout {
+
+	/**
+	 * The supported key types, float and double keys are ordered like {@link Float#compare} and {@link Double#compare}
+	 * @name KeyType
+	 * @enum
+	 */
+	public enum KeyType {
+		INT(Integer.BYTES), LONG(Long.BYTES), FLOAT(Float.BYTES), DOUBLE(Double.BYTES);
+
+		private final int width;
+
+		KeyType(int width){
+			this.width = width;
+		}
+
+		/**
+		 * @return {int} The width of the key in bytes
+		 */
+		public int width(){
+			return width;
+		}
+	}
+
+	private final int recordWidth;
+	private final int keyOffset;
+	private final KeyType keyType;
+	private final ByteOrder byteOrder;
+
+	/**
+	 * Constructor, for big-endian records
+	 * @param {int} recordWidth The width of a record in bytes
+	 * @param {int} keyOffset The offset of the key from the start of a record in bytes
+	 * @param {KeyType} keyType The type of the key
+	 */
+	public RecordLayout(final int recordWidth, final int keyOffset, final KeyType keyType){
+		this(recordWidth, keyOffset, keyType, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Constructor
+	 * @param {int} recordWidth The width of a record in bytes
+	 * @param {int} keyOffset The offset of the key from the start of a record in bytes
+	 * @param {KeyType} keyType The type of the key
+	 * @param {ByteOrder} byteOrder The byte order of the key
+	 */
+	public RecordLayout(final int recordWidth, final int keyOffset, final KeyType keyType, final ByteOrder byteOrder){
+		if (null == keyType || null == byteOrder){
+			throw new IllegalArgumentException("Key type and byte order cannot be null!");
+		}
+		if (keyOffset < 0 || recordWidth < keyOffset + keyType.width()){
+			throw new IllegalArgumentException("A " + keyType + " key at offset " + keyOffset + " does not fit in a record of " + recordWidth + " bytes");
+		}
+		this.recordWidth = recordWidth;
+		this.keyOffset = keyOffset;
+		this.keyType = keyType;
+		this.byteOrder = byteOrder;
+	}
+
+	public int getRecordWidth(){
+		return recordWidth;
+	}
+
+	public int getKeyOffset(){
+		return keyOffset;
+	}
+
+	public KeyType getKeyType(){
+		return keyType;
+	}
+
+	public ByteOrder getByteOrder(){
+		return byteOrder;
+	}
+
+	/**
+	 * Reads the key of a record as a long with the same order as the key.
+	 * Floating-point keys are ordered as by {@link Double#compare(double, double)}: every NaN is read as the canonical NaN,
+	 * so NaNs of any sign or payload are equal and come after the positive infinity.
+	 * The buffer is expected to use the byte order of the layout.
+	 * @param {ByteBuffer} buffer The buffer that holds the record
+	 * @param {int} recordPosition The position of the first byte of the record in the buffer
+	 * @return {long}
+	 */
+	long key(ByteBuffer buffer, int recordPosition){
+		int position = recordPosition + keyOffset;
+		switch (keyType){
+			case INT:
+				return buffer.getInt(position);
+			case LONG:
+				return buffer.getLong(position);
+			case FLOAT:
+				int floatBits = Float.floatToIntBits(buffer.getFloat(position));
+				return floatBits ^ ((floatBits >> 31) & Integer.MAX_VALUE);
+			default:
+				long doubleBits = Double.doubleToLongBits(buffer.getDouble(position));
+				return doubleBits ^ ((doubleBits >> 63) & Long.MAX_VALUE);
+		}
+	}
+}
@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class that contains a partitioned version (Sample Sort) of the sort for int and long arrays.
+ * Splitters are picked from a sorted random sample of the input, the input is distributed into buckets that hold
+ * the values between two consecutive splitters in one parallel pass, and every bucket is sorted independently by a
+ * {@link BucketSorter}, in this JVM or in worker processes (see {@link ProcessBucketSorter}). The sorted buckets follow
+ * each other in the output, so there is no final merge and the work scales beyond the memory bandwidth of a single merge.
+ * Many copies of a single value end up in a single bucket, which limits the parallelism of inputs with few distinct values.
+ * @author NubilaPardus
+ * @name SampleSort
+ * @class
+ */
+public class SampleSort {
+
+	/**
+	 * The number of sampled values per bucket
+	 */
+	static final int OVERSAMPLING = 32;
+
+	/**
+	 * The maximum number of buckets, bucket indexes being kept in bytes
+	 */
+	public static final int MAX_BUCKETS = 256;
+
+	/**
+	 * The length of the buckets below which fewer buckets are used, arrays too short for two buckets being sorted on the calling thread
+	 */
+	static final int MIN_BUCKET_LENGTH = 1 << 13;
+
+	/**
+	 * This interface that sorts the buckets of a sample sort, it is called concurrently for different buckets
+	 * @name BucketSorter
+	 * @interface
+	 */
+	public interface BucketSorter {
+
+		/**
+		 * Sorts a bucket of int values and writes it to the same indexes of the output
+		 * @param {int[]} values The array that holds the bucket, whose bucket portion may be used as scratch space
+		 * @param {int[]} output The array that receives the sorted bucket
+		 * @param {int} startIndex The start index of the bucket, inclusively.
+		 * @param {int} endIndex The end index of the bucket, exclusively.
+		 */
+		void sort(int[] values, int[] output, int startIndex, int endIndex) throws IOException;
+
+		/**
+		 * Sorts a bucket of long values and writes it to the same indexes of the output
+		 * @param {long[]} values The array that holds the bucket, whose bucket portion may be used as scratch space
+		 * @param {long[]} output The array that receives the sorted bucket
+		 * @param {int} startIndex The start index of the bucket, inclusively.
+		 * @param {int} endIndex The end index of the bucket, exclusively.
+		 */
+		void sort(long[] values, long[] output, int startIndex, int endIndex) throws IOException;
+	}
+
+	/**
+	 * The bucket sorter that merge sorts the buckets in this JVM, using the bucket portion of the output as scratch space
+	 */
+	public static final BucketSorter IN_PROCESS = new BucketSorter(){
+		@Override
+		public void sort(int[] values, int[] output, int startIndex, int endIndex){
+			MergeSort.sort(values, output, startIndex, endIndex);
+			System.arraycopy(values, startIndex, output, startIndex, endIndex - startIndex);
+		}
+
+		@Override
+		public void sort(long[] values, long[] output, int startIndex, int endIndex){
+			MergeSort.sort(values, output, startIndex, endIndex);
+			System.arraycopy(values, startIndex, output, startIndex, endIndex - startIndex);
+		}
+	};
+
+	private final ExecutorService executor;
+	private final int buckets;
+	private final BucketSorter bucketSorter;
+
+	/**
+	 * Constructor, the buckets being sorted in this JVM
+	 * @param {ExecutorService} executor The ExecutorService the partitioning and the bucket sorts run in
+	 * @param {int} buckets The number of buckets, typically the parallelism of the executor or a few times it
+	 */
+	public SampleSort(final ExecutorService executor, final int buckets){
+		this(executor, buckets, IN_PROCESS);
+	}
+
+	/**
+	 * Constructor
+	 * @param {ExecutorService} executor The ExecutorService the partitioning and the bucket sorts run in
+	 * @param {int} buckets The number of buckets
+	 * @param {BucketSorter} bucketSorter The sorter of the buckets
+	 */
+	public SampleSort(final ExecutorService executor, final int buckets, final BucketSorter bucketSorter){
+		if (null == executor || null == bucketSorter){
+			throw new IllegalArgumentException("ExecutorService and bucket sorter cannot be null!");
+		}
+		if (buckets < 2 || buckets > MAX_BUCKETS){
+			throw new IllegalArgumentException("The number of buckets must be between 2 and " + MAX_BUCKETS + ", got " + buckets);
+		}
+		this.executor = executor;
+		this.buckets = buckets;
+		this.bucketSorter = bucketSorter;
+	}
+
+	/**
+	 * Perform an in-place sample sort on a given array of int values.
+	 * @param {int[]} inputArr The array of int values
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place sample sort on a given array of int values, using the scratch space of a reusable buffer.
+	 * @param {int[]} inputArr The array of int values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {int[]} The sorted array
+	 */
+	public int[] sort(final int[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		RadixSort.checkArguments(inputArr, buffer);
+		int length = inputArr.length;
+		int bucketCount = Math.min(buckets, length / MIN_BUCKET_LENGTH);
+		if (bucketCount < 2){
+			return MergeSort.sort(inputArr, buffer);
+		}
+		int[] sample = new int[bucketCount * OVERSAMPLING];
+		for (int i = 0; i < sample.length; i++){
+			sample[i] = inputArr[ThreadLocalRandom.current().nextInt(length)];
+		}
+		MergeSort.sort(sample);
+		int[] splitters = new int[bucketCount - 1];
+		for (int i = 0; i < splitters.length; i++){
+			splitters[i] = sample[(i + 1) * OVERSAMPLING];
+		}
+		byte[] bucketIndexes = new byte[length];
+		int[][] counts = new int[bucketCount][bucketCount];
+		run(bucketCount, chunk -> {
+			int[] chunkCounts = counts[chunk];
+			for (int i = RadixSort.chunkStart(chunk, bucketCount, length), end = RadixSort.chunkStart(chunk + 1, bucketCount, length); i < end; i++){
+				int bucket = bucketOf(splitters, inputArr[i]);
+				bucketIndexes[i] = (byte) bucket;
+				chunkCounts[bucket]++;
+			}
+		});
+		int[] bucketStarts = positions(counts);
+		int[] scratch = buffer.ints(length);
+		run(bucketCount, chunk -> {
+			int[] positions = counts[chunk];
+			for (int i = RadixSort.chunkStart(chunk, bucketCount, length), end = RadixSort.chunkStart(chunk + 1, bucketCount, length); i < end; i++){
+				scratch[positions[bucketIndexes[i] & 0xFF]++] = inputArr[i];
+			}
+		});
+		run(bucketCount, bucket -> {
+			if (bucketStarts[bucket] < bucketStarts[bucket + 1]){
+				bucketSorter.sort(scratch, inputArr, bucketStarts[bucket], bucketStarts[bucket + 1]);
+			}
+		});
+		return inputArr;
+	}
+
+	/**
+	 * Perform an in-place sample sort on a given array of long values.
+	 * @param {long[]} inputArr The array of long values
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr) throws InterruptedException, ExecutionException {
+		return sort(inputArr, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place sample sort on a given array of long values, using the scratch space of a reusable buffer.
+	 * @param {long[]} inputArr The array of long values
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {long[]} The sorted array
+	 */
+	public long[] sort(final long[] inputArr, final SortBuffer buffer) throws InterruptedException, ExecutionException {
+		RadixSort.checkArguments(inputArr, buffer);
+		int length = inputArr.length;
+		int bucketCount = Math.min(buckets, length / MIN_BUCKET_LENGTH);
+		if (bucketCount < 2){
+			return MergeSort.sort(inputArr, buffer);
+		}
+		long[] sample = new long[bucketCount * OVERSAMPLING];
+		for (int i = 0; i < sample.length; i++){
+			sample[i] = inputArr[ThreadLocalRandom.current().nextInt(length)];
+		}
+		MergeSort.sort(sample);
+		long[] splitters = new long[bucketCount - 1];
+		for (int i = 0; i < splitters.length; i++){
+			splitters[i] = sample[(i + 1) * OVERSAMPLING];
+		}
+		byte[] bucketIndexes = new byte[length];
+		int[][] counts = new int[bucketCount][bucketCount];
+		run(bucketCount, chunk -> {
+			int[] chunkCounts = counts[chunk];
+			for (int i = RadixSort.chunkStart(chunk, bucketCount, length), end = RadixSort.chunkStart(chunk + 1, bucketCount, length); i < end; i++){
+				int bucket = bucketOf(splitters, inputArr[i]);
+				bucketIndexes[i] = (byte) bucket;
+				chunkCounts[bucket]++;
+			}
+		});
+		int[] bucketStarts = positions(counts);
+		long[] scratch = buffer.longs(length);
+		run(bucketCount, chunk -> {
+			int[] positions = counts[chunk];
+			for (int i = RadixSort.chunkStart(chunk, bucketCount, length), end = RadixSort.chunkStart(chunk + 1, bucketCount, length); i < end; i++){
+				scratch[positions[bucketIndexes[i] & 0xFF]++] = inputArr[i];
+			}
+		});
+		run(bucketCount, bucket -> {
+			if (bucketStarts[bucket] < bucketStarts[bucket + 1]){
+				bucketSorter.sort(scratch, inputArr, bucketStarts[bucket], bucketStarts[bucket + 1]);
+			}
+		});
+		return inputArr;
+	}
+
+	/**
+	 * Finds the bucket of a value, the number of splitters that are not greater than it
+	 * @param {int[]} splitters The sorted splitters
+	 * @param {int} value
+	 * @return {int}
+	 */
+	private static int bucketOf(int[] splitters, int value){
+		int low = 0;
+		int high = splitters.length;
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (splitters[middle] <= value){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the bucket of a value, the number of splitters that are not greater than it
+	 * @param {long[]} splitters The sorted splitters
+	 * @param {long} value
+	 * @return {int}
+	 */
+	private static int bucketOf(long[] splitters, long value){
+		int low = 0;
+		int high = splitters.length;
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (splitters[middle] <= value){
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Turns the per-chunk bucket counts into the position where each chunk writes its first value of each bucket
+	 * @param {int[][]} counts The bucket counts of every chunk, replaced by the positions
+	 * @return {int[]} The start index of every bucket, followed by the end index of the last one
+	 */
+	private static int[] positions(int[][] counts){
+		int bucketCount = counts[0].length;
+		int[] bucketStarts = new int[bucketCount + 1];
+		int position = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++){
+			bucketStarts[bucket] = position;
+			for (int[] chunkCounts : counts){
+				int count = chunkCounts[bucket];
+				chunkCounts[bucket] = position;
+				position += count;
+			}
+		}
+		bucketStarts[bucketCount] = position;
+		return bucketStarts;
+	}
+
+	/**
+	 * Runs a step for every chunk or bucket in the executor and waits for all of them
+	 * @param {int} count The number of chunks or buckets
+	 * @param {IndexedStep} step The step
+	 */
+	private void run(final int count, final IndexedStep step) throws InterruptedException, ExecutionException {
+		List<Callable<Void>> tasks = new ArrayList<>(count);
+		for (int index = 0; index < count; index++){
+			final int taskIndex = index;
+			tasks.add(() -> {
+				step.run(taskIndex);
+				return null;
+			});
+		}
+		for (Future<Void> future : executor.invokeAll(tasks)){
+			future.get();
+		}
+	}
+
+	/**
+	 * A step of the sort for one chunk or bucket
+	 * @name IndexedStep
+	 * @interface
+	 */
+	private interface IndexedStep {
+		void run(int index) throws IOException;
+	}
+}
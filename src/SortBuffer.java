@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ * This class that holds the scratch space used by the merge steps of Merge Sort.
+ * A sort borrows one scratch array as long as the array to be sorted and reuses it for every merge,
+ * so passing the same buffer to repeated sorts avoids allocating after the first one.
+ * A buffer must not be shared by sorts that run at the same time.
+ * @author NubilaPardus
+ * @name SortBuffer
+ * @class
+ */
+public class SortBuffer {
+
+	private Object[] objects;
+	private int[] ints;
+	private long[] longs;
+	private float[] floats;
+	private double[] doubles;
+	private long[] keys;
+	private int[] indexes;
+
+	/**
+	 * Provides scratch space for object arrays, growing it when needed
+	 * @param {int} length The minimum length of the scratch space
+	 * @return {Object[]}
+	 */
+	Object[] objects(int length){
+		if (null == objects || objects.length < length){
+			objects = new Object[length];
+			allocated((long) length * Integer.BYTES);
+		}
+		return objects;
+	}
+
+	/**
+	 * Provides scratch space for int arrays, growing it when needed
+	 * @param {int} length The minimum length of the scratch space
+	 * @return {int[]}
+	 */
+	int[] ints(int length){
+		if (null == ints || ints.length < length){
+			ints = new int[length];
+			allocated((long) length * Integer.BYTES);
+		}
+		return ints;
+	}
+
+	/**
+	 * Provides scratch space for long arrays, growing it when needed
+	 * @param {int} length The minimum length of the scratch space
+	 * @return {long[]}
+	 */
+	long[] longs(int length){
+		if (null == longs || longs.length < length){
+			longs = new long[length];
+			allocated((long) length * Long.BYTES);
+		}
+		return longs;
+	}
+
+	/**
+	 * Provides scratch space for float arrays, growing it when needed
+	 * @param {int} length The minimum length of the scratch space
+	 * @return {float[]}
+	 */
+	float[] floats(int length){
+		if (null == floats || floats.length < length){
+			floats = new float[length];
+			allocated((long) length * Float.BYTES);
+		}
+		return floats;
+	}
+
+	/**
+	 * Provides scratch space for double arrays, growing it when needed
+	 * @param {int} length The minimum length of the scratch space
+	 * @return {double[]}
+	 */
+	double[] doubles(int length){
+		if (null == doubles || doubles.length < length){
+			doubles = new double[length];
+			allocated((long) length * Double.BYTES);
+		}
+		return doubles;
+	}
+
+	/**
+	 * Provides space for the keys extracted by the key sorts, growing it when needed
+	 * @param {int} length The minimum length of the space
+	 * @return {long[]}
+	 */
+	long[] keys(int length){
+		if (null == keys || keys.length < length){
+			keys = new long[length];
+			allocated((long) length * Long.BYTES);
+		}
+		return keys;
+	}
+
+	/**
+	 * Provides space for the element indexes moved by the key sorts, growing it when needed
+	 * @param {int} length The minimum length of the space
+	 * @return {int[]}
+	 */
+	int[] indexes(int length){
+		if (null == indexes || indexes.length < length){
+			indexes = new int[length];
+			allocated((long) length * Integer.BYTES);
+		}
+		return indexes;
+	}
+
+	/**
+	 * Clears the object references left in the scratch space by a finished sort,
+	 * so a pooled buffer does not keep the sorted elements reachable.
+	 * @param {int} length The length of the sorted array
+	 */
+	void release(int length){
+		if (null != objects){
+			Arrays.fill(objects, 0, Math.min(length, objects.length), null);
+		}
+	}
+
+	/**
+	 * Reports an allocation of scratch space when the metrics are enabled,
+	 * object references are counted as compressed references
+	 * @param {long} bytes The approximate size of the allocated array
+	 */
+	private static void allocated(long bytes){
+		if (SortMetrics.ENABLED){
+			SortMetrics.listener().onScratchAllocated(bytes);
+		}
+	}
+}
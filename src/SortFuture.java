@@ -0,0 +1,168 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class that is the future of an asynchronous parallel sort. It completes with the sorted array, and reports the
+ * progress of the sort as the fraction of the leaf sort and merge work done so far.
+ * The sort stops cooperatively when the future is cancelled or completed by the caller, or when its deadline passes,
+ * in which case it completes exceptionally with a {@link TimeoutException}: no task is created or started afterwards
+ * and the pending merges are abandoned, while the leaf sorts and merges already running finish their portion.
+ * The array then holds a permutation of its elements made of sorted runs, which an adaptive sort such as
+ * {@link MergeSort#sortAdaptive(Object[], java.util.Comparator)} merges cheaply, once {@link #stopped()} has completed.
+ * @author NubilaPardus
+ * @name SortFuture
+ * @extends CompletableFuture
+ * @class
+ */
+public class SortFuture<R> extends CompletableFuture<R> {
+
+	/**
+	 * The deadline of the sorts that have none
+	 */
+	static final long NO_DEADLINE = -1L;
+
+	private final R result;
+	private final long totalWork;
+	private final long deadline;
+	private final LongAdder doneWork = new LongAdder();
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+	/**
+	 * Constructor
+	 * @param {R} result The sorted array the future completes with
+	 * @param {long} totalWork The work of the whole sort, as computed by {@link #work(int, int)}
+	 * @param {long} timeoutNanos The time the sort may take in nanoseconds, or {@link #NO_DEADLINE}
+	 */
+	SortFuture(final R result, final long totalWork, final long timeoutNanos){
+		this.result = result;
+		this.totalWork = totalWork;
+		this.deadline = timeoutNanos == NO_DEADLINE ? NO_DEADLINE : System.nanoTime() + Math.max(0L, timeoutNanos);
+	}
+
+	/**
+	 * Provides the fraction of the sort work done so far, every leaf sort counting for the elements it sorts
+	 * and every merge for the elements it merges
+	 * @return {double} A value between 0 and 1, 1 once the sort has completed normally
+	 */
+	public double progress(){
+		if (isDone() && !isCompletedExceptionally()){
+			return 1.0;
+		}
+		if (totalWork == 0L){
+			return 0.0;
+		}
+		return Math.min(1.0, (double) doneWork.sum() / totalWork);
+	}
+
+	/**
+	 * Provides a future that completes once the future is done and none of the sort tasks is running any more,
+	 * after which the array is no longer modified by the sort
+	 * @return {CompletableFuture<>}
+	 */
+	public CompletableFuture<Void> stopped(){
+		return stopped;
+	}
+
+	/**
+	 * Converts the timeout of a sort to nanoseconds
+	 * @param {long} timeout The time the sort may take
+	 * @param {TimeUnit} unit The unit of the timeout
+	 * @return {long}
+	 */
+	static long timeoutNanos(final long timeout, final TimeUnit unit){
+		if (null == unit){
+			throw new IllegalArgumentException("time unit cannot be null");
+		}
+		return Math.max(0L, unit.toNanos(timeout));
+	}
+
+	/**
+	 * Computes the work of a sort that splits portions in halves until they are shorter than the leaf length:
+	 * the length of every leaf and every merge, so that every level of the sort counts for the array length
+	 * @param {int} length The length of the sorted portion
+	 * @param {int} leafLength The length below which portions are sorted by a leaf
+	 * @return {long}
+	 */
+	static long work(final int length, final int leafLength){
+		long work = 0L;
+		int shortLength = length;
+		long shortCount = 1L;
+		long longCount = 0L;
+		while (shortCount + longCount > 0L){
+			work += shortLength * shortCount + (shortLength + 1L) * longCount;
+			if (shortLength < leafLength){
+				shortCount = 0L;
+			}
+			if (shortLength + 1 < leafLength){
+				longCount = 0L;
+			}
+			int half = shortLength / 2;
+			long nextShortCount = 0L;
+			long nextLongCount = 0L;
+			if (shortLength % 2 == 0){
+				nextShortCount += 2 * shortCount;
+				nextShortCount += longCount;
+				nextLongCount += longCount;
+			} else {
+				nextShortCount += shortCount;
+				nextLongCount += shortCount;
+				nextLongCount += 2 * longCount;
+			}
+			shortLength = half;
+			shortCount = nextShortCount;
+			longCount = nextLongCount;
+		}
+		return work;
+	}
+
+	/**
+	 * Adds to the work done
+	 * @param {long} work The work of a finished leaf sort or merge
+	 */
+	void advance(final long work){
+		doneWork.add(work);
+	}
+
+	/**
+	 * Checks whether the sort should go on, and times the future out when its deadline has passed
+	 * @return {boolean} false when the future is done, and the task should stop without creating other tasks
+	 */
+	boolean proceed(){
+		if (isDone()){
+			return false;
+		}
+		if (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0L){
+			completeExceptionally(new TimeoutException("The sort did not complete before its deadline"));
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Completes the future with the sorted array, unless it is already done
+	 */
+	void finish(){
+		complete(result);
+	}
+
+	/**
+	 * Registers a sort task that is about to be scheduled or run
+	 */
+	void enter(){
+		activeTasks.incrementAndGet();
+	}
+
+	/**
+	 * Unregisters a sort task that has finished running or could not be scheduled,
+	 * and completes {@link #stopped()} when it was the last one
+	 */
+	void exit(){
+		if (activeTasks.decrementAndGet() == 0){
+			stopped.complete(null);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * This interface that receives the metrics of the sorts, when they are enabled through {@link SortMetrics}.
+ * The methods may be called concurrently by the threads of the parallel versions, and all of them do nothing by default.
+ * The levels count the depth in the merge tree from the root merge, which is at level 0.
+ * @author NubilaPardus
+ * @name SortListener
+ * @interface
+ */
+public interface SortListener {
+
+	/**
+	 * The listener that ignores every metric
+	 */
+	SortListener NONE = new SortListener(){};
+
+	/**
+	 * Called when a leaf of a parallel sort has been sorted
+	 * @param {String} sorter The name of the sorter: forkjoin or executor
+	 * @param {int} level The depth of the leaf in the merge tree
+	 * @param {int} length The number of elements of the leaf
+	 * @param {long} nanos The time spent sorting the leaf
+	 */
+	default void onLeafSorted(String sorter, int level, int length, long nanos){
+	}
+
+	/**
+	 * Called when a merge of a parallel sort has completed
+	 * @param {String} sorter The name of the sorter: forkjoin or executor
+	 * @param {int} level The depth of the merge in the merge tree
+	 * @param {int} length The number of merged elements
+	 * @param {long} nanos The time from the start to the end of the merge, including its parallel pieces
+	 */
+	default void onMerged(String sorter, int level, int length, long nanos){
+	}
+
+	/**
+	 * Called when a task of the executor version starts running
+	 * @param {String} sorter The name of the sorter: executor
+	 * @param {long} queueWaitNanos The time the task waited in the executor queue
+	 */
+	default void onTaskStarted(String sorter, long queueWaitNanos){
+	}
+
+	/**
+	 * Called when a {@link SortBuffer} allocates scratch space
+	 * @param {long} bytes The approximate size of the allocated array
+	 */
+	default void onScratchAllocated(long bytes){
+	}
+
+	/**
+	 * Called when a sort has completed
+	 * @param {String} sorter The name of the sorter: sequential, forkjoin or executor
+	 * @param {int} length The number of sorted elements
+	 * @param {long} nanos The time spent in the sort
+	 * @param {long} comparisons The number of comparator calls, or -1 for arrays of primitive values
+	 * @param {long} moves The number of elements (or keys with their indexes) written to the array or to the scratch space,
+	 * 						except by the leaves of primitive arrays that the parallel sorters leave to {@link java.util.Arrays#sort(int[])}
+	 * @param {long} tasks The number of tasks created by the parallel sorters, or 0 for the sequential one
+	 * @param {long} steals The number of tasks stolen by the workers of the fork/join pool during the sort,
+	 * 						an approximation when the pool runs other work too, or 0 for the other sorters
+	 */
+	default void onSortCompleted(String sorter, int length, long nanos, long comparisons, long moves, long tasks, long steals){
+	}
+}
@@ -0,0 +1,141 @@
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class that switches the metrics of the sorts on and holds the listener that receives them.
+ * The metrics are enabled by starting the JVM with -Dmergesort.metrics=true. The flag is a static final constant,
+ * so when it is off the JIT compiler removes the instrumentation and the sorts run exactly as without it.
+ * @author NubilaPardus
+ * @name SortMetrics
+ * @class
+ */
+public final class SortMetrics {
+
+	/**
+	 * Whether the sorts report their metrics, read once from the mergesort.metrics system property
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean("mergesort.metrics");
+
+	private static volatile SortListener listener = SortListener.NONE;
+	private static final LongAdder moves = new LongAdder();
+	private static final LongAdder tasks = new LongAdder();
+
+	private SortMetrics(){
+	}
+
+	/**
+	 * Sets the listener that receives the metrics, which has no effect unless the metrics are enabled
+	 * @param {SortListener} sortListener The listener, or null to ignore the metrics
+	 */
+	public static void setListener(final SortListener sortListener){
+		listener = null == sortListener ? SortListener.NONE : sortListener;
+	}
+
+	/**
+	 * @return {SortListener} The listener that receives the metrics
+	 */
+	static SortListener listener(){
+		return listener;
+	}
+
+	/**
+	 * Provides the current time for a measurement, or 0 when the metrics are disabled
+	 * @return {long}
+	 */
+	static long start(){
+		return ENABLED ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Counts elements written to an array or to the scratch space by a sort, when the metrics are enabled
+	 * @param {long} count The number of moved elements
+	 */
+	static void moved(final long count){
+		if (ENABLED){
+			moves.add(count);
+		}
+	}
+
+	/**
+	 * Counts a task created by a parallel sort, when the metrics are enabled
+	 */
+	static void taskCreated(){
+		if (ENABLED){
+			tasks.increment();
+		}
+	}
+
+	/**
+	 * Takes the counters at the start of a sort
+	 * @param {ForkJoinPool} pool The pool whose steals are counted, or null
+	 * @return {Sample} The counters, or null when the metrics are disabled
+	 */
+	static Sample sample(final ForkJoinPool pool){
+		return ENABLED ? new Sample(pool) : null;
+	}
+
+	/**
+	 * Wraps a comparator to count its calls when the metrics are enabled
+	 * @param {Comparator<>} comparator <T> The generic type of the element
+	 * @return {CountingComparator<>} The counting comparator, or null when the metrics are disabled
+	 */
+	static <T> CountingComparator<T> counting(final Comparator<? super T> comparator){
+		return ENABLED ? new CountingComparator<>(comparator) : null;
+	}
+
+	/**
+	 * Reports a completed sort. The moves and tasks are counted for all the sorts of the JVM and the steals for all
+	 * the work of the pool, so they are approximations when other sorts run at the same time.
+	 * @param {String} sorter The name of the sorter
+	 * @param {int} length The number of sorted elements
+	 * @param {Sample} sample The counters taken at the start of the sort
+	 * @param {CountingComparator<>} counter The comparator that counted the comparisons, or null for arrays of primitive values
+	 */
+	static void sortCompleted(String sorter, int length, Sample sample, CountingComparator<?> counter){
+		listener.onSortCompleted(sorter, length, System.nanoTime() - sample.start, null == counter ? -1 : counter.count(),
+				moves.sum() - sample.moves, tasks.sum() - sample.tasks, null == sample.pool ? 0L : sample.pool.getStealCount() - sample.steals);
+	}
+
+	/**
+	 * The counters at the start of a sort
+	 * @name Sample
+	 * @class
+	 */
+	static final class Sample {
+		private final long start = System.nanoTime();
+		private final long moves = SortMetrics.moves.sum();
+		private final long tasks = SortMetrics.tasks.sum();
+		private final ForkJoinPool pool;
+		private final long steals;
+
+		private Sample(ForkJoinPool pool){
+			this.pool = pool;
+			this.steals = null == pool ? 0L : pool.getStealCount();
+		}
+	}
+
+	/**
+	 * A comparator that counts its calls, from any number of threads
+	 * @name CountingComparator
+	 * @class
+	 */
+	static final class CountingComparator<T> implements Comparator<T> {
+		private final Comparator<? super T> comparator;
+		private final LongAdder comparisons = new LongAdder();
+
+		private CountingComparator(Comparator<? super T> comparator){
+			this.comparator = comparator;
+		}
+
+		@Override
+		public int compare(T first, T second){
+			comparisons.increment();
+			return comparator.compare(first, second);
+		}
+
+		long count(){
+			return comparisons.sum();
+		}
+	}
+}
@@ -0,0 +1,344 @@
+/**
+ * This class that contains sequential version of Merge Sort for strings and byte strings, which carries the longest
+ * common prefix (LCP) of every key with the key before it through the merges. A merge compares the LCPs of the two
+ * heads with the last merged key first, and only compares characters when they are equal, starting after the common
+ * prefix, so keys with long shared prefixes such as URLs or paths are not rescanned from their first character at every
+ * merge level. Strings are ordered like {@link String#compareTo(String)}, byte strings by their unsigned bytes,
+ * a prefix coming before the longer keys, and equal keys keep their original order.
+ * @author NubilaPardus
+ * @name StringMergeSort
+ * @class
+ */
+public class StringMergeSort {
+
+	/**
+	 * The length of the portions below which insertion sort is used
+	 */
+	static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * The LCP of a key whose previous key is in another run, which is computed when it is needed
+	 */
+	static final int UNKNOWN_LCP = -1;
+
+	/**
+	 * The access to the characters of String keys
+	 */
+	static final KeyAccess STRINGS = new KeyAccess(){
+		@Override
+		int lcp(Object first, Object second, int fromIndex){
+			String firstKey = (String) first;
+			String secondKey = (String) second;
+			int end = Math.min(firstKey.length(), secondKey.length());
+			int index = fromIndex;
+			while (index < end && firstKey.charAt(index) == secondKey.charAt(index)){
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		int compareAt(Object first, Object second, int index){
+			String firstKey = (String) first;
+			String secondKey = (String) second;
+			if (index == firstKey.length() || index == secondKey.length()){
+				return firstKey.length() - secondKey.length();
+			}
+			return firstKey.charAt(index) - secondKey.charAt(index);
+		}
+	};
+
+	/**
+	 * The access to the unsigned bytes of byte[] keys
+	 */
+	static final KeyAccess BYTES = new KeyAccess(){
+		@Override
+		int lcp(Object first, Object second, int fromIndex){
+			byte[] firstKey = (byte[]) first;
+			byte[] secondKey = (byte[]) second;
+			int end = Math.min(firstKey.length, secondKey.length);
+			int index = fromIndex;
+			while (index < end && firstKey[index] == secondKey[index]){
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		int compareAt(Object first, Object second, int index){
+			byte[] firstKey = (byte[]) first;
+			byte[] secondKey = (byte[]) second;
+			if (index == firstKey.length || index == secondKey.length){
+				return firstKey.length - secondKey.length;
+			}
+			return (firstKey[index] & 0xFF) - (secondKey[index] & 0xFF);
+		}
+	};
+
+	/**
+	 * Perform an in-place merge and sort on a given array of strings.
+	 * @param {String[]} keys The array of strings
+	 * @return {String[]} The sorted array
+	 */
+	public static String[] sort(String[] keys) {
+		return sort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of strings, using the scratch space of a reusable buffer.
+	 * @param {String[]} keys The array of strings
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {String[]} The sorted array
+	 */
+	public static String[] sort(String[] keys, SortBuffer buffer) {
+		sort(keys, STRINGS, buffer);
+		return keys;
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of byte strings, compared by their unsigned bytes.
+	 * @param {byte[][]} keys The array of byte strings
+	 * @return {byte[][]} The sorted array
+	 */
+	public static byte[][] sort(byte[][] keys) {
+		return sort(keys, new SortBuffer());
+	}
+
+	/**
+	 * Perform an in-place merge and sort on a given array of byte strings, compared by their unsigned bytes
+	 * and using the scratch space of a reusable buffer.
+	 * @param {byte[][]} keys The array of byte strings
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space, it can be reused across sorts
+	 * @return {byte[][]} The sorted array
+	 */
+	public static byte[][] sort(byte[][] keys, SortBuffer buffer) {
+		sort(keys, BYTES, buffer);
+		return keys;
+	}
+
+	private static void sort(Object[] keys, KeyAccess access, SortBuffer buffer) {
+		checkArguments(keys, buffer);
+		int length = keys.length;
+		try {
+			sort(keys, access, buffer.indexes(length), buffer.objects(length), buffer.ints(length), 0, length);
+		} finally {
+			buffer.release(length);
+		}
+	}
+
+	/**
+	 * Validates the arguments shared by the string sort methods
+	 * @param {Object[]} keys The array of keys
+	 * @param {SortBuffer} buffer The buffer that provides the scratch space
+	 */
+	static void checkArguments(Object[] keys, SortBuffer buffer) {
+		if (null == keys){
+			throw new IllegalArgumentException("array of keys cannot be null");
+		}
+		if (null == buffer){
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		for (Object key : keys){
+			if (null == key){
+				throw new IllegalArgumentException("array of keys cannot contain null");
+			}
+		}
+	}
+
+	/**
+	 * Sorts the portion of an array of keys between the given indexes and stores the LCP of every key with the key before it,
+	 * the LCP of the first key of the portion being unknown.
+	 * @param {Object[]} keys The array of keys
+	 * @param {KeyAccess} access The access to the characters of the keys
+	 * @param {int[]} lcps The LCPs of the keys
+	 * @param {Object[]} scratch The scratch space for the keys, at least as long as the array of keys
+	 * @param {int[]} lcpScratch The scratch space for the LCPs, at least as long as the array of keys
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	static void sort(Object[] keys, KeyAccess access, int[] lcps, Object[] scratch, int[] lcpScratch, int startIndex, int endIndex) {
+		int length = endIndex - startIndex;
+		if (length <= INSERTION_SORT_THRESHOLD){
+			insertionSort(keys, access, lcps, startIndex, endIndex);
+			return;
+		}
+		int middleIndex = startIndex + length / 2;
+		sort(keys, access, lcps, scratch, lcpScratch, startIndex, middleIndex);
+		sort(keys, access, lcps, scratch, lcpScratch, middleIndex, endIndex);
+		merge(keys, access, lcps, scratch, lcpScratch, startIndex, middleIndex, endIndex);
+	}
+
+	/**
+	 * Sorts a short portion of an array of keys by insertion sort, then computes the LCPs
+	 * @param {Object[]} keys The array of keys
+	 * @param {KeyAccess} access The access to the characters of the keys
+	 * @param {int[]} lcps The LCPs of the keys
+	 * @param {int} startIndex The start index, inclusively.
+	 * @param {int} endIndex The end index, exclusively.
+	 */
+	private static void insertionSort(Object[] keys, KeyAccess access, int[] lcps, int startIndex, int endIndex) {
+		for (int i = startIndex + 1; i < endIndex; i++){
+			Object key = keys[i];
+			int j = i;
+			while (j > startIndex && access.compare(keys[j - 1], key) > 0){
+				keys[j] = keys[j - 1];
+				j--;
+			}
+			keys[j] = key;
+			SortMetrics.moved(j < i ? i - j + 1 : 0);
+		}
+		if (startIndex < endIndex){
+			lcps[startIndex] = UNKNOWN_LCP;
+		}
+		for (int i = startIndex + 1; i < endIndex; i++){
+			lcps[i] = access.lcp(keys[i - 1], keys[i], 0);
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted runs of an array of keys, after copying the left run and its LCPs to the same indexes of the scratch space.
+	 * @param {Object[]} keys The array of keys
+	 * @param {KeyAccess} access The access to the characters of the keys
+	 * @param {int[]} lcps The LCPs of the keys
+	 * @param {Object[]} scratch The scratch space for the keys
+	 * @param {int[]} lcpScratch The scratch space for the LCPs
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} rightIndex The start index of the right run, which ends the left run.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 */
+	static void merge(Object[] keys, KeyAccess access, int[] lcps, Object[] scratch, int[] lcpScratch, int leftIndex, int rightIndex, int rightEnd) {
+		System.arraycopy(keys, leftIndex, scratch, leftIndex, rightIndex - leftIndex);
+		System.arraycopy(lcps, leftIndex, lcpScratch, leftIndex, rightIndex - leftIndex);
+		SortMetrics.moved(rightIndex - leftIndex);
+		merge(access, scratch, lcpScratch, leftIndex, rightIndex, keys, lcps, rightIndex, rightEnd, keys, lcps, leftIndex);
+	}
+
+	/**
+	 * Merges two sorted runs with their LCPs into a destination. Each head is compared with the last merged key through its LCP:
+	 * the head with the longer LCP is the smaller one, and only heads with equal LCPs are compared, from that LCP on,
+	 * the comparison giving the LCP of the other head with the merged one. The left head wins ties.
+	 * The destination can hold the right run, at the same or higher indexes than its merged keys.
+	 * @param {KeyAccess} access The access to the characters of the keys
+	 * @param {Object[]} leftKeys The keys of the left run
+	 * @param {int[]} leftLcps The LCPs of the left run
+	 * @param {int} leftIndex The start index of the left run, inclusively.
+	 * @param {int} leftEnd The end index of the left run, exclusively.
+	 * @param {Object[]} rightKeys The keys of the right run
+	 * @param {int[]} rightLcps The LCPs of the right run
+	 * @param {int} rightIndex The start index of the right run, inclusively.
+	 * @param {int} rightEnd The end index of the right run, exclusively.
+	 * @param {Object[]} keys The array that receives the merged keys
+	 * @param {int[]} lcps The array that receives their LCPs, the LCP of the first merged key being unknown
+	 * @param {int} destinationIndex The index of the first merged key
+	 */
+	static void merge(
+			KeyAccess access,
+			Object[] leftKeys,
+			int[] leftLcps,
+			int leftIndex,
+			int leftEnd,
+			Object[] rightKeys,
+			int[] rightLcps,
+			int rightIndex,
+			int rightEnd,
+			Object[] keys,
+			int[] lcps,
+			int destinationIndex) {
+		int index = destinationIndex;
+		if (leftIndex < leftEnd && rightIndex < rightEnd){
+			Object left = leftKeys[leftIndex];
+			Object right = rightKeys[rightIndex];
+			int leftLcp = 0;
+			int rightLcp = 0;
+			while (true){
+				boolean takeLeft;
+				if (leftLcp != rightLcp){
+					takeLeft = leftLcp > rightLcp;
+				} else {
+					int lcp = access.lcp(left, right, leftLcp);
+					takeLeft = access.compareAt(left, right, lcp) <= 0;
+					if (takeLeft){
+						rightLcp = lcp;
+					} else {
+						leftLcp = lcp;
+					}
+				}
+				if (takeLeft){
+					keys[index] = left;
+					lcps[index++] = leftLcp;
+					if (++leftIndex == leftEnd){
+						rightLcps[rightIndex] = rightLcp;
+						break;
+					}
+					left = leftKeys[leftIndex];
+					leftLcp = lcp(access, leftKeys, leftLcps, leftIndex);
+				} else {
+					keys[index] = right;
+					lcps[index++] = rightLcp;
+					if (++rightIndex == rightEnd){
+						leftLcps[leftIndex] = leftLcp;
+						break;
+					}
+					right = rightKeys[rightIndex];
+					rightLcp = lcp(access, rightKeys, rightLcps, rightIndex);
+				}
+			}
+		}
+		System.arraycopy(leftKeys, leftIndex, keys, index, leftEnd - leftIndex);
+		System.arraycopy(leftLcps, leftIndex, lcps, index, leftEnd - leftIndex);
+		index += leftEnd - leftIndex;
+		System.arraycopy(rightKeys, rightIndex, keys, index, rightEnd - rightIndex);
+		System.arraycopy(rightLcps, rightIndex, lcps, index, rightEnd - rightIndex);
+		lcps[destinationIndex] = UNKNOWN_LCP;
+		SortMetrics.moved(index + rightEnd - rightIndex - destinationIndex);
+	}
+
+	/**
+	 * Provides the LCP of a key with the key before it, computing it when it is unknown
+	 * @param {KeyAccess} access The access to the characters of the keys
+	 * @param {Object[]} keys The array of keys
+	 * @param {int[]} lcps The LCPs of the keys
+	 * @param {int} index The index of the key, which must not be the first one of its run
+	 * @return {int}
+	 */
+	private static int lcp(KeyAccess access, Object[] keys, int[] lcps, int index) {
+		int lcp = lcps[index];
+		return lcp == UNKNOWN_LCP ? access.lcp(keys[index - 1], keys[index], 0) : lcp;
+	}
+
+	/**
+	 * The access to the characters of a type of key
+	 * @name KeyAccess
+	 * @class
+	 */
+	abstract static class KeyAccess {
+
+		/**
+		 * Finds the length of the common prefix of two keys, which are known to share their first characters
+		 * @param {Object} first
+		 * @param {Object} second
+		 * @param {int} fromIndex The length of the prefix known to be common
+		 * @return {int}
+		 */
+		abstract int lcp(Object first, Object second, int fromIndex);
+
+		/**
+		 * Compares two keys at the end of their common prefix
+		 * @param {Object} first
+		 * @param {Object} second
+		 * @param {int} index The length of the common prefix
+		 * @return {int} Returns a negative integer, zero, or a positive integer as the first key is less than, equal to, or greater than the second one.
+		 */
+		abstract int compareAt(Object first, Object second, int index);
+
+		/**
+		 * Compares two keys
+		 * @param {Object} first
+		 * @param {Object} second
+		 * @return {int}
+		 */
+		final int compare(Object first, Object second){
+			return compareAt(first, second, lcp(first, second, 0));
+		}
+	}
+}
@@ -0,0 +1,42 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link BottomUpMergeSort}
+ */
+class BottomUpMergeSortTest {
+
+	@Test
+	void sortsPrimitiveArrays(){
+		Random random = new Random(41);
+		SortBuffer buffer = new SortBuffer();
+		for (int length : new int[]{0, 1, 2, 15, 16, 17, 1000, 65537}){
+			int[] ints = random.ints(length, -50, 50).toArray();
+			long[] longs = random.longs(length).toArray();
+			int[] expectedInts = ints.clone();
+			long[] expectedLongs = longs.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+			assertArrayEquals(expectedInts, BottomUpMergeSort.sort(ints, buffer));
+			assertArrayEquals(expectedLongs, BottomUpMergeSort.sort(longs));
+		}
+	}
+
+	@Test
+	void sortsPresortedArrays(){
+		int[] ascending = new int[10000];
+		int[] descending = new int[10000];
+		for (int i = 0; i < ascending.length; i++){
+			ascending[i] = i;
+			descending[i] = ascending.length - i;
+		}
+		int[] expected = descending.clone();
+		Arrays.sort(expected);
+		assertArrayEquals(ascending.clone(), BottomUpMergeSort.sort(ascending));
+		assertArrayEquals(expected, BottomUpMergeSort.sort(descending));
+	}
+}
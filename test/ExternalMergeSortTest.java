@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of {@link ExternalMergeSort}, with a file several times larger than the memory budget
+ */
+class ExternalMergeSortTest {
+
+	private static final int RECORD_WIDTH = 16;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void sortsFileLargerThanBudget() throws IOException {
+		int recordCount = 60000;
+		Random random = new Random(81);
+		ByteBuffer records = ByteBuffer.allocate(RECORD_WIDTH * recordCount);
+		for (int i = 0; i < recordCount; i++){
+			records.putLong(random.nextInt(5000)).putInt(i).putInt(-i);
+		}
+		Path input = directory.resolve("input.bin");
+		Path output = directory.resolve("output.bin");
+		Files.write(input, records.array());
+		ForkJoinMergeSort sorter = new ForkJoinMergeSort(ForkJoinPool.commonPool());
+		RecordLayout layout = new RecordLayout(RECORD_WIDTH, 0, RecordLayout.KeyType.LONG);
+		new ExternalMergeSort(sorter, layout, 2L * (1 << 16) + 200000, directory).sort(input, output);
+		ByteBuffer sorted = ByteBuffer.wrap(Files.readAllBytes(output));
+		assertEquals(records.capacity(), sorted.capacity());
+		for (int i = 1; i < recordCount; i++){
+			long previousKey = sorted.getLong(RECORD_WIDTH * (i - 1));
+			long key = sorted.getLong(RECORD_WIDTH * i);
+			int previousIndex = sorted.getInt(RECORD_WIDTH * (i - 1) + 8);
+			int index = sorted.getInt(RECORD_WIDTH * i + 8);
+			assertTrue(previousKey < key || previousKey == key && previousIndex < index);
+			assertEquals(-index, sorted.getInt(RECORD_WIDTH * i + 12));
+		}
+	}
+}
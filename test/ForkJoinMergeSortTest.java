@@ -0,0 +1,155 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ForkJoinMergeSort}, with a small granularity so that the arrays are split into many tasks
+ */
+class ForkJoinMergeSortTest {
+
+	private static ForkJoinPool pool;
+	private static ForkJoinMergeSort sorter;
+	private static ForkJoinMergeSort adaptiveSorter;
+
+	@BeforeAll
+	static void startPool(){
+		pool = new ForkJoinPool(4);
+		sorter = new ForkJoinMergeSort(pool, 64);
+		adaptiveSorter = new ForkJoinMergeSort(pool, 64, true);
+	}
+
+	@AfterAll
+	static void stopPool(){
+		pool.shutdownNow();
+	}
+
+	@Test
+	void sortsStablyWithComparator(){
+		Random random = new Random(11);
+		for (int length : new int[]{0, 1, 63, 64, 65, 1000, 100000}){
+			MergeSortTest.Entry[] input = MergeSortTest.entries(random, length, Math.max(1, length / 8));
+			MergeSortTest.assertStablySorted(sorter.sort(input.clone(), MergeSortTest.BY_KEY), input);
+			MergeSortTest.assertStablySorted(adaptiveSorter.sort(input.clone(), MergeSortTest.BY_KEY), input);
+			MergeSortTest.assertStablySorted(sorter.sortByInt(input.clone(), entry -> entry.key), input);
+			MergeSortTest.assertStablySorted(sorter.sortByLong(input.clone(), entry -> entry.key), input);
+		}
+	}
+
+	@Test
+	void sortsPrimitiveArrays(){
+		Random random = new Random(12);
+		int[] ints = random.ints(200000).toArray();
+		long[] longs = random.longs(200000).toArray();
+		double[] doubles = random.doubles(200000).toArray();
+		int[] expectedInts = ints.clone();
+		long[] expectedLongs = longs.clone();
+		double[] expectedDoubles = doubles.clone();
+		Arrays.sort(expectedInts);
+		Arrays.sort(expectedLongs);
+		Arrays.sort(expectedDoubles);
+		assertArrayEquals(expectedInts, sorter.sort(ints));
+		assertArrayEquals(expectedLongs, adaptiveSorter.sort(longs));
+		assertArrayEquals(expectedDoubles, sorter.sort(doubles));
+	}
+
+	@Test
+	void sortsStringsAndByteKeys(){
+		Random random = new Random(13);
+		String[] strings = new String[20000];
+		for (int i = 0; i < strings.length; i++){
+			strings[i] = "prefix/" + (char) ('a' + random.nextInt(3)) + "/" + random.nextInt(1000);
+		}
+		String[] expected = strings.clone();
+		Arrays.sort(expected);
+		assertArrayEquals(expected, sorter.sort(strings.clone()));
+		byte[][] bytes = new byte[strings.length][];
+		for (int i = 0; i < strings.length; i++){
+			bytes[i] = strings[i].getBytes(StandardCharsets.US_ASCII);
+		}
+		byte[][] sortedBytes = sorter.sort(bytes);
+		for (int i = 0; i < expected.length; i++){
+			assertEquals(expected[i], new String(sortedBytes[i], StandardCharsets.US_ASCII));
+		}
+	}
+
+	@Test
+	void mergesSortedSources(){
+		Integer[][] sources = {{1, 4, 9}, {}, {2, 3, 10, 11}, {0}};
+		assertArrayEquals(new Integer[]{0, 1, 2, 3, 4, 9, 10, 11}, sorter.merge(sources, Comparator.naturalOrder()));
+	}
+
+	@Test
+	void sortsRecords(){
+		RecordLayout layout = new RecordLayout(12, 4, RecordLayout.KeyType.LONG);
+		Random random = new Random(14);
+		ByteBuffer records = ByteBuffer.allocate(12 * 5000);
+		for (int i = 0; i < 5000; i++){
+			records.putInt(i).putLong(random.nextInt(100));
+		}
+		records.flip();
+		sorter.sort(records, layout);
+		for (int i = 1; i < 5000; i++){
+			long previousKey = records.getLong(12 * (i - 1) + 4);
+			long key = records.getLong(12 * i + 4);
+			assertTrue(previousKey < key || previousKey == key && records.getInt(12 * (i - 1)) < records.getInt(12 * i));
+		}
+	}
+
+	@Test
+	void sortsAsynchronously() throws Exception {
+		Random random = new Random(15);
+		int[] values = random.ints(300000).toArray();
+		int[] expected = values.clone();
+		Arrays.sort(expected);
+		SortFuture<int[]> future = sorter.sortAsync(values);
+		assertArrayEquals(expected, future.get(1, TimeUnit.MINUTES));
+		assertEquals(1.0, future.progress());
+		future.stopped().get(1, TimeUnit.MINUTES);
+	}
+
+	@Test
+	void stopsWhenCancelled() throws Exception {
+		Integer[] values = new Random(16).ints(100000).boxed().toArray(Integer[]::new);
+		Integer[] original = values.clone();
+		SortFuture<Integer[]> future = sorter.sortAsync(values, (first, second) -> {
+			for (int i = 0; i < 50; i++){
+				Thread.onSpinWait();
+			}
+			return Integer.compare(first, second);
+		});
+		future.cancel(false);
+		future.stopped().get(1, TimeUnit.MINUTES);
+		assertThrows(CancellationException.class, future::join);
+		Arrays.sort(values);
+		Arrays.sort(original);
+		assertArrayEquals(original, values);
+	}
+
+	@Test
+	void rejectsInvalidGranularity(){
+		assertThrows(IllegalArgumentException.class, () -> new ForkJoinMergeSort(pool, 0));
+		assertThrows(IllegalArgumentException.class, () -> new ForkJoinMergeSort(null));
+	}
+
+	@Test
+	void rejectsNullArrays(){
+		assertThrows(IllegalArgumentException.class, () -> sorter.sort((int[]) null));
+		assertThrows(IllegalArgumentException.class, () -> sorter.sort((long[]) null, new SortBuffer()));
+		assertThrows(IllegalArgumentException.class, () -> sorter.sort((float[]) null));
+		assertThrows(IllegalArgumentException.class, () -> sorter.sort((double[]) null, new SortBuffer()));
+	}
+}
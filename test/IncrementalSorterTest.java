@@ -0,0 +1,115 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link IncrementalSorter}
+ */
+class IncrementalSorterTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void startExecutor(){
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@AfterEach
+	void stopExecutor(){
+		executor.shutdownNow();
+	}
+
+	@Test
+	void servesSortedOutputBetweenBatches(){
+		Random random = new Random(61);
+		IncrementalSorter<MergeSortTest.Entry> sorter = new IncrementalSorter<>(executor, MergeSortTest.BY_KEY);
+		List<MergeSortTest.Entry> added = new ArrayList<>();
+		int index = 0;
+		for (int batch = 0; batch < 40; batch++){
+			MergeSortTest.Entry[] elements = new MergeSortTest.Entry[random.nextInt(500)];
+			for (int i = 0; i < elements.length; i++){
+				elements[i] = new MergeSortTest.Entry(random.nextInt(100), index++);
+			}
+			sorter.add(elements);
+			added.addAll(Arrays.asList(elements));
+			if (batch % 10 == 9){
+				MergeSortTest.Entry[] expected = added.toArray(new MergeSortTest.Entry[0]);
+				Arrays.sort(expected, MergeSortTest.BY_KEY_THEN_INDEX);
+				assertArrayEquals(expected, sorter.stream().toArray(MergeSortTest.Entry[]::new));
+				assertEquals(added.size(), sorter.size());
+			}
+		}
+	}
+
+	@Test
+	void reportsComparatorFailures(){
+		IncrementalSorter<Integer> sorter = new IncrementalSorter<>(executor, (first, second) -> {
+			throw new IllegalStateException("broken comparator");
+		});
+		sorter.add(new Integer[]{3, 1, 2});
+		assertThrows(CompletionException.class, sorter::iterator);
+	}
+
+	@Test
+	void reportsMergeFailures() throws Exception {
+		ExecutorService mergeExecutor = Executors.newSingleThreadExecutor();
+		try {
+			IncrementalSorter<Integer> sorter = new IncrementalSorter<>(mergeExecutor, (first, second) -> {
+				throw new IllegalStateException("broken comparator");
+			});
+			for (int batch = 0; batch < 4; batch++){
+				sorter.add(new Integer[]{batch});
+			}
+			// the first task runs after the batch sorts, which submit the merge, and the second one after the merge
+			mergeExecutor.submit(() -> {}).get();
+			mergeExecutor.submit(() -> {}).get();
+			assertThrows(CompletionException.class, sorter::iterator);
+		} finally {
+			mergeExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	void mergesRunsOfTheSameSize() throws Exception {
+		ThreadPoolExecutor mergeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		try {
+			IncrementalSorter<Integer> sorter = new IncrementalSorter<>(mergeExecutor, Comparator.naturalOrder());
+			Random random = new Random(62);
+			for (int batch = 1; batch <= 200; batch++){
+				sorter.add(random.ints(1000).boxed().toArray(Integer[]::new));
+				// the single worker has run every sort and merge once a task finds the queue empty behind it
+				do {
+					mergeExecutor.submit(() -> {}).get();
+				} while (!mergeExecutor.getQueue().isEmpty());
+				// every run holds a power of 4 batches, and there are at most 3 runs of each size
+				int[] lengths = sorter.runLengths();
+				int tiers = (31 - Integer.numberOfLeadingZeros(batch)) / 2 + 1;
+				assertTrue(lengths.length <= 3 * tiers, batch + " batches in " + lengths.length + " runs");
+				for (int length : lengths){
+					int batches = length / 1000;
+					assertTrue(Integer.bitCount(batches) == 1 && Integer.numberOfTrailingZeros(batches) % 2 == 0, "run of " + batches + " batches");
+				}
+			}
+			assertEquals(200000, sorter.stream().count());
+		} finally {
+			mergeExecutor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link KWayMerge}
+ */
+class KWayMergeTest {
+
+	@Test
+	void mergesArraysStably(){
+		Random random = new Random(51);
+		for (int sourceCount : new int[]{0, 1, 2, 3, 8, 33}){
+			MergeSortTest.Entry[][] sources = new MergeSortTest.Entry[sourceCount][];
+			List<MergeSortTest.Entry> all = new ArrayList<>();
+			int index = 0;
+			for (int i = 0; i < sourceCount; i++){
+				int length = random.nextInt(200);
+				sources[i] = new MergeSortTest.Entry[length];
+				for (int j = 0; j < length; j++){
+					sources[i][j] = new MergeSortTest.Entry(random.nextInt(50), index++);
+				}
+				Arrays.sort(sources[i], MergeSortTest.BY_KEY_THEN_INDEX);
+				all.addAll(Arrays.asList(sources[i]));
+			}
+			MergeSortTest.Entry[] expected = all.toArray(new MergeSortTest.Entry[0]);
+			Arrays.sort(expected, MergeSortTest.BY_KEY_THEN_INDEX);
+			assertArrayEquals(expected, KWayMerge.merge(sources, MergeSortTest.BY_KEY));
+			assertEquals(Arrays.asList(expected), KWayMerge.merge(Arrays.asList(sources), MergeSortTest.BY_KEY));
+		}
+	}
+
+	@Test
+	void mergesIterators(){
+		List<Iterator<Integer>> sources = List.of(List.of(1, 5, 7).iterator(), List.<Integer>of().iterator(), List.of(2, 3, 8).iterator());
+		Iterator<Integer> merged = KWayMerge.mergeIterators(sources, Comparator.naturalOrder());
+		List<Integer> values = new ArrayList<>();
+		merged.forEachRemaining(values::add);
+		assertEquals(List.of(1, 2, 3, 5, 7, 8), values);
+		assertFalse(merged.hasNext());
+		assertThrows(NoSuchElementException.class, merged::next);
+	}
+}
@@ -0,0 +1,237 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the sequential sorts of {@link MergeSort}
+ */
+class MergeSortTest {
+
+	private static final int[] LENGTHS = {0, 1, 2, 3, 7, 31, 32, 33, 100, 1000, 10000, 100000};
+
+	/**
+	 * An element with a key and the index it had in the input, to check stability
+	 */
+	static final class Entry {
+		final int key;
+		final int index;
+
+		Entry(int key, int index){
+			this.key = key;
+			this.index = index;
+		}
+	}
+
+	static final Comparator<Entry> BY_KEY = Comparator.comparingInt(entry -> entry.key);
+	static final Comparator<Entry> BY_KEY_THEN_INDEX = BY_KEY.thenComparingInt(entry -> entry.index);
+
+	static Entry[] entries(Random random, int length, int bound){
+		Entry[] entries = new Entry[length];
+		for (int i = 0; i < length; i++){
+			entries[i] = new Entry(random.nextInt(bound), i);
+		}
+		return entries;
+	}
+
+	static void assertStablySorted(Entry[] sorted, Entry[] input){
+		Entry[] expected = input.clone();
+		Arrays.sort(expected, BY_KEY_THEN_INDEX);
+		assertArrayEquals(expected, sorted);
+	}
+
+	@Test
+	void sortsComparableElements(){
+		Random random = new Random(1);
+		for (int length : LENGTHS){
+			Integer[] values = random.ints(length).boxed().toArray(Integer[]::new);
+			Integer[] expected = values.clone();
+			Arrays.sort(expected);
+			assertSame(values, MergeSort.sort(values, Integer.class));
+			assertArrayEquals(expected, values);
+		}
+	}
+
+	@Test
+	void sortsStablyWithComparator(){
+		Random random = new Random(2);
+		SortBuffer buffer = new SortBuffer();
+		for (int length : LENGTHS){
+			Entry[] input = entries(random, length, Math.max(1, length / 4));
+			Entry[] sorted = input.clone();
+			MergeSort.sort(sorted, BY_KEY, buffer);
+			assertStablySorted(sorted, input);
+		}
+	}
+
+	@Test
+	void sortsPrimitiveArrays(){
+		Random random = new Random(3);
+		for (int length : LENGTHS){
+			int[] ints = random.ints(length).toArray();
+			long[] longs = random.longs(length).toArray();
+			double[] doubles = random.doubles(length).map(value -> value - 0.5).toArray();
+			float[] floats = new float[length];
+			for (int i = 0; i < length; i++){
+				floats[i] = random.nextFloat() - 0.5f;
+			}
+			if (length > 3){
+				doubles[0] = Double.NaN;
+				doubles[1] = -0.0;
+				doubles[2] = 0.0;
+				floats[0] = Float.NaN;
+			}
+			int[] expectedInts = ints.clone();
+			long[] expectedLongs = longs.clone();
+			double[] expectedDoubles = doubles.clone();
+			float[] expectedFloats = floats.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+			Arrays.sort(expectedDoubles);
+			Arrays.sort(expectedFloats);
+			assertArrayEquals(expectedInts, MergeSort.sort(ints));
+			assertArrayEquals(expectedLongs, MergeSort.sort(longs));
+			assertArrayEquals(expectedDoubles, MergeSort.sort(doubles));
+			assertArrayEquals(expectedFloats, MergeSort.sort(floats));
+		}
+	}
+
+	@Test
+	void sortsByExtractedKeys(){
+		Random random = new Random(4);
+		for (int length : LENGTHS){
+			Entry[] input = entries(random, length, 50);
+			Entry[] byInt = MergeSort.sortByInt(input.clone(), entry -> entry.key);
+			Entry[] byLong = MergeSort.sortByLong(input.clone(), entry -> entry.key);
+			assertStablySorted(byInt, input);
+			assertStablySorted(byLong, input);
+		}
+	}
+
+	@Test
+	void sortAdaptiveCountsRuns(){
+		int[] values = new int[1000];
+		for (int i = 0; i < values.length; i++){
+			values[i] = i % 250;
+		}
+		int runs = MergeSort.sortAdaptive(values);
+		assertEquals(4, runs);
+		int[] expected = values.clone();
+		Arrays.sort(expected);
+		assertArrayEquals(expected, values);
+	}
+
+	@Test
+	void selectsSmallestElements(){
+		Random random = new Random(5);
+		Entry[] input = entries(random, 5000, 300);
+		Entry[] expected = input.clone();
+		Arrays.sort(expected, BY_KEY_THEN_INDEX);
+		Entry[] top = MergeSort.topK(input, 10, BY_KEY);
+		assertArrayEquals(Arrays.copyOf(expected, 10), top);
+		Entry[] prefix = MergeSort.sortPrefix(input.clone(), 10, BY_KEY);
+		assertArrayEquals(Arrays.copyOf(expected, 10), Arrays.copyOf(prefix, 10));
+	}
+
+	@Test
+	void argsortIsStableAndAppliesToColumns(){
+		Random random = new Random(6);
+		int[] keys = random.ints(2000, 0, 100).toArray();
+		int[] permutation = MergeSort.argsort(keys);
+		for (int i = 1; i < permutation.length; i++){
+			int previous = permutation[i - 1];
+			int current = permutation[i];
+			assertTrue(keys[previous] < keys[current] || keys[previous] == keys[current] && previous < current);
+		}
+		int[] column = keys.clone();
+		MergeSort.applyPermutation(permutation, column);
+		int[] expected = keys.clone();
+		Arrays.sort(expected);
+		assertArrayEquals(expected, column);
+		assertArrayEquals(permutation, MergeSort.argsort(Arrays.stream(keys).asLongStream().toArray()));
+		assertArrayEquals(permutation, MergeSort.argsort(Arrays.stream(keys).asDoubleStream().toArray()));
+		assertArrayEquals(permutation, MergeSort.argsort(Arrays.stream(keys).boxed().toArray(Integer[]::new), Comparator.naturalOrder()));
+	}
+
+	@Test
+	void sortsByCompositeKeys(){
+		Random random = new Random(7);
+		String[] words = {"alpha", "beta", "gamma", "delta"};
+		Entry[] input = entries(random, 20000, 1000);
+		CompositeKey<Entry> key = CompositeKey.<Entry>byInt(entry -> entry.key % 7)
+				.thenString(entry -> words[entry.key % words.length])
+				.thenDouble(entry -> entry.key / 3.0);
+		Entry[] sorted = MergeSort.sortByKeys(input.clone(), key);
+		Entry[] expected = input.clone();
+		Arrays.sort(expected, key.thenComparingInt(entry -> entry.index));
+		assertArrayEquals(expected, sorted);
+	}
+
+	@Test
+	void reducesEqualElements(){
+		Random random = new Random(8);
+		for (int length : LENGTHS){
+			Entry[] input = entries(random, length, 37);
+			TreeMap<Integer, Integer> counts = new TreeMap<>();
+			TreeMap<Integer, Integer> firsts = new TreeMap<>();
+			for (Entry entry : input){
+				counts.merge(entry.key, 1, Integer::sum);
+				firsts.putIfAbsent(entry.key, entry.index);
+			}
+			Entry[] reduced = Arrays.stream(input).map(entry -> new Entry(entry.key, 1)).toArray(Entry[]::new);
+			int reducedLength = MergeSort.sortReduce(reduced, BY_KEY, (first, second) -> new Entry(first.key, first.index + second.index));
+			Entry[] distinct = input.clone();
+			int distinctLength = MergeSort.sortDistinct(distinct, BY_KEY);
+			assertEquals(counts.size(), reducedLength);
+			assertEquals(counts.size(), distinctLength);
+			int i = 0;
+			for (Integer key : counts.keySet()){
+				assertEquals(key, reduced[i].key);
+				assertEquals(counts.get(key), reduced[i].index);
+				assertEquals(firsts.get(key), distinct[i].index);
+				i++;
+			}
+			for (; i < length; i++){
+				assertNull(reduced[i]);
+				assertNull(distinct[i]);
+			}
+		}
+	}
+
+	@Test
+	void clearsScratchSpaceWhenComparatorFails(){
+		Entry[] input = entries(new Random(9), 1000, 100);
+		SortBuffer buffer = new SortBuffer();
+		int[] comparisons = new int[1];
+		Comparator<Entry> failing = (first, second) -> {
+			if (++comparisons[0] == 5000){
+				throw new IllegalStateException("broken comparator");
+			}
+			return BY_KEY.compare(first, second);
+		};
+		assertThrows(IllegalStateException.class, () -> MergeSort.sort(input.clone(), failing, buffer));
+		comparisons[0] = 0;
+		assertThrows(IllegalStateException.class, () -> MergeSort.argsort(input, failing, buffer));
+		for (Object element : buffer.objects(input.length)){
+			assertNull(element);
+		}
+	}
+
+	@Test
+	void rejectsInvalidArguments(){
+		assertThrows(IllegalArgumentException.class, () -> MergeSort.sort((Integer[]) null, Comparator.naturalOrder()));
+		assertThrows(IllegalArgumentException.class, () -> MergeSort.sort(new Integer[1], (Comparator<Integer>) null));
+		assertThrows(IllegalArgumentException.class, () -> MergeSort.sort(new Integer[]{1, null}, Integer.class));
+		assertThrows(IllegalArgumentException.class, () -> MergeSort.sortReduce(new Integer[1], Comparator.naturalOrder(), null));
+		assertThrows(IllegalArgumentException.class, () -> MergeSort.applyPermutation(new int[]{0, 1}, new int[3]));
+	}
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link OffHeapSort} and of the keys of {@link RecordLayout}
+ */
+class OffHeapSortTest {
+
+	private static final int RECORD_WIDTH = 16;
+	private static final int KEY_OFFSET = 4;
+
+	/**
+	 * Fills a buffer with records made of their index followed by a key, the rest of the record being padding
+	 */
+	private static ByteBuffer records(RecordLayout.KeyType keyType, ByteOrder order, double[] keys, boolean direct){
+		ByteBuffer records = (direct ? ByteBuffer.allocateDirect(RECORD_WIDTH * keys.length) : ByteBuffer.allocate(RECORD_WIDTH * keys.length)).order(order);
+		for (int i = 0; i < keys.length; i++){
+			int position = RECORD_WIDTH * i;
+			records.putInt(position, i);
+			switch (keyType){
+				case INT: records.putInt(position + KEY_OFFSET, (int) keys[i]); break;
+				case LONG: records.putLong(position + KEY_OFFSET, (long) keys[i]); break;
+				case FLOAT: records.putFloat(position + KEY_OFFSET, (float) keys[i]); break;
+				default: records.putDouble(position + KEY_OFFSET, keys[i]);
+			}
+		}
+		return records;
+	}
+
+	private static double key(ByteBuffer records, RecordLayout.KeyType keyType, int index){
+		int position = RECORD_WIDTH * index + KEY_OFFSET;
+		switch (keyType){
+			case INT: return records.getInt(position);
+			case LONG: return records.getLong(position);
+			case FLOAT: return records.getFloat(position);
+			default: return records.getDouble(position);
+		}
+	}
+
+	@Test
+	void sortsRecordsStablyByEveryKeyType(){
+		Random random = new Random(71);
+		for (RecordLayout.KeyType keyType : RecordLayout.KeyType.values()){
+			for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}){
+				double[] keys = new double[3000];
+				for (int i = 0; i < keys.length; i++){
+					keys[i] = random.nextInt(200) - 100;
+				}
+				keys[0] = -0.0;
+				if (keyType == RecordLayout.KeyType.FLOAT || keyType == RecordLayout.KeyType.DOUBLE){
+					keys[1] = Double.NaN;
+					keys[2] = Double.NEGATIVE_INFINITY;
+				}
+				ByteBuffer records = records(keyType, order, keys, order == ByteOrder.LITTLE_ENDIAN);
+				OffHeapSort.sort(records, new RecordLayout(RECORD_WIDTH, KEY_OFFSET, keyType, order));
+				assertEquals(0, records.position());
+				for (int i = 1; i < keys.length; i++){
+					int comparison = Double.compare(key(records, keyType, i - 1), key(records, keyType, i));
+					assertTrue(comparison < 0 || comparison == 0 && records.getInt(RECORD_WIDTH * (i - 1)) < records.getInt(RECORD_WIDTH * i),
+							keyType + " " + order + " at " + i);
+				}
+			}
+		}
+	}
+
+	@Test
+	void ordersNaNsOfAnySignOrPayloadLast(){
+		int[] floatBits = {0x7fc00000, 0xffc00001, Float.floatToRawIntBits(Float.POSITIVE_INFINITY), 0x7f800001, Float.floatToRawIntBits(-1.5f)};
+		long[] doubleBits = {0x7ff8000000000000L, 0xfff8000000000001L, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY), 0x7ff0000000000001L, Double.doubleToRawLongBits(-1.5)};
+		for (RecordLayout.KeyType keyType : new RecordLayout.KeyType[]{RecordLayout.KeyType.FLOAT, RecordLayout.KeyType.DOUBLE}){
+			ByteBuffer records = ByteBuffer.allocate(RECORD_WIDTH * floatBits.length);
+			for (int i = 0; i < floatBits.length; i++){
+				records.putInt(RECORD_WIDTH * i, i);
+				if (keyType == RecordLayout.KeyType.FLOAT){
+					records.putInt(RECORD_WIDTH * i + KEY_OFFSET, floatBits[i]);
+				} else {
+					records.putLong(RECORD_WIDTH * i + KEY_OFFSET, doubleBits[i]);
+				}
+			}
+			OffHeapSort.sort(records, new RecordLayout(RECORD_WIDTH, KEY_OFFSET, keyType));
+			int[] order = new int[floatBits.length];
+			for (int i = 0; i < order.length; i++){
+				order[i] = records.getInt(RECORD_WIDTH * i);
+			}
+			assertArrayEquals(new int[]{4, 2, 0, 1, 3}, order, keyType.toString());
+		}
+	}
+
+	@Test
+	void sortsOnlyBetweenPositionAndLimit(){
+		double[] keys = {5, 4, 3, 2, 1};
+		ByteBuffer records = records(RecordLayout.KeyType.INT, ByteOrder.BIG_ENDIAN, keys, false);
+		records.position(RECORD_WIDTH).limit(4 * RECORD_WIDTH);
+		OffHeapSort.sort(records, new RecordLayout(RECORD_WIDTH, KEY_OFFSET, RecordLayout.KeyType.INT));
+		assertEquals(RECORD_WIDTH, records.position());
+		assertEquals(4 * RECORD_WIDTH, records.limit());
+		records.clear();
+		double[] sorted = new double[keys.length];
+		for (int i = 0; i < keys.length; i++){
+			sorted[i] = key(records, RecordLayout.KeyType.INT, i);
+		}
+		assertArrayEquals(new double[]{5, 2, 3, 4, 1}, sorted);
+	}
+}
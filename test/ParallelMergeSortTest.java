@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link ParallelMergeSort}
+ */
+class ParallelMergeSortTest {
+
+	private static ExecutorService executor;
+	private static ParallelMergeSort sorter;
+
+	@BeforeAll
+	static void startExecutor(){
+		executor = Executors.newFixedThreadPool(4);
+		sorter = new ParallelMergeSort(executor, ParallelMergeSort.MIN_GRANULARITY);
+	}
+
+	@AfterAll
+	static void stopExecutor(){
+		executor.shutdownNow();
+	}
+
+	@Test
+	void sortsStablyWithComparator() throws Exception {
+		Random random = new Random(21);
+		for (int length : new int[]{0, 1, 255, 256, 257, 5000, 100000}){
+			MergeSortTest.Entry[] input = MergeSortTest.entries(random, length, Math.max(1, length / 8));
+			MergeSortTest.assertStablySorted(sorter.sort(input.clone(), MergeSortTest.BY_KEY), input);
+			MergeSortTest.assertStablySorted(sorter.sortByInt(input.clone(), entry -> entry.key), input);
+			MergeSortTest.assertStablySorted(sorter.sortByLong(input.clone(), entry -> entry.key), input);
+		}
+	}
+
+	@Test
+	void sortsPrimitiveArrays() throws Exception {
+		Random random = new Random(22);
+		int[] ints = random.ints(200000).toArray();
+		long[] longs = random.longs(200000).toArray();
+		float[] floats = new float[200000];
+		for (int i = 0; i < floats.length; i++){
+			floats[i] = random.nextFloat() - 0.5f;
+		}
+		int[] expectedInts = ints.clone();
+		long[] expectedLongs = longs.clone();
+		float[] expectedFloats = floats.clone();
+		Arrays.sort(expectedInts);
+		Arrays.sort(expectedLongs);
+		Arrays.sort(expectedFloats);
+		assertArrayEquals(expectedInts, sorter.sort(ints));
+		assertArrayEquals(expectedLongs, sorter.sort(longs));
+		assertArrayEquals(expectedFloats, sorter.sort(floats));
+	}
+
+	@Test
+	void sortsOnExecutorWithBoundedQueue() throws Exception {
+		ThreadPoolExecutor boundedExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4));
+		try {
+			ParallelMergeSort boundedSorter = new ParallelMergeSort(boundedExecutor);
+			Random random = new Random(24);
+			int[] ints = random.ints(2_000_000).toArray();
+			int[] expectedInts = ints.clone();
+			Arrays.sort(expectedInts);
+			assertArrayEquals(expectedInts, boundedSorter.sort(ints));
+			Integer[] integers = random.ints(2_000_000).boxed().toArray(Integer[]::new);
+			Integer[] expectedIntegers = integers.clone();
+			Arrays.sort(expectedIntegers);
+			assertArrayEquals(expectedIntegers, boundedSorter.sort(integers, Integer.class));
+		} finally {
+			boundedExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	void timesOut() throws Exception {
+		Integer[] values = new Random(23).ints(200000).boxed().toArray(Integer[]::new);
+		SortFuture<Integer[]> future = sorter.sortAsync(values, (first, second) -> {
+			for (int i = 0; i < 200; i++){
+				Thread.onSpinWait();
+			}
+			return Integer.compare(first, second);
+		}, 1, TimeUnit.MILLISECONDS);
+		future.stopped().get(1, TimeUnit.MINUTES);
+		assertInstanceOf(TimeoutException.class, assertThrows(ExecutionException.class, future::get).getCause());
+	}
+
+	@Test
+	void rejectsInvalidGranularity(){
+		assertThrows(IllegalArgumentException.class, () -> new ParallelMergeSort(executor, ParallelMergeSort.MIN_GRANULARITY - 1));
+	}
+}
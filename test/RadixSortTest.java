@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link RadixSort} and {@link ForkJoinRadixSort}
+ */
+class RadixSortTest {
+
+	@Test
+	void sortsPrimitiveArrays(){
+		Random random = new Random(31);
+		for (int length : new int[]{0, 1, 2, 100, 10000, 300000}){
+			int[] ints = random.ints(length).toArray();
+			long[] longs = random.longs(length).toArray();
+			double[] doubles = random.doubles(length).map(value -> (value - 0.5) * 1e6).toArray();
+			if (length > 3){
+				doubles[0] = Double.NaN;
+				doubles[1] = -0.0;
+				doubles[2] = Double.NEGATIVE_INFINITY;
+			}
+			int[] expectedInts = ints.clone();
+			long[] expectedLongs = longs.clone();
+			double[] expectedDoubles = doubles.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+			Arrays.sort(expectedDoubles);
+			assertArrayEquals(expectedInts, RadixSort.sort(ints.clone()));
+			assertArrayEquals(expectedLongs, RadixSort.sort(longs.clone()));
+			assertArrayEquals(expectedDoubles, RadixSort.sort(doubles.clone()));
+			ForkJoinRadixSort parallelSorter = new ForkJoinRadixSort(ForkJoinPool.commonPool());
+			assertArrayEquals(expectedInts, parallelSorter.sort(ints));
+			assertArrayEquals(expectedLongs, parallelSorter.sort(longs));
+			assertArrayEquals(expectedDoubles, parallelSorter.sort(doubles));
+		}
+	}
+
+	@Test
+	void sortsByKeysStably(){
+		Random random = new Random(32);
+		ForkJoinRadixSort parallelSorter = new ForkJoinRadixSort(ForkJoinPool.commonPool());
+		for (int length : new int[]{0, 1, 1000, 200000}){
+			MergeSortTest.Entry[] input = MergeSortTest.entries(random, length, Math.max(1, length / 16));
+			MergeSortTest.assertStablySorted(RadixSort.sortByInt(input.clone(), entry -> entry.key), input);
+			MergeSortTest.assertStablySorted(RadixSort.sortByLong(input.clone(), entry -> entry.key), input);
+			MergeSortTest.assertStablySorted(parallelSorter.sortByInt(input.clone(), entry -> entry.key), input);
+			MergeSortTest.assertStablySorted(parallelSorter.sortByLong(input.clone(), entry -> entry.key), input);
+		}
+	}
+}
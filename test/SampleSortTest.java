@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link SampleSort}, with buckets sorted in this JVM and by worker processes
+ */
+class SampleSortTest {
+
+	private static ExecutorService executor;
+
+	@BeforeAll
+	static void startExecutor(){
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterAll
+	static void stopExecutor(){
+		executor.shutdownNow();
+	}
+
+	@Test
+	void sortsInProcess() throws Exception {
+		Random random = new Random(101);
+		SampleSort sorter = new SampleSort(executor, 16);
+		for (int length : new int[]{0, 1, 1000, 300000}){
+			int[] ints = random.ints(length, 0, 1000).toArray();
+			long[] longs = random.longs(length).toArray();
+			int[] expectedInts = ints.clone();
+			long[] expectedLongs = longs.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+			assertArrayEquals(expectedInts, sorter.sort(ints));
+			assertArrayEquals(expectedLongs, sorter.sort(longs));
+		}
+	}
+
+	@Test
+	void sortsWithWorkerProcesses() throws Exception {
+		Random random = new Random(102);
+		try (ProcessBucketSorter bucketSorter = new ProcessBucketSorter(2)){
+			SampleSort sorter = new SampleSort(executor, 8, bucketSorter);
+			for (int round = 0; round < 3; round++){
+				int[] ints = random.ints(200000).toArray();
+				long[] longs = random.longs(200000).toArray();
+				int[] expectedInts = ints.clone();
+				long[] expectedLongs = longs.clone();
+				Arrays.sort(expectedInts);
+				Arrays.sort(expectedLongs);
+				assertArrayEquals(expectedInts, sorter.sort(ints));
+				assertArrayEquals(expectedLongs, sorter.sort(longs));
+			}
+		}
+	}
+
+	@Test
+	void replacesFailedWorkerProcesses() throws Exception {
+		int[] values = new Random(103).ints(100000).toArray();
+		int[] expected = values.clone();
+		Arrays.sort(expected);
+		try (ProcessBucketSorter bucketSorter = new ProcessBucketSorter(1)){
+			int[] output = new int[values.length];
+			bucketSorter.sort(values, output, 0, values.length);
+			assertArrayEquals(expected, output);
+			for (ProcessHandle worker : ProcessHandle.current().children().toList()){
+				worker.destroyForcibly();
+				worker.onExit().join();
+			}
+			assertThrows(IOException.class, () -> bucketSorter.sort(values, new int[values.length], 0, values.length));
+			output = new int[values.length];
+			bucketSorter.sort(values, output, 0, values.length);
+			assertArrayEquals(expected, output);
+		}
+	}
+
+	@Test
+	void rejectsInvalidBucketCounts(){
+		assertThrows(IllegalArgumentException.class, () -> new SampleSort(executor, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SampleSort(executor, SampleSort.MAX_BUCKETS + 1));
+	}
+}
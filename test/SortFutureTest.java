@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the work accounting of {@link SortFuture}
+ */
+class SortFutureTest {
+
+	/**
+	 * The work of a sort computed recursively, as the sort splits the array
+	 */
+	private static long recursiveWork(int length, int leafLength){
+		if (length < leafLength){
+			return length;
+		}
+		int half = length / 2;
+		return length + recursiveWork(half, leafLength) + recursiveWork(length - half, leafLength);
+	}
+
+	@Test
+	void computesWorkOfSplitSort(){
+		for (int leafLength : new int[]{2, 3, 64, 8192}){
+			for (int length : new int[]{0, 1, 2, 3, 63, 64, 65, 1000, 12345, 1 << 20}){
+				assertEquals(recursiveWork(length, leafLength), SortFuture.work(length, leafLength), length + "/" + leafLength);
+			}
+		}
+	}
+
+	@Test
+	void reportsProgress(){
+		SortFuture<int[]> future = new SortFuture<>(new int[0], 100L, SortFuture.NO_DEADLINE);
+		future.advance(25L);
+		assertEquals(0.25, future.progress());
+		future.finish();
+		assertEquals(1.0, future.progress());
+	}
+}
@@ -0,0 +1,124 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the sort metrics, which the metrics-test execution of the build enables with -Dmergesort.metrics=true
+ */
+class SortMetricsTest {
+
+	/**
+	 * A sort reported to the listener
+	 */
+	private static final class Sort {
+		final String sorter;
+		final int length;
+		final long comparisons;
+		final long moves;
+		final long tasks;
+
+		Sort(String sorter, int length, long comparisons, long moves, long tasks){
+			this.sorter = sorter;
+			this.length = length;
+			this.comparisons = comparisons;
+			this.moves = moves;
+			this.tasks = tasks;
+		}
+	}
+
+	private final List<Sort> sorts = new ArrayList<>();
+
+	@BeforeEach
+	void setListener(){
+		assertTrue(SortMetrics.ENABLED);
+		SortMetrics.setListener(new SortListener(){
+			@Override
+			public synchronized void onSortCompleted(String sorter, int length, long nanos, long comparisons, long moves, long tasks, long steals){
+				sorts.add(new Sort(sorter, length, comparisons, moves, tasks));
+			}
+		});
+	}
+
+	@AfterEach
+	void removeListener(){
+		SortMetrics.setListener(null);
+	}
+
+	private Sort onlySort(){
+		assertEquals(1, sorts.size());
+		Sort sort = sorts.get(0);
+		sorts.clear();
+		return sort;
+	}
+
+	@Test
+	void countsMovedElements(){
+		// the right element goes to the scratch space, the left one moves up and the right one comes back below it
+		MergeSort.sort(new int[]{2, 1});
+		assertEquals(3, onlySort().moves);
+		MergeSort.sort(new int[]{1, 2});
+		assertEquals(0, onlySort().moves);
+		Integer[] values = new Random(1).ints(1000).boxed().toArray(Integer[]::new);
+		MergeSort.sort(values, Integer::compare);
+		Sort sort = onlySort();
+		assertEquals("sequential", sort.sorter);
+		assertEquals(0, sort.tasks);
+		assertTrue(sort.comparisons > 0);
+		// every level of the 10 levels of merges moves each element at most twice, through the scratch space and back
+		assertTrue(sort.moves >= values.length && sort.moves <= 2L * values.length * 10);
+	}
+
+	@Test
+	void reportsKeySortsAndArgsorts(){
+		MergeSortTest.Entry[] entries = MergeSortTest.entries(new Random(2), 1000, 50);
+		MergeSort.sortByInt(entries.clone(), entry -> entry.key);
+		MergeSort.sortByLong(entries.clone(), entry -> entry.key);
+		MergeSort.sortByKeys(entries.clone(), CompositeKey.<MergeSortTest.Entry>byInt(entry -> entry.key));
+		for (int i = 0; i < 3; i++){
+			Sort sort = sorts.get(i);
+			assertEquals(entries.length, sort.length);
+			assertTrue(sort.moves >= 2L * entries.length, "the elements are moved through the scratch space");
+		}
+		sorts.clear();
+		int[] keys = new Random(3).ints(1000, 0, 100).toArray();
+		MergeSort.argsort(keys);
+		assertEquals(keys.length, onlySort().length);
+		MergeSort.argsort(MergeSortTest.entries(new Random(4), 1000, 50), MergeSortTest.BY_KEY);
+		assertTrue(onlySort().comparisons > 0);
+	}
+
+	@Test
+	void countsParallelTasks() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ForkJoinMergeSort forkJoinSorter = new ForkJoinMergeSort(pool, 256);
+			ParallelMergeSort parallelSorter = new ParallelMergeSort(executor, 256);
+			MergeSortTest.Entry[] entries = MergeSortTest.entries(new Random(5), 100000, 1000);
+			forkJoinSorter.sort(entries.clone(), MergeSortTest.BY_KEY);
+			forkJoinSorter.sortByInt(entries.clone(), entry -> entry.key);
+			forkJoinSorter.argsort(new Random(6).ints(100000).toArray());
+			parallelSorter.sort(entries.clone(), MergeSortTest.BY_KEY);
+			parallelSorter.sortByLong(entries.clone(), entry -> entry.key);
+			assertEquals(5, sorts.size());
+			for (Sort sort : sorts){
+				assertEquals(entries.length, sort.length);
+				assertTrue(sort.tasks > 1, sort.sorter + " reports its tasks");
+				assertTrue(sort.moves > 0, sort.sorter + " reports its moves");
+			}
+		} finally {
+			pool.shutdownNow();
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link StringMergeSort}
+ */
+class StringMergeSortTest {
+
+	private static String[] keys(Random random, int length){
+		String[] keys = new String[length];
+		for (int i = 0; i < length; i++){
+			StringBuilder key = new StringBuilder("https://example.org/");
+			int parts = random.nextInt(4);
+			for (int j = 0; j < parts; j++){
+				key.append((char) ('a' + random.nextInt(3))).append('/');
+			}
+			if (random.nextBoolean()){
+				key.append('é').append(random.nextInt(20));
+			}
+			keys[i] = key.toString();
+		}
+		return keys;
+	}
+
+	@Test
+	void sortsStrings(){
+		Random random = new Random(91);
+		for (int length : new int[]{0, 1, 2, 16, 17, 1000, 50000}){
+			String[] keys = keys(random, length);
+			String[] expected = keys.clone();
+			Arrays.sort(expected);
+			assertArrayEquals(expected, StringMergeSort.sort(keys));
+		}
+	}
+
+	@Test
+	void sortsByteKeysUnsignedAndStably(){
+		Random random = new Random(92);
+		byte[][] keys = new byte[20000][];
+		for (int i = 0; i < keys.length; i++){
+			keys[i] = new byte[random.nextInt(6)];
+			for (int j = 0; j < keys[i].length; j++){
+				keys[i][j] = (byte) (random.nextInt(3) * 100);
+			}
+		}
+		byte[][] expected = keys.clone();
+		Arrays.sort(expected, Arrays::compareUnsigned);
+		byte[][] sorted = StringMergeSort.sort(keys.clone());
+		for (int i = 0; i < keys.length; i++){
+			assertSame(expected[i], sorted[i]);
+		}
+	}
+}